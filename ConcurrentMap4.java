@@ -0,0 +1,495 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+
+import components.array.Array;
+import components.array.Array1L;
+import components.map.Map;
+import components.map.Map1L;
+import components.map.MapSecondary;
+
+/**
+ * {@code Map} represented as a hash table using {@code Map}s for the buckets,
+ * like {@code Map4}, that can be shared by several threads. The buckets are
+ * guarded by a fixed set of locks ("lock striping"): bucket i is guarded by
+ * lock i mod (number of locks), so threads working on different stripes do
+ * not wait for each other. The kernel methods, {@code replaceValue},
+ * {@code merge} and {@code addOrIncrement} are atomic.
+ *
+ * <p>
+ * The hash table does not grow, so it should be created with about as many
+ * buckets as entries expected. {@code removeAny} resumes from the last bucket
+ * it found nonempty, so emptying the map with it looks at each bucket about
+ * once. Iteration is weakly consistent: it sees each bucket as it was when
+ * the iterator reached it. {@code clear}, {@code newInstance} and
+ * {@code transferFrom} must not run concurrently with other methods on the
+ * same map.
+ * </p>
+ *
+ * @param <K>
+ *            type of {@code Map} domain (key) entries
+ * @param <V>
+ *            type of {@code Map} range (associated value) entries
+ * @convention <pre>
+ * |$this.hashTable| > 0  and  |$this.locks| > 0  and
+ * for all i: integer, pf: PARTIAL_FUNCTION, x: K
+ *     where (0 <= i  and  i < |$this.hashTable|  and
+ *            <pf> = $this.hashTable[i, i+1)  and
+ *            x is in DOMAIN(pf))
+ *   ([computed result of x.hashCode()] mod |$this.hashTable| = i))  and
+ * $this.size = [sum of the sizes of the buckets of $this.hashTable]  and
+ * [bucket i of $this.hashTable is only accessed while holding
+ *  $this.locks[i mod |$this.locks|]]
+ * </pre>
+ * @correspondence <pre>
+ * this = union i: integer, pf: PARTIAL_FUNCTION
+ *            where (0 <= i  and  i < |$this.hashTable|  and
+ *                   <pf> = $this.hashTable[i, i+1))
+ *          (pf)
+ * </pre>
+ *
+ * @author Yuting Che
+ *
+ */
+public class ConcurrentMap4<K, V> extends MapSecondary<K, V> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default size of hash table.
+     */
+    private static final int DEFAULT_HASH_TABLE_SIZE = 1021;
+
+    /**
+     * Default number of locks.
+     */
+    private static final int DEFAULT_LOCKS = 16;
+
+    /**
+     * Buckets for hashing.
+     */
+    private Array<Map<K, V>> hashTable;
+
+    /**
+     * Locks guarding the buckets.
+     */
+    private Object[] locks;
+
+    /**
+     * Total size of abstract {@code this}.
+     */
+    private AtomicInteger size;
+
+    /**
+     * Bucket where {@code removeAny} starts looking for an entry: the last
+     * bucket it found nonempty. Only a hint, read and written without a lock.
+     */
+    private volatile int anyHint;
+
+    /**
+     * Computes {@code a} mod {@code b} as % should have been defined to work.
+     *
+     * @param a
+     *            the number being reduced
+     * @param b
+     *            the modulus
+     * @return the result of a mod b, which satisfies 0 <= {@code mod} < b
+     * @requires b > 0
+     * @ensures <pre>
+     * 0 <= mod  and  mod < b  and
+     * there exists k: integer (a = k * b + mod)
+     * </pre>
+     */
+    private static int mod(int a, int b) {
+        assert b > 0 : "Violation of: b > 0";
+
+        int m = a % b;
+        if (m < 0) {
+            m += b;
+        }
+        return m;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param hashTableSize
+     *            the size of the hash table
+     * @param lockCount
+     *            the number of locks
+     * @requires hashTableSize > 0 and lockCount > 0
+     */
+    private void createNewRep(int hashTableSize, int lockCount) {
+        this.hashTable = new Array1L<>(hashTableSize);
+        for (int i = 0; i < hashTableSize; i++) {
+            this.hashTable.setEntry(i, new Map1L<K, V>());
+        }
+        this.locks = new Object[lockCount];
+        for (int i = 0; i < lockCount; i++) {
+            this.locks[i] = new Object();
+        }
+        this.size = new AtomicInteger();
+        this.anyHint = 0;
+    }
+
+    /**
+     * Returns the index of the bucket where {@code key} belongs.
+     *
+     * @param key
+     *            the key
+     * @return the bucket index of key
+     */
+    private int indexOf(K key) {
+        return mod(key.hashCode(), this.hashTable.length());
+    }
+
+    /**
+     * Returns the lock guarding bucket {@code i}.
+     *
+     * @param i
+     *            the bucket index
+     * @return the lock of bucket i
+     */
+    private Object lockFor(int i) {
+        return this.locks[i % this.locks.length];
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public ConcurrentMap4() {
+        this.createNewRep(DEFAULT_HASH_TABLE_SIZE, DEFAULT_LOCKS);
+    }
+
+    /**
+     * Constructor resulting in a hash table of size {@code hashTableSize}
+     * guarded by {@code lockCount} locks.
+     *
+     * @param hashTableSize
+     *            size of hash table
+     * @param lockCount
+     *            number of locks
+     * @requires hashTableSize > 0 and lockCount > 0
+     * @ensures this = {}
+     */
+    public ConcurrentMap4(int hashTableSize, int lockCount) {
+        assert hashTableSize > 0 : "Violation of: hashTableSize > 0";
+        assert lockCount > 0 : "Violation of: lockCount > 0";
+
+        this.createNewRep(hashTableSize, lockCount);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Map<K, V> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.hashTable.length(), this.locks.length);
+    }
+
+    @Override
+    public final void transferFrom(Map<K, V> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof ConcurrentMap4<?, ?> : ""
+                + "Violation of: source is of dynamic type ConcurrentMap4<?,?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * ConcurrentMap4<?,?>, and the ?,? must be K,V or the call would not
+         * have compiled.
+         */
+        ConcurrentMap4<K, V> localSource = (ConcurrentMap4<K, V>) source;
+        this.hashTable = localSource.hashTable;
+        this.locks = localSource.locks;
+        this.size = localSource.size;
+        this.anyHint = localSource.anyHint;
+        localSource.createNewRep(this.hashTable.length(), this.locks.length);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+
+        int i = this.indexOf(key);
+        synchronized (this.lockFor(i)) {
+            Map<K, V> bucket = this.hashTable.entry(i);
+            assert !bucket.hasKey(key) : ""
+                    + "Violation of: key is not in DOMAIN(this)";
+            bucket.add(key, value);
+        }
+        this.size.incrementAndGet();
+    }
+
+    @Override
+    public final Pair<K, V> remove(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        int i = this.indexOf(key);
+        Pair<K, V> p;
+        synchronized (this.lockFor(i)) {
+            Map<K, V> bucket = this.hashTable.entry(i);
+            assert bucket.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+            p = bucket.remove(key);
+        }
+        this.size.decrementAndGet();
+        return p;
+    }
+
+    @Override
+    public final Pair<K, V> removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        /*
+         * Start from the last bucket found nonempty, so emptying this with
+         * repeated calls looks at each bucket about once instead of rescanning
+         * the emptied ones every time; wrap around once to see buckets filled
+         * behind the hint
+         */
+        int length = this.hashTable.length();
+        int i = this.anyHint;
+        Pair<K, V> p = null;
+        int seen = 0;
+        while (p == null && seen < length) {
+            synchronized (this.lockFor(i)) {
+                Map<K, V> bucket = this.hashTable.entry(i);
+                if (bucket.size() > 0) {
+                    p = bucket.removeAny();
+                    this.anyHint = i;
+                }
+            }
+            if (p == null) {
+                i = (i + 1) % length;
+                seen++;
+            }
+        }
+        if (p == null) {
+            /*
+             * Another thread emptied this after the precondition was checked.
+             */
+            throw new NoSuchElementException();
+        }
+        this.size.decrementAndGet();
+        return p;
+    }
+
+    @Override
+    public final V value(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        int i = this.indexOf(key);
+        synchronized (this.lockFor(i)) {
+            Map<K, V> bucket = this.hashTable.entry(i);
+            assert bucket.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+            return bucket.value(key);
+        }
+    }
+
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        int i = this.indexOf(key);
+        synchronized (this.lockFor(i)) {
+            return this.hashTable.entry(i).hasKey(key);
+        }
+    }
+
+    @Override
+    public final int size() {
+        return this.size.get();
+    }
+
+    @Override
+    public final Iterator<Pair<K, V>> iterator() {
+        return new ConcurrentMap4Iterator();
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    @Override
+    public final V replaceValue(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+
+        int i = this.indexOf(key);
+        synchronized (this.lockFor(i)) {
+            Map<K, V> bucket = this.hashTable.entry(i);
+            assert bucket.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+            return bucket.replaceValue(key, value);
+        }
+    }
+
+    /**
+     * Atomically adds ({@code key}, {@code value}) to this if {@code key} is
+     * not in it, or otherwise replaces the value associated with {@code key}
+     * by {@code combine(oldValue, value)}; returns the value now associated
+     * with {@code key}.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value to add or combine
+     * @param combine
+     *            the function combining the old value with value
+     * @return the value now associated with key
+     * @updates this
+     * @requires combine does not use this
+     * @ensures <pre>
+     * if key is not in DOMAIN(#this)
+     *  then this = #this union {(key, value)}  and  merge = value
+     *  else this = (#this \ {(key, #this(key))}) union
+     *              {(key, combine(#this(key), value))}  and
+     *       merge = combine(#this(key), value)
+     * </pre>
+     */
+    public final V merge(K key, V value, BinaryOperator<V> combine) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert combine != null : "Violation of: combine is not null";
+
+        int i = this.indexOf(key);
+        V result = value;
+        boolean added = false;
+        synchronized (this.lockFor(i)) {
+            Map<K, V> bucket = this.hashTable.entry(i);
+            if (bucket.hasKey(key)) {
+                result = combine.apply(bucket.value(key), value);
+                bucket.replaceValue(key, result);
+            } else {
+                bucket.add(key, value);
+                added = true;
+            }
+        }
+        if (added) {
+            this.size.incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * Atomically adds ({@code key}, 1) to {@code map} if {@code key} is not in
+     * it, or otherwise increments the count associated with {@code key};
+     * returns the new count.
+     *
+     * @param <K>
+     *            type of keys
+     * @param map
+     *            the map of counts
+     * @param key
+     *            the key
+     * @return the count now associated with key
+     * @updates map
+     * @ensures <pre>
+     * if key is not in DOMAIN(#map)
+     *  then map = #map union {(key, 1)}
+     *  else map = (#map \ {(key, #map(key))}) union {(key, #map(key) + 1)}
+     * </pre>
+     */
+    public static <K> int addOrIncrement(ConcurrentMap4<K, Integer> map,
+            K key) {
+        assert map != null : "Violation of: map is not null";
+
+        return map.merge(key, 1, Integer::sum);
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code ConcurrentMap4}. Each bucket is copied, under its lock, when the
+     * iterator reaches it.
+     */
+    private final class ConcurrentMap4Iterator
+            implements Iterator<Pair<K, V>> {
+
+        /**
+         * Index of the next bucket to copy.
+         */
+        private int nextBucket;
+
+        /**
+         * Copy of the current bucket, from which the next element will come.
+         */
+        private Map<K, V> current;
+
+        /**
+         * No-argument constructor.
+         */
+        ConcurrentMap4Iterator() {
+            this.nextBucket = 0;
+            this.current = new Map1L<>();
+            this.advance();
+        }
+
+        /**
+         * Copies buckets until one with entries is found or there are no more
+         * buckets.
+         */
+        private void advance() {
+            Array<Map<K, V>> table = ConcurrentMap4.this.hashTable;
+            while (this.current.size() == 0
+                    && this.nextBucket < table.length()) {
+                synchronized (ConcurrentMap4.this.lockFor(this.nextBucket)) {
+                    for (Pair<K, V> p : table.entry(this.nextBucket)) {
+                        this.current.add(p.key(), p.value());
+                    }
+                }
+                this.nextBucket++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current.size() > 0;
+        }
+
+        @Override
+        public Pair<K, V> next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            Pair<K, V> p = this.current.removeAny();
+            this.advance();
+            return p;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,94 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code ConcurrentMap4}, with added tests
+ * of concurrent counting and of {@code removeAny}.
+ */
+public class ConcurrentMap4Test extends MapTest {
+
+    /**
+     * Size of hash table to be used in tests.
+     */
+    private static final int TEST_HASH_TABLE_SIZE = 101;
+
+    /**
+     * Number of locks to be used in tests.
+     */
+    private static final int TEST_LOCKS = 4;
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new ConcurrentMap4<String, String>(TEST_HASH_TABLE_SIZE,
+                TEST_LOCKS);
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+    /**
+     * Tests several threads counting the same words with addOrIncrement.
+     *
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public final void testConcurrentAddOrIncrement()
+            throws InterruptedException {
+        final int threads = 4;
+        final int words = 50;
+        final int rounds = 200;
+        final ConcurrentMap4<String, Integer> counts = new ConcurrentMap4<>(
+                TEST_HASH_TABLE_SIZE, TEST_LOCKS);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int r = 0; r < rounds; r++) {
+                    for (int w = 0; w < words; w++) {
+                        ConcurrentMap4.addOrIncrement(counts, "w" + w);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread w : workers) {
+            w.join();
+        }
+        assertEquals(words, counts.size());
+        for (int w = 0; w < words; w++) {
+            assertEquals(threads * rounds, (int) counts.value("w" + w));
+        }
+    }
+
+    /**
+     * Tests removeAny when entries are added to buckets it has already
+     * passed.
+     */
+    @Test
+    public final void testRemoveAnyWithRefills() {
+        final int entries = 300;
+        Map<String, String> test = this.constructorTest();
+        Map<String, String> ref = this.constructorRef();
+        Map<String, String> removed = this.constructorRef();
+        for (int i = 0; i < entries; i++) {
+            test.add("k" + i, "v" + i);
+            ref.add("k" + i, "v" + i);
+            if (i % 2 == 1) {
+                Map.Pair<String, String> p = test.removeAny();
+                removed.add(p.key(), p.value());
+            }
+        }
+        while (test.size() > 0) {
+            Map.Pair<String, String> p = test.removeAny();
+            removed.add(p.key(), p.value());
+        }
+        assertEquals(ref, removed);
+    }
+
+}
@@ -0,0 +1,40 @@
+/**
+ * Hash-code mixing shared by the open-addressing hash tables ({@code Map5},
+ * {@code Set4}), which pick a slot from the low-order bits of the mixed hash
+ * code.
+ *
+ * @author Yuting Che
+ *
+ */
+final class HashMixing {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private HashMixing() {
+    }
+
+    /**
+     * Returns the hash code of {@code x} put through the MurmurHash3 32-bit
+     * finalization mix, so that the low-order bits used to pick a slot depend
+     * on all of them.
+     *
+     * @param x
+     *            the object
+     * @return the mixed hash code
+     */
+    static int mixedHash(Object x) {
+        final int shift1 = 16;
+        final int shift2 = 13;
+        final int mult1 = 0x85ebca6b;
+        final int mult2 = 0xc2b2ae35;
+        int h = x.hashCode();
+        h ^= h >>> shift1;
+        h *= mult1;
+        h ^= h >>> shift2;
+        h *= mult2;
+        h ^= h >>> shift1;
+        return h;
+    }
+
+}
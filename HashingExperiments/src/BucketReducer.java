@@ -0,0 +1,23 @@
+/**
+ * Reduction of a hash code to a bucket index in a hash table of a given size.
+ *
+ * @author Put your name here
+ *
+ */
+public interface BucketReducer {
+
+    /**
+     * Returns the bucket index of {@code hash} in a table of {@code tableSize}
+     * buckets.
+     *
+     * @param hash
+     *            the hash code
+     * @param tableSize
+     *            the number of buckets
+     * @return the bucket index
+     * @requires tableSize > 0 and [tableSize is acceptable to this reducer]
+     * @ensures 0 <= bucket < tableSize
+     */
+    int bucket(int hash, int tableSize);
+
+}
@@ -0,0 +1,95 @@
+/**
+ * The {@code BucketReducer}s available to the hashing experiments.
+ * {@code MOD} is the mathematical modulo of {@code HashingExploration.mod}
+ * and costs an integer division; the others avoid the division.
+ *
+ * @author Put your name here
+ *
+ */
+public enum BucketReducers implements BucketReducer {
+
+    /**
+     * {@code HashingExploration.mod(hash, tableSize)}; any table size.
+     */
+    MOD {
+        @Override
+        public int bucket(int hash, int tableSize) {
+            assert tableSize > 0 : "Violation of: tableSize > 0";
+
+            return HashingExploration.mod(hash, tableSize);
+        }
+    },
+
+    /**
+     * The low-order bits of {@code hash}; table size must be a power of two.
+     * Equal to {@code MOD} on such tables, but only as good as the low bits of
+     * the hash.
+     */
+    MASK {
+        @Override
+        public int bucket(int hash, int tableSize) {
+            assert isPowerOfTwo(tableSize) : ""
+                    + "Violation of: tableSize is a power of two";
+
+            return hash & (tableSize - 1);
+        }
+    },
+
+    /**
+     * The low-order bits of {@code hash} after the MurmurHash3 finalization
+     * mix, so every bit of the hash affects the bucket; table size must be a
+     * power of two.
+     */
+    MIXED_MASK {
+        @Override
+        public int bucket(int hash, int tableSize) {
+            assert isPowerOfTwo(tableSize) : ""
+                    + "Violation of: tableSize is a power of two";
+
+            return StringHashers.fmix32(hash) & (tableSize - 1);
+        }
+    },
+
+    /**
+     * Lemire's multiply-shift fast range reduction: the high 32 bits of
+     * {@code hash} (as unsigned) times {@code tableSize}; any table size. Uses
+     * the high-order bits of the hash.
+     */
+    LEMIRE {
+        @Override
+        public int bucket(int hash, int tableSize) {
+            assert tableSize > 0 : "Violation of: tableSize > 0";
+
+            long product = Integer.toUnsignedLong(hash) * tableSize;
+            return (int) (product >>> Integer.SIZE);
+        }
+    };
+
+    /**
+     * Reports whether {@code n} is a power of two.
+     *
+     * @param n
+     *            the number
+     * @return true iff n is a (positive) power of two
+     * @ensures isPowerOfTwo = (there exists k: integer (n = 2^k))
+     */
+    public static boolean isPowerOfTwo(int n) {
+        return n > 0 && (n & (n - 1)) == 0;
+    }
+
+    /**
+     * Returns whether this reducer accepts tables of {@code tableSize}
+     * buckets.
+     *
+     * @param tableSize
+     *            the number of buckets
+     * @return true iff tableSize is acceptable to this reducer
+     * @requires tableSize > 0
+     */
+    public boolean accepts(int tableSize) {
+        assert tableSize > 0 : "Violation of: tableSize > 0";
+
+        return (this != MASK && this != MIXED_MASK) || isPowerOfTwo(tableSize);
+    }
+
+}
@@ -0,0 +1,262 @@
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Set of 64-bit fingerprints kept off the Java heap, in direct buffers, as an
+ * open-addressing hash table with linear probing. It lets the hashing
+ * experiments dedupe the lines of files far larger than the heap, with a false
+ * "already seen" answer only when two distinct lines share a 64-bit
+ * fingerprint. Each slot takes 8 bytes and the table doubles when it is half
+ * full, so it takes 16 to 32 bytes per distinct line, and up to 48 while it
+ * grows, when the old and the new table are both allocated. Direct buffers do
+ * not count against the heap limit but against
+ * {@code -XX:MaxDirectMemorySize}, which defaults to the heap limit
+ * ({@code -Xmx}); raise it to dedupe more lines than that allows.
+ *
+ * @author Put your name here
+ *
+ */
+public final class FingerprintSet {
+
+    /**
+     * Initial number of slots.
+     */
+    private static final long INITIAL_CAPACITY = 1L << 16;
+
+    /**
+     * Log base 2 of the number of slots in one direct buffer (1 GiB).
+     */
+    private static final int SEGMENT_BITS = 27;
+
+    /**
+     * Value marking an empty slot; fingerprints equal to it are remapped.
+     */
+    private static final long EMPTY = 0L;
+
+    /**
+     * Value {@code EMPTY} fingerprints are remapped to.
+     */
+    private static final long EMPTY_SUBSTITUTE = 1L;
+
+    /**
+     * Log base 2 of the number of slots in one direct buffer.
+     */
+    private final int segmentBits;
+
+    /**
+     * The slots, split into direct buffers of at most 2^segmentBits slots;
+     * slot i is at offset (i mod 2^segmentBits) of buffer
+     * (i div 2^segmentBits).
+     */
+    private LongBuffer[] slots;
+
+    /**
+     * Number of slots, a power of two.
+     */
+    private long capacity;
+
+    /**
+     * Number of fingerprints in the set.
+     */
+    private long size;
+
+    /**
+     * No-argument constructor.
+     */
+    public FingerprintSet() {
+        this(INITIAL_CAPACITY, SEGMENT_BITS);
+    }
+
+    /**
+     * Constructor from the initial number of slots and the size of the direct
+     * buffers, so that tests can exercise growing and segment indexing on
+     * small tables.
+     *
+     * @param initialCapacity
+     *            initial number of slots
+     * @param segmentBits
+     *            log base 2 of the number of slots in one direct buffer
+     * @requires <pre>
+     * initialCapacity >= 2  and  [initialCapacity is a power of two]  and
+     * 0 <= segmentBits <= SEGMENT_BITS
+     * </pre>
+     */
+    FingerprintSet(long initialCapacity, int segmentBits) {
+        assert initialCapacity >= 2
+                && Long.bitCount(initialCapacity) == 1 : ""
+                        + "Violation of: initialCapacity is a power of two"
+                        + " >= 2";
+        assert 0 <= segmentBits
+                && segmentBits <= SEGMENT_BITS : ""
+                        + "Violation of: 0 <= segmentBits <= SEGMENT_BITS";
+
+        this.segmentBits = segmentBits;
+        this.capacity = initialCapacity;
+        this.slots = this.allocate(this.capacity);
+        this.size = 0;
+    }
+
+    /**
+     * Returns off-heap buffers holding {@code capacity} empty slots.
+     *
+     * @param capacity
+     *            number of slots, a power of two
+     * @return the buffers
+     */
+    private LongBuffer[] allocate(long capacity) {
+        int segmentSize = (int) Math.min(capacity, 1L << this.segmentBits);
+        LongBuffer[] result = new LongBuffer[(int) (capacity / segmentSize)];
+        for (int k = 0; k < result.length; k++) {
+            result[k] = ByteBuffer.allocateDirect(segmentSize * Long.BYTES)
+                    .asLongBuffer();
+        }
+        return result;
+    }
+
+    /**
+     * Returns slot {@code i} of {@code table}.
+     *
+     * @param table
+     *            the slots
+     * @param i
+     *            the slot index
+     * @return the value in slot i
+     */
+    private long get(LongBuffer[] table, long i) {
+        return table[(int) (i >>> this.segmentBits)]
+                .get((int) (i & ((1L << this.segmentBits) - 1)));
+    }
+
+    /**
+     * Puts {@code f} in slot {@code i} of {@code table}.
+     *
+     * @param table
+     *            the slots
+     * @param i
+     *            the slot index
+     * @param f
+     *            the value
+     */
+    private void put(LongBuffer[] table, long i, long f) {
+        table[(int) (i >>> this.segmentBits)]
+                .put((int) (i & ((1L << this.segmentBits) - 1)), f);
+    }
+
+    /**
+     * Puts {@code f} in the first empty slot of its probe sequence in
+     * {@code table}, or does nothing if it is already there.
+     *
+     * @param table
+     *            the slots
+     * @param capacity
+     *            the number of slots in table, a power of two
+     * @param f
+     *            the fingerprint
+     * @return true iff f was not already in table
+     * @requires [table has an empty slot] and f /= EMPTY
+     */
+    private boolean insert(LongBuffer[] table, long capacity, long f) {
+        long mask = capacity - 1;
+        long i = (f ^ (f >>> Integer.SIZE)) & mask;
+        long slot = this.get(table, i);
+        while (slot != EMPTY && slot != f) {
+            i = (i + 1) & mask;
+            slot = this.get(table, i);
+        }
+        boolean added = slot == EMPTY;
+        if (added) {
+            this.put(table, i, f);
+        }
+        return added;
+    }
+
+    /**
+     * Doubles the number of slots, moving every fingerprint to the new table.
+     */
+    private void grow() {
+        long biggerCapacity = 2 * this.capacity;
+        LongBuffer[] bigger = this.allocate(biggerCapacity);
+        for (long i = 0; i < this.capacity; i++) {
+            long f = this.get(this.slots, i);
+            if (f != EMPTY) {
+                this.insert(bigger, biggerCapacity, f);
+            }
+        }
+        this.slots = bigger;
+        this.capacity = biggerCapacity;
+    }
+
+    /**
+     * Adds {@code fingerprint} to this set if it is not already there.
+     * Fingerprint 0 marks empty slots, so it is stored as 1: the two count as
+     * one fingerprint.
+     *
+     * @param fingerprint
+     *            the fingerprint
+     * @return true iff fingerprint was not already in this
+     * @updates this
+     * @ensures <pre>
+     * this = #this union {fingerprint}  and
+     * add = (fingerprint is not in #this)
+     * </pre>
+     */
+    public boolean add(long fingerprint) {
+        long f = fingerprint;
+        if (f == EMPTY) {
+            f = EMPTY_SUBSTITUTE;
+        }
+        if (2 * (this.size + 1) > this.capacity) {
+            this.grow();
+        }
+        boolean added = this.insert(this.slots, this.capacity, f);
+        if (added) {
+            this.size++;
+        }
+        return added;
+    }
+
+    /**
+     * Reports the number of fingerprints in this set.
+     *
+     * @return the number of fingerprints
+     * @ensures size = |this|
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Returns a 64-bit fingerprint of {@code data[from, to)}: 64-bit FNV-1a
+     * followed by the MurmurHash3 64-bit finalization mix.
+     *
+     * @param data
+     *            the bytes
+     * @param from
+     *            first position
+     * @param to
+     *            position after the last
+     * @return the fingerprint
+     * @requires 0 <= from <= to <= data.limit
+     */
+    public static long fingerprint(ByteBuffer data, int from, int to) {
+        final long offsetBasis = 0xcbf29ce484222325L;
+        final long prime = 0x100000001b3L;
+        final int byteMask = 0xFF;
+        final int shift = 33;
+        final long mult1 = 0xff51afd7ed558ccdL;
+        final long mult2 = 0xc4ceb9fe1a85ec53L;
+
+        long h = offsetBasis;
+        for (int i = from; i < to; i++) {
+            h ^= data.get(i) & byteMask;
+            h *= prime;
+        }
+        h ^= h >>> shift;
+        h *= mult1;
+        h ^= h >>> shift;
+        h *= mult2;
+        h ^= h >>> shift;
+        return h;
+    }
+
+}
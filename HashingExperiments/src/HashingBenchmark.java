@@ -0,0 +1,289 @@
+import components.queue.Queue;
+import components.queue.Queue1L;
+import components.set.Set;
+import components.set.Set1L;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Compares the {@code StringHashers} on the distinct lines of one or more text
+ * files: hashing throughput, and quality of the bucket distribution (chi-square
+ * statistic, maximum bucket load, empty buckets) and of the avalanche behavior
+ * (how often each output bit flips when one input bit flips).
+ *
+ * <p>
+ * Usage: {@code HashingBenchmark [tableSize] [file ...]}; the defaults are a
+ * table of 101 buckets and the files in {@code data}.
+ * </p>
+ *
+ * @author Put your name here
+ *
+ */
+public final class HashingBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private HashingBenchmark() {
+    }
+
+    /**
+     * Default hash table size.
+     */
+    private static final int DEFAULT_TABLE_SIZE = 101;
+
+    /**
+     * Default data files.
+     */
+    private static final String[] DEFAULT_FILES = { "data/length8.txt",
+        "data/mod30.txt", "data/random.txt", "data/startend.txt" };
+
+    /**
+     * Minimum total number of strings hashed in each timed pass.
+     */
+    private static final int HASHES_PER_PASS = 1_000_000;
+
+    /**
+     * Number of untimed passes before timing.
+     */
+    private static final int WARMUP_PASSES = 5;
+
+    /**
+     * Number of timed passes; the fastest is reported.
+     */
+    private static final int TIMED_PASSES = 5;
+
+    /**
+     * Maximum number of strings used for the avalanche test.
+     */
+    private static final int AVALANCHE_SAMPLE = 1000;
+
+    /**
+     * Low-order bits flipped in each character for the avalanche test; 7 keeps
+     * ASCII text ASCII.
+     */
+    private static final int AVALANCHE_BITS = 7;
+
+    /**
+     * Sink for hash values so the JIT cannot discard the timed loops.
+     */
+    private static int sink;
+
+    /**
+     * Returns the distinct lines of the file named {@code fileName}.
+     *
+     * @param fileName
+     *            the name of the file
+     * @return the distinct lines, in file order
+     */
+    private static String[] distinctLines(String fileName) {
+        Set<String> seen = new Set1L<>();
+        Queue<String> lines = new Queue1L<>();
+        SimpleReader file = new SimpleReader1L(fileName);
+        while (!file.atEOS()) {
+            String line = file.nextLine();
+            if (!seen.contains(line)) {
+                seen.add(line);
+                lines.enqueue(line);
+            }
+        }
+        file.close();
+        String[] result = new String[lines.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = lines.dequeue();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the nanoseconds per hash of {@code h} over {@code words}: the
+     * fastest of several timed passes, after some warm-up passes.
+     *
+     * @param h
+     *            the hash function
+     * @param words
+     *            the strings to hash
+     * @return nanoseconds per hash
+     * @requires |words| > 0
+     */
+    private static double nanosPerHash(StringHasher h, String[] words) {
+        int rounds = Math.max(1, HASHES_PER_PASS / words.length);
+        long best = Long.MAX_VALUE;
+        for (int pass = 0; pass < WARMUP_PASSES + TIMED_PASSES; pass++) {
+            long start = System.nanoTime();
+            int acc = 0;
+            for (int r = 0; r < rounds; r++) {
+                for (String w : words) {
+                    acc += h.hash(w);
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            sink += acc;
+            if (pass >= WARMUP_PASSES) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return (double) best / ((long) rounds * words.length);
+    }
+
+    /**
+     * Returns the bucket counts of {@code words} hashed by {@code h} into a
+     * table of {@code tableSize} buckets.
+     *
+     * @param h
+     *            the hash function
+     * @param words
+     *            the strings to hash
+     * @param tableSize
+     *            the number of buckets
+     * @return the count of strings in each bucket
+     * @requires tableSize > 0
+     */
+    private static int[] bucketCounts(StringHasher h, String[] words,
+            int tableSize) {
+        int[] counts = new int[tableSize];
+        for (String w : words) {
+            counts[HashingExploration.mod(h.hash(w), tableSize)]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the chi-square statistic of {@code counts} against the uniform
+     * distribution, divided by its degrees of freedom; about 1 for a good
+     * hash, much more than 1 for a clumpy one.
+     *
+     * @param counts
+     *            the bucket counts
+     * @param total
+     *            the sum of the counts
+     * @return the reduced chi-square statistic
+     * @requires |counts| > 1 and total > 0
+     */
+    private static double reducedChiSquare(int[] counts, int total) {
+        double expected = (double) total / counts.length;
+        double chi = 0;
+        for (int c : counts) {
+            double d = c - expected;
+            chi += d * d / expected;
+        }
+        return chi / (counts.length - 1);
+    }
+
+    /**
+     * Runs the avalanche test of {@code h} on (a sample of) {@code words}:
+     * every low-order bit of every character is flipped in turn, and the
+     * output bits that change are counted.
+     *
+     * @param h
+     *            the hash function
+     * @param words
+     *            the strings to use
+     * @return {mean flip rate over all output bits, largest deviation of any
+     *         single output bit's flip rate from 0.5}
+     */
+    private static double[] avalanche(StringHasher h, String[] words) {
+        long[] flips = new long[Integer.SIZE];
+        long trials = 0;
+        int sample = Math.min(words.length, AVALANCHE_SAMPLE);
+        for (int k = 0; k < sample; k++) {
+            char[] chars = words[k].toCharArray();
+            int base = h.hash(words[k]);
+            for (int i = 0; i < chars.length; i++) {
+                for (int b = 0; b < AVALANCHE_BITS; b++) {
+                    chars[i] ^= 1 << b;
+                    int diff = base ^ h.hash(new String(chars));
+                    chars[i] ^= 1 << b;
+                    for (int bit = 0; bit < Integer.SIZE; bit++) {
+                        flips[bit] += (diff >>> bit) & 1;
+                    }
+                    trials++;
+                }
+            }
+        }
+        final double ideal = 0.5;
+        double mean = 0;
+        double worst = 0;
+        if (trials > 0) {
+            for (long f : flips) {
+                double rate = (double) f / trials;
+                mean += rate / Integer.SIZE;
+                worst = Math.max(worst, Math.abs(rate - ideal));
+            }
+        }
+        return new double[] { mean, worst };
+    }
+
+    /**
+     * Outputs the benchmark results for the words in one file.
+     *
+     * @param fileName
+     *            the name of the file
+     * @param tableSize
+     *            the number of buckets
+     * @param out
+     *            the output stream
+     * @updates out.content
+     * @requires tableSize > 1 and out.is_open
+     */
+    private static void benchmarkFile(String fileName, int tableSize,
+            SimpleWriter out) {
+        String[] words = distinctLines(fileName);
+        out.println(fileName + ": " + words.length + " distinct lines, "
+                + tableSize + " buckets");
+        if (words.length > 0) {
+            out.println(String.format("%-12s %9s %9s %8s %6s %9s %9s", "hash",
+                    "ns/hash", "chi2/df", "maxLoad", "empty", "avalanche",
+                    "worstBit"));
+            for (StringHashers h : StringHashers.values()) {
+                double ns = nanosPerHash(h, words);
+                int[] counts = bucketCounts(h, words, tableSize);
+                int max = 0;
+                int empty = 0;
+                for (int c : counts) {
+                    max = Math.max(max, c);
+                    if (c == 0) {
+                        empty++;
+                    }
+                }
+                double[] av = avalanche(h, words);
+                out.println(String.format(
+                        "%-12s %9.2f %9.2f %8d %6d %9.3f %9.3f", h, ns,
+                        reducedChiSquare(counts, words.length), max, empty,
+                        av[0], av[1]));
+            }
+        }
+        out.println();
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            optional hash table size followed by data file names
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+
+        int tableSize = DEFAULT_TABLE_SIZE;
+        String[] files = DEFAULT_FILES;
+        if (args.length > 0) {
+            tableSize = Integer.parseInt(args[0]);
+            if (args.length > 1) {
+                files = new String[args.length - 1];
+                System.arraycopy(args, 1, files, 0, files.length);
+            }
+        }
+        for (String f : files) {
+            benchmarkFile(f, tableSize, out);
+        }
+        if (sink == 1) {
+            out.println();
+        }
+
+        out.close();
+    }
+
+}
@@ -0,0 +1,287 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.DecimalFormat;
+import java.util.Arrays;
+
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Streaming version of {@code HashingExploration} for files too large for the
+ * heap. The file is read through memory-mapped windows, distinct lines are
+ * detected with an off-heap {@code FingerprintSet} instead of a
+ * {@code Set<String>}, and the distribution of lines into buckets is reported
+ * as summary statistics (load distribution, percentiles, empty-bucket ratio)
+ * instead of one bar per bucket.
+ *
+ * <p>
+ * Usage: {@code HashingStreamAnalysis tableSize file [hash]}, where
+ * {@code hash} names one of the {@code StringHashers} (default {@code SUM},
+ * the function of {@code HashingExploration}).
+ * </p>
+ *
+ * @author Put your name here
+ *
+ */
+public final class HashingStreamAnalysis {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private HashingStreamAnalysis() {
+    }
+
+    /**
+     * Size of each memory-mapped window of the file.
+     */
+    private static final int WINDOW_SIZE = 1 << 28;
+
+    /**
+     * Bucket-load percentiles reported.
+     */
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+    /**
+     * Summary of one run: total and distinct lines, and bucket counts.
+     */
+    static final class Result {
+
+        /**
+         * Number of lines read.
+         */
+        private long lines;
+
+        /**
+         * Count of distinct lines in each bucket.
+         */
+        private final long[] counts;
+
+        /**
+         * Constructor from the table size.
+         *
+         * @param tableSize
+         *            the number of buckets
+         */
+        private Result(int tableSize) {
+            this.counts = new long[tableSize];
+        }
+
+        /**
+         * Reports the number of lines read.
+         *
+         * @return the number of lines
+         */
+        long lines() {
+            return this.lines;
+        }
+
+        /**
+         * Reports the number of distinct lines in bucket {@code i}.
+         *
+         * @param i
+         *            the bucket
+         * @return the count of bucket i
+         * @requires 0 <= i < [the number of buckets]
+         */
+        long count(int i) {
+            return this.counts[i];
+        }
+
+    }
+
+    /**
+     * Reads the file named {@code fileName} line by line, through
+     * memory-mapped windows of {@code windowSize} bytes, and counts, for each
+     * bucket, the distinct lines {@code h} sends there. A line ends at a
+     * {@code '\n'}, without the {@code '\r'} before it if there is one, or at
+     * the end of the file; a line longer than a window is counted as
+     * window-sized pieces.
+     *
+     * @param fileName
+     *            the name of the file
+     * @param tableSize
+     *            the number of buckets
+     * @param h
+     *            the hash function
+     * @param seen
+     *            fingerprints of the distinct lines seen
+     * @param windowSize
+     *            the size of each memory-mapped window
+     * @return the line and bucket counts
+     * @updates seen
+     * @requires tableSize > 0 and windowSize > 0
+     */
+    static Result analyze(String fileName, int tableSize, StringHasher h,
+            FingerprintSet seen, int windowSize) {
+        Result result = new Result(tableSize);
+        byte[] scratch = new byte[1];
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName),
+                StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long position = 0;
+            while (position < fileSize) {
+                int length = (int) Math.min(windowSize, fileSize - position);
+                MappedByteBuffer window = channel
+                        .map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean last = position + length == fileSize;
+                int start = 0;
+                int i = 0;
+                while (i < length) {
+                    if (window.get(i) == '\n') {
+                        scratch = countLine(window, start, i, tableSize, h,
+                                seen, result, scratch);
+                        start = i + 1;
+                    }
+                    i++;
+                }
+                if (last && start < length) {
+                    scratch = countLine(window, start, length, tableSize, h,
+                            seen, result, scratch);
+                    start = length;
+                } else if (start == 0 && !last) {
+                    /*
+                     * A single line longer than a window is split into
+                     * window-sized pieces.
+                     */
+                    scratch = countLine(window, 0, length, tableSize, h, seen,
+                            result, scratch);
+                    start = length;
+                }
+                position += start;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the line in {@code window[from, to)} (without a trailing
+     * {@code '\r'}): if it has not been seen before, adds one to the count of
+     * its bucket.
+     *
+     * @param window
+     *            the mapped window holding the line
+     * @param from
+     *            position of the first byte of the line
+     * @param to
+     *            position after the last byte of the line
+     * @param tableSize
+     *            the number of buckets
+     * @param h
+     *            the hash function
+     * @param seen
+     *            fingerprints of the distinct lines seen
+     * @param result
+     *            the counts
+     * @param scratch
+     *            buffer for decoding the line
+     * @return scratch, or a bigger buffer if scratch was too small
+     * @updates seen, result
+     */
+    private static byte[] countLine(MappedByteBuffer window, int from, int to,
+            int tableSize, StringHasher h, FingerprintSet seen, Result result,
+            byte[] scratch) {
+        int end = to;
+        if (end > from && window.get(end - 1) == '\r') {
+            end--;
+        }
+        byte[] bytes = scratch;
+        result.lines++;
+        if (seen.add(FingerprintSet.fingerprint(window, from, end))) {
+            int length = end - from;
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, 2 * bytes.length)];
+            }
+            for (int k = 0; k < length; k++) {
+                bytes[k] = window.get(from + k);
+            }
+            String line = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            result.counts[HashingExploration.mod(h.hash(line), tableSize)]++;
+        }
+        return bytes;
+    }
+
+    /**
+     * Outputs summary statistics of the bucket counts.
+     *
+     * @param result
+     *            the counts
+     * @param distinct
+     *            the number of distinct lines
+     * @param out
+     *            the output stream
+     * @updates out.content
+     * @requires out.is_open
+     */
+    private static void report(Result result, long distinct,
+            SimpleWriter out) {
+        long[] sorted = result.counts.clone();
+        Arrays.sort(sorted);
+        int buckets = sorted.length;
+        long empty = 0;
+        double sumSquares = 0;
+        for (long c : sorted) {
+            if (c == 0) {
+                empty++;
+            }
+            sumSquares += (double) c * c;
+        }
+        double mean = (double) distinct / buckets;
+        double variance = Math.max(0, sumSquares / buckets - mean * mean);
+        double stdDev = Math.sqrt(variance);
+        double chi = 0;
+        if (mean > 0) {
+            chi = (sumSquares / mean - distinct) / Math.max(1, buckets - 1);
+        }
+
+        out.println("Lines:\t\t" + result.lines);
+        out.println("Distinct:\t" + distinct);
+        out.println("Buckets:\t" + buckets);
+        out.println(String.format("Empty:\t\t%d (%.2f%%)", empty,
+                100.0 * empty / buckets));
+        out.println(String.format("Load:\t\tmin %d  mean %.2f  stddev %.2f"
+                + "  max %d", sorted[0], mean, stdDev, sorted[buckets - 1]));
+        DecimalFormat percentile = new DecimalFormat("0.#");
+        StringBuilder p = new StringBuilder("Percentiles:\t");
+        for (double pc : PERCENTILES) {
+            int rank = (int) Math.ceil(pc / 100 * buckets) - 1;
+            p.append('p').append(percentile.format(pc)).append(' ')
+                    .append(sorted[Math.max(0, rank)]).append("  ");
+        }
+        out.println(p.toString().trim());
+        out.println(String.format("Chi2/df:\t%.3f", chi));
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            hash table size, file name, and optional hash function name
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+
+        if (args.length < 2) {
+            out.println("Usage: HashingStreamAnalysis tableSize file [hash]");
+        } else {
+            int tableSize = Integer.parseInt(args[0]);
+            StringHasher h = StringHashers.SUM;
+            if (args.length > 2) {
+                h = StringHashers.valueOf(args[2]);
+            }
+            FingerprintSet seen = new FingerprintSet();
+            Result result = analyze(args[1], tableSize, h, seen,
+                    WINDOW_SIZE);
+            report(result, seen.size(), out);
+        }
+
+        out.close();
+    }
+
+}
@@ -0,0 +1,126 @@
+import java.util.Random;
+
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Compares the cost of the {@code BucketReducers} on random hash codes, for a
+ * table size that is a power of two and one that is not.
+ *
+ * <p>
+ * Usage: {@code ReductionBenchmark [tableSize ...]}; the defaults are 2048 and
+ * 2231.
+ * </p>
+ *
+ * @author Put your name here
+ *
+ */
+public final class ReductionBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private ReductionBenchmark() {
+    }
+
+    /**
+     * Default table sizes.
+     */
+    private static final int[] DEFAULT_SIZES = { 2048, 2231 };
+
+    /**
+     * Number of hash codes reduced in each pass.
+     */
+    private static final int HASHES = 1 << 20;
+
+    /**
+     * Number of untimed passes before timing.
+     */
+    private static final int WARMUP_PASSES = 20;
+
+    /**
+     * Number of timed passes; the fastest is reported.
+     */
+    private static final int TIMED_PASSES = 10;
+
+    /**
+     * Seed of the random hash codes, so runs are comparable.
+     */
+    private static final long SEED = 2231;
+
+    /**
+     * Sink for bucket indices so the JIT cannot discard the timed loops.
+     */
+    private static int sink;
+
+    /**
+     * Returns the nanoseconds per reduction of {@code r} over {@code hashes}
+     * into a table of {@code tableSize} buckets: the fastest of several timed
+     * passes, after some warm-up passes.
+     *
+     * @param r
+     *            the reducer
+     * @param hashes
+     *            the hash codes
+     * @param tableSize
+     *            the number of buckets
+     * @return nanoseconds per reduction
+     * @requires r.accepts(tableSize)
+     */
+    private static double nanosPerBucket(BucketReducer r, int[] hashes,
+            int tableSize) {
+        long best = Long.MAX_VALUE;
+        for (int pass = 0; pass < WARMUP_PASSES + TIMED_PASSES; pass++) {
+            long start = System.nanoTime();
+            int acc = 0;
+            for (int h : hashes) {
+                acc += r.bucket(h, tableSize);
+            }
+            long elapsed = System.nanoTime() - start;
+            sink += acc;
+            if (pass >= WARMUP_PASSES) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return (double) best / hashes.length;
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            optional table sizes
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+        Random random = new Random(SEED);
+        int[] hashes = new int[HASHES];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = random.nextInt();
+        }
+
+        for (int size : sizes) {
+            out.println("Table size " + size + ":");
+            for (BucketReducers r : BucketReducers.values()) {
+                if (r.accepts(size)) {
+                    out.println(String.format("  %-12s %6.3f ns/bucket", r,
+                            nanosPerBucket(r, hashes, size)));
+                }
+            }
+        }
+        if (sink == 1) {
+            out.println();
+        }
+
+        out.close();
+    }
+
+}
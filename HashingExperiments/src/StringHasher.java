@@ -0,0 +1,20 @@
+/**
+ * Hash function on {@code String}s, so that {@code HashingExploration} and the
+ * hashing benchmark can try different functions on the same data.
+ *
+ * @author Put your name here
+ *
+ */
+public interface StringHasher {
+
+    /**
+     * Returns a hash code value for the given {@code String}.
+     *
+     * @param s
+     *            the {@code String} whose hash code is computed
+     * @return a hash code value for the given {@code String}
+     * @ensures hash = [hash code value for the given String]
+     */
+    int hash(String s);
+
+}
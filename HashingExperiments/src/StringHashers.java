@@ -0,0 +1,229 @@
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The family of {@code StringHasher}s available to the hashing experiments.
+ * The byte-oriented functions (FNV-1a, MurmurHash3, xxHash32) hash the UTF-8
+ * encoding of the string with seed 0, so their results match the published
+ * test vectors.
+ *
+ * @author Put your name here
+ *
+ */
+public enum StringHashers implements StringHasher {
+
+    /**
+     * Sum of the characters; the original {@code HashingExploration} function.
+     * Anagrams always collide.
+     */
+    SUM {
+        @Override
+        public int hash(String s) {
+            assert s != null : "Violation of: s is not null";
+
+            int sum = 0;
+            for (int i = 0; i < s.length(); i++) {
+                sum += s.charAt(i);
+            }
+            return sum;
+        }
+    },
+
+    /**
+     * Polynomial hash with multiplier 31 over the characters; the same value
+     * as {@code String.hashCode}.
+     */
+    POLYNOMIAL {
+        @Override
+        public int hash(String s) {
+            assert s != null : "Violation of: s is not null";
+
+            final int multiplier = 31;
+            int h = 0;
+            for (int i = 0; i < s.length(); i++) {
+                h = multiplier * h + s.charAt(i);
+            }
+            return h;
+        }
+    },
+
+    /**
+     * 32-bit FNV-1a.
+     */
+    FNV1A {
+        @Override
+        public int hash(String s) {
+            assert s != null : "Violation of: s is not null";
+
+            final int offsetBasis = 0x811c9dc5;
+            final int prime = 0x01000193;
+            int h = offsetBasis;
+            for (byte b : utf8(s)) {
+                h ^= b & BYTE_MASK;
+                h *= prime;
+            }
+            return h;
+        }
+    },
+
+    /**
+     * MurmurHash3, x86 32-bit variant.
+     */
+    MURMUR3 {
+        @Override
+        public int hash(String s) {
+            assert s != null : "Violation of: s is not null";
+
+            final int c1 = 0xcc9e2d51;
+            final int c2 = 0x1b873593;
+            final int r1 = 15;
+            final int r2 = 13;
+            final int m = 5;
+            final int n = 0xe6546b64;
+
+            byte[] data = utf8(s);
+            int blocks = data.length / Integer.BYTES;
+            int h = 0;
+            for (int i = 0; i < blocks; i++) {
+                int k = littleEndianInt(data, i * Integer.BYTES);
+                k *= c1;
+                k = Integer.rotateLeft(k, r1);
+                k *= c2;
+                h ^= k;
+                h = Integer.rotateLeft(h, r2);
+                h = h * m + n;
+            }
+            int k = 0;
+            int tail = blocks * Integer.BYTES;
+            for (int i = data.length - 1; i >= tail; i--) {
+                k = (k << Byte.SIZE) | (data[i] & BYTE_MASK);
+            }
+            if (tail < data.length) {
+                k *= c1;
+                k = Integer.rotateLeft(k, r1);
+                k *= c2;
+                h ^= k;
+            }
+            h ^= data.length;
+            return fmix32(h);
+        }
+    },
+
+    /**
+     * xxHash32.
+     */
+    XXHASH {
+        @Override
+        public int hash(String s) {
+            assert s != null : "Violation of: s is not null";
+
+            final int prime1 = 0x9E3779B1;
+            final int prime2 = 0x85EBCA77;
+            final int prime3 = 0xC2B2AE3D;
+            final int prime4 = 0x27D4EB2F;
+            final int prime5 = 0x165667B1;
+            final int stripe = 16;
+            final int roundShift = 13;
+            final int[] laneShifts = { 1, 7, 12, 18 };
+            final int wordShift = 17;
+            final int byteShift = 11;
+            final int[] avalancheShifts = { 15, 13, 16 };
+
+            byte[] data = utf8(s);
+            int p = 0;
+            int h;
+            if (data.length >= stripe) {
+                int[] v = { prime1 + prime2, prime2, 0, -prime1 };
+                while (p + stripe <= data.length) {
+                    for (int lane = 0; lane < v.length; lane++) {
+                        v[lane] += littleEndianInt(data, p) * prime2;
+                        v[lane] = Integer.rotateLeft(v[lane], roundShift);
+                        v[lane] *= prime1;
+                        p += Integer.BYTES;
+                    }
+                }
+                h = 0;
+                for (int lane = 0; lane < v.length; lane++) {
+                    h += Integer.rotateLeft(v[lane], laneShifts[lane]);
+                }
+            } else {
+                h = prime5;
+            }
+            h += data.length;
+            while (p + Integer.BYTES <= data.length) {
+                h += littleEndianInt(data, p) * prime3;
+                h = Integer.rotateLeft(h, wordShift) * prime4;
+                p += Integer.BYTES;
+            }
+            while (p < data.length) {
+                h += (data[p] & BYTE_MASK) * prime5;
+                h = Integer.rotateLeft(h, byteShift) * prime1;
+                p++;
+            }
+            h ^= h >>> avalancheShifts[0];
+            h *= prime2;
+            h ^= h >>> avalancheShifts[1];
+            h *= prime3;
+            h ^= h >>> avalancheShifts[2];
+            return h;
+        }
+    };
+
+    /**
+     * Mask selecting the low byte of an {@code int}.
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * Returns the UTF-8 encoding of {@code s}.
+     *
+     * @param s
+     *            the {@code String}
+     * @return the UTF-8 bytes of s
+     */
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the little-endian {@code int} in {@code data} starting at
+     * {@code p}.
+     *
+     * @param data
+     *            the bytes
+     * @param p
+     *            the position of the first byte
+     * @return the int at data[p, p+4)
+     * @requires 0 <= p and p + 4 <= |data|
+     */
+    private static int littleEndianInt(byte[] data, int p) {
+        final int shift1 = 8;
+        final int shift2 = 16;
+        final int shift3 = 24;
+        return (data[p] & BYTE_MASK) | ((data[p + 1] & BYTE_MASK) << shift1)
+                | ((data[p + 2] & BYTE_MASK) << shift2)
+                | ((data[p + 3] & BYTE_MASK) << shift3);
+    }
+
+    /**
+     * MurmurHash3 32-bit finalization mix: forces all bits of {@code h} to
+     * avalanche.
+     *
+     * @param h
+     *            the value to mix
+     * @return the mixed value
+     */
+    static int fmix32(int h) {
+        final int shift1 = 16;
+        final int shift2 = 13;
+        final int mult1 = 0x85ebca6b;
+        final int mult2 = 0xc2b2ae35;
+        int x = h;
+        x ^= x >>> shift1;
+        x *= mult1;
+        x ^= x >>> shift2;
+        x *= mult2;
+        x ^= x >>> shift1;
+        return x;
+    }
+
+}
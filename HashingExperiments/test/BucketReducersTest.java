@@ -0,0 +1,85 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for the {@code BucketReducers}, using the same
+ * "clock arithmetic" cases as {@code ModTest}.
+ */
+public final class BucketReducersTest {
+
+    /**
+     * Hash codes exercising the sign bit and the extremes.
+     */
+    private static final int[] HASHES = { 0, 1, -1, 7, -11, 243, -342, 2189,
+        -5759993, -822852, Integer.MAX_VALUE, Integer.MIN_VALUE,
+        Integer.MIN_VALUE + 1 };
+
+    /**
+     * Table sizes, powers of two and not.
+     */
+    private static final int[] SIZES = { 1, 2, 3, 7, 8, 101, 1024, 2231,
+        1 << 30, Integer.MAX_VALUE };
+
+    @Test
+    public void testModNegativeMod7Rem1() {
+        assertEquals(1, BucketReducers.MOD.bucket(-342, 7));
+    }
+
+    @Test
+    public void testModNegativeModBigger() {
+        assertEquals(64, BucketReducers.MOD.bucket(-37, 101));
+    }
+
+    @Test
+    public void testModMinModMax() {
+        assertEquals(Integer.MAX_VALUE - 1,
+                BucketReducers.MOD.bucket(Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testMaskEqualsModOnPowersOfTwo() {
+        for (int size : SIZES) {
+            if (BucketReducers.isPowerOfTwo(size)) {
+                for (int h : HASHES) {
+                    assertEquals(HashingExploration.mod(h, size),
+                            BucketReducers.MASK.bucket(h, size));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAllReducersInRange() {
+        for (BucketReducers r : BucketReducers.values()) {
+            for (int size : SIZES) {
+                if (r.accepts(size)) {
+                    for (int h : HASHES) {
+                        int b = r.bucket(h, size);
+                        assertTrue(r + " " + h + " " + size,
+                                0 <= b && b < size);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLemireUsesHighBits() {
+        assertEquals(0, BucketReducers.LEMIRE.bucket(0, 101));
+        assertEquals(50, BucketReducers.LEMIRE.bucket(Integer.MIN_VALUE, 101));
+        assertEquals(100, BucketReducers.LEMIRE.bucket(-1, 101));
+    }
+
+    @Test
+    public void testMixedMaskSpreadsLowBitCollisions() {
+        int size = 8;
+        int b1 = BucketReducers.MIXED_MASK.bucket(1 << 16, size);
+        int b2 = BucketReducers.MIXED_MASK.bucket(2 << 16, size);
+        assertEquals(0, BucketReducers.MASK.bucket(1 << 16, size));
+        assertEquals(0, BucketReducers.MASK.bucket(2 << 16, size));
+        assertTrue(b1 != b2);
+    }
+
+}
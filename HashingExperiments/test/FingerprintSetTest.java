@@ -0,0 +1,155 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code FingerprintSet}, on small tables split into
+ * small direct buffers so that growing and segment indexing are exercised.
+ */
+public final class FingerprintSetTest {
+
+    /**
+     * Seed of the random fingerprints, so that runs are repeatable.
+     */
+    private static final long SEED = 2231;
+
+    @Test
+    public void testAddNew() {
+        FingerprintSet s = new FingerprintSet();
+        assertTrue(s.add(42));
+        assertEquals(1, s.size());
+    }
+
+    @Test
+    public void testAddTwice() {
+        FingerprintSet s = new FingerprintSet();
+        assertTrue(s.add(42));
+        assertFalse(s.add(42));
+        assertEquals(1, s.size());
+    }
+
+    @Test
+    public void testAddZero() {
+        FingerprintSet s = new FingerprintSet(4, 1);
+        assertTrue(s.add(0));
+        assertFalse(s.add(0));
+        assertEquals(1, s.size());
+    }
+
+    @Test
+    public void testZeroRemappedToOne() {
+        FingerprintSet s = new FingerprintSet(4, 1);
+        assertTrue(s.add(0));
+        assertFalse(s.add(1));
+        assertEquals(1, s.size());
+    }
+
+    @Test
+    public void testOneThenZero() {
+        FingerprintSet s = new FingerprintSet(4, 1);
+        assertTrue(s.add(1));
+        assertFalse(s.add(0));
+        assertEquals(1, s.size());
+    }
+
+    @Test
+    public void testExtremes() {
+        FingerprintSet s = new FingerprintSet(2, 0);
+        long[] fs = { Long.MIN_VALUE, Long.MAX_VALUE, -1, 1L << 32, 1L << 31 };
+        for (long f : fs) {
+            assertTrue(s.add(f));
+        }
+        for (long f : fs) {
+            assertFalse(s.add(f));
+        }
+        assertEquals(fs.length, s.size());
+    }
+
+    @Test
+    public void testProbeWrapsAcrossSegments() {
+        /*
+         * 8 slots in buffers of 2: 7 and 15 both start at slot 7, the last
+         * slot of the last buffer, so 15 wraps around to slot 0 of the first.
+         */
+        FingerprintSet s = new FingerprintSet(8, 1);
+        assertTrue(s.add(7));
+        assertTrue(s.add(15));
+        assertTrue(s.add(23));
+        assertFalse(s.add(15));
+        assertFalse(s.add(23));
+        assertFalse(s.add(7));
+        assertEquals(3, s.size());
+    }
+
+    @Test
+    public void testGrowKeepsFingerprints() {
+        final int n = 1000;
+        FingerprintSet s = new FingerprintSet(2, 2);
+        for (long f = 0; f < n; f++) {
+            assertTrue(s.add((f << 1) | 1));
+        }
+        assertEquals(n, s.size());
+        for (long f = 0; f < n; f++) {
+            assertFalse(s.add((f << 1) | 1));
+            assertTrue(s.add((f + 1) << 1));
+        }
+        assertEquals(2 * n, s.size());
+    }
+
+    @Test
+    public void testGrowKeepsColliding() {
+        /*
+         * Multiples of 2^40 have a zero low word and high words that are
+         * multiples of 2^8, so they all start probing at slot 0 of any table of
+         * up to 256 slots.
+         */
+        final int n = 100;
+        FingerprintSet s = new FingerprintSet(2, 3);
+        for (long f = 1; f <= n; f++) {
+            assertTrue(s.add(f << 40));
+        }
+        for (long f = 1; f <= n; f++) {
+            assertFalse(s.add(f << 40));
+        }
+        assertEquals(n, s.size());
+    }
+
+    @Test
+    public void testRandomAgainstDefaultSegments() {
+        final int n = 5000;
+        FingerprintSet small = new FingerprintSet(2, 3);
+        FingerprintSet big = new FingerprintSet();
+        Random random = new Random(SEED);
+        for (int k = 0; k < n; k++) {
+            /*
+             * Few distinct values, so about half the adds find a duplicate.
+             */
+            long f = random.nextInt(n) * 0x9E3779B97F4A7C15L;
+            assertEquals(big.add(f), small.add(f));
+        }
+        assertEquals(big.size(), small.size());
+    }
+
+    @Test
+    public void testFingerprintOfRange() {
+        ByteBuffer data = ByteBuffer
+                .wrap("xabcyabcz".getBytes(StandardCharsets.UTF_8));
+        assertEquals(FingerprintSet.fingerprint(data, 1, 4),
+                FingerprintSet.fingerprint(data, 5, 8));
+    }
+
+    @Test
+    public void testFingerprintDiffers() {
+        ByteBuffer data = ByteBuffer
+                .wrap("abcabd".getBytes(StandardCharsets.UTF_8));
+        assertFalse(FingerprintSet.fingerprint(data, 0, 3) == FingerprintSet
+                .fingerprint(data, 3, 6));
+    }
+
+}
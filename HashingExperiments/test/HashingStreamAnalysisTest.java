@@ -0,0 +1,154 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code HashingStreamAnalysis.analyze}, reading files
+ * through windows of a few bytes so that lines cross window boundaries.
+ */
+public final class HashingStreamAnalysisTest {
+
+    /**
+     * Number of buckets; the hash function below sends each line to the
+     * bucket of its length.
+     */
+    private static final int TABLE_SIZE = 32;
+
+    /**
+     * Hash function sending each line to the bucket of its length, so the
+     * counts show where the lines were cut.
+     */
+    private static final StringHasher LENGTH = String::length;
+
+    /**
+     * Writes {@code content} to a temporary file and analyzes it through
+     * windows of {@code windowSize} bytes.
+     *
+     * @param content
+     *            the content of the file
+     * @param windowSize
+     *            the size of each window
+     * @param seen
+     *            fingerprints of the distinct lines seen
+     * @return the line and bucket counts
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    private static HashingStreamAnalysis.Result analyze(String content,
+            int windowSize, FingerprintSet seen) throws IOException {
+        Path file = Files.createTempFile("lines", ".txt");
+        try {
+            Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+            return HashingStreamAnalysis.analyze(file.toString(), TABLE_SIZE,
+                    LENGTH, seen, windowSize);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        FingerprintSet seen = new FingerprintSet();
+        HashingStreamAnalysis.Result r = analyze("", 8, seen);
+        assertEquals(0, r.lines());
+        assertEquals(0, seen.size());
+    }
+
+    @Test
+    public void testLinesWithinOneWindow() throws IOException {
+        FingerprintSet seen = new FingerprintSet();
+        HashingStreamAnalysis.Result r = analyze("ab\ncde\nab\n", 64, seen);
+        assertEquals(3, r.lines());
+        assertEquals(2, seen.size());
+        assertEquals(1, r.count(2));
+        assertEquals(1, r.count(3));
+    }
+
+    @Test
+    public void testLinesCrossingWindowBoundaries() throws IOException {
+        FingerprintSet seen = new FingerprintSet();
+        HashingStreamAnalysis.Result r = analyze("abc\ndefgh\nijklm\nno\n", 8,
+                seen);
+        assertEquals(4, r.lines());
+        assertEquals(4, seen.size());
+        assertEquals(1, r.count(2));
+        assertEquals(1, r.count(3));
+        assertEquals(2, r.count(5));
+    }
+
+    @Test
+    public void testLineEndingAtWindowBoundary() throws IOException {
+        FingerprintSet seen = new FingerprintSet();
+        HashingStreamAnalysis.Result r = analyze("abcdefg\nhijklmn\n", 8,
+                seen);
+        assertEquals(2, r.lines());
+        assertEquals(2, r.count(7));
+    }
+
+    @Test
+    public void testCrLfStripped() throws IOException {
+        FingerprintSet seen = new FingerprintSet();
+        HashingStreamAnalysis.Result r = analyze("abc\r\nabc\nde\r\n", 5,
+                seen);
+        assertEquals(3, r.lines());
+        assertEquals(2, seen.size());
+        assertEquals(1, r.count(3));
+        assertEquals(1, r.count(2));
+        assertEquals(0, r.count(4));
+    }
+
+    @Test
+    public void testCrLfSplitAcrossWindows() throws IOException {
+        FingerprintSet seen = new FingerprintSet();
+        HashingStreamAnalysis.Result r = analyze("a\nbc\r\nd\n", 5, seen);
+        assertEquals(3, r.lines());
+        assertEquals(2, r.count(1));
+        assertEquals(1, r.count(2));
+        assertEquals(0, r.count(3));
+    }
+
+    @Test
+    public void testFinalLineWithoutNewLine() throws IOException {
+        FingerprintSet seen = new FingerprintSet();
+        HashingStreamAnalysis.Result r = analyze("ab\ncdefghi", 8, seen);
+        assertEquals(2, r.lines());
+        assertEquals(1, r.count(2));
+        assertEquals(1, r.count(7));
+    }
+
+    @Test
+    public void testFinalLineWithoutNewLineCrStripped() throws IOException {
+        FingerprintSet seen = new FingerprintSet();
+        HashingStreamAnalysis.Result r = analyze("ab\nab\r", 4, seen);
+        assertEquals(2, r.lines());
+        assertEquals(1, seen.size());
+        assertEquals(1, r.count(2));
+    }
+
+    @Test
+    public void testLineLongerThanWindow() throws IOException {
+        FingerprintSet seen = new FingerprintSet();
+        HashingStreamAnalysis.Result r = analyze("abcdefghijklmnopqrst\nuv\n",
+                8, seen);
+        assertEquals(4, r.lines());
+        assertEquals(2, r.count(8));
+        assertEquals(1, r.count(4));
+        assertEquals(1, r.count(2));
+    }
+
+    @Test
+    public void testDistinctLinesAcrossRuns() throws IOException {
+        FingerprintSet seen = new FingerprintSet();
+        analyze("ab\ncd\n", 4, seen);
+        HashingStreamAnalysis.Result r = analyze("cd\nef\n", 4, seen);
+        assertEquals(2, r.lines());
+        assertEquals(3, seen.size());
+        assertEquals(1, r.count(2));
+    }
+
+}
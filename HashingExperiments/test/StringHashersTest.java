@@ -0,0 +1,69 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for the {@code StringHashers} family, checked against
+ * the published test vectors of each function.
+ */
+public final class StringHashersTest {
+
+    @Test
+    public void testSumAnagramsCollide() {
+        assertEquals(StringHashers.SUM.hash("listen"),
+                StringHashers.SUM.hash("silent"));
+    }
+
+    @Test
+    public void testPolynomialMatchesStringHashCode() {
+        String s = "obdurate";
+        assertEquals(s.hashCode(), StringHashers.POLYNOMIAL.hash(s));
+    }
+
+    @Test
+    public void testFnv1aEmpty() {
+        assertEquals(0x811c9dc5, StringHashers.FNV1A.hash(""));
+    }
+
+    @Test
+    public void testFnv1aA() {
+        assertEquals(0xe40c292c, StringHashers.FNV1A.hash("a"));
+    }
+
+    @Test
+    public void testFnv1aFoobar() {
+        assertEquals(0xbf9cf968, StringHashers.FNV1A.hash("foobar"));
+    }
+
+    @Test
+    public void testMurmur3Empty() {
+        assertEquals(0, StringHashers.MURMUR3.hash(""));
+    }
+
+    @Test
+    public void testMurmur3Hello() {
+        assertEquals(0x248bfa47, StringHashers.MURMUR3.hash("hello"));
+    }
+
+    @Test
+    public void testMurmur3HelloWorld() {
+        assertEquals(0xc0363e43, StringHashers.MURMUR3.hash("Hello, world!"));
+    }
+
+    @Test
+    public void testXxHashEmpty() {
+        assertEquals(0x02cc5d05, StringHashers.XXHASH.hash(""));
+    }
+
+    @Test
+    public void testXxHashAbc() {
+        assertEquals(0x32d153ff, StringHashers.XXHASH.hash("abc"));
+    }
+
+    @Test
+    public void testXxHashLong() {
+        assertEquals(0xe2293b2f, StringHashers.XXHASH
+                .hash("Nobody inspects the spammish repetition"));
+    }
+
+}
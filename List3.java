@@ -9,7 +9,12 @@ import components.list.ListSecondary;
  * implementations of primary methods and {@code retreat} secondary method.
  *
  * <p>
- * Execution-time performance of all methods implemented in this class is O(1).
+ * Execution-time performance of all methods implemented in this class is O(1),
+ * except {@code moveTo}, which is linear in the distance from the new position
+ * to the nearest of the start, the current position, and the finish.
+ * {@code swapRights}, {@code insertRight} and {@code extractRight} relink whole
+ * segments of nodes, so they are O(1) when the other list is also a
+ * {@code List3}.
  * </p>
  *
  * @param <T>
@@ -217,6 +222,8 @@ public class List3<T> extends ListSecondary<T> {
 
     @Override
     public final void transferFrom(List<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
         assert source instanceof List3<?> : ""
                 + "Violation of: source is of dynamic type List3<?>";
         /*
@@ -370,15 +377,10 @@ public class List3<T> extends ListSecondary<T> {
     @Override
     public final void moveToFinish() {
 
-        while (this.rightLength > 0) {
-            Node p = this.lastLeft;
-            if (p.next != null) {
-                Node q = p.next;
-                this.lastLeft = q;
-                this.leftLength++;
-                this.rightLength--;
-            }
-        }
+        this.lastLeft = this.postFinish.previous;
+        this.leftLength += this.rightLength;
+        this.rightLength = 0;
+
         assert this.conventionHolds();
     }
 
@@ -396,4 +398,161 @@ public class List3<T> extends ListSecondary<T> {
         assert this.conventionHolds();
     }
 
+    /**
+     * Moves the position in {@code this} so that {@code this.left} has length
+     * {@code pos}, walking from whichever of the start, the current position
+     * and the finish is nearest.
+     *
+     * @param pos
+     *            the new length of this.left
+     * @updates this
+     * @requires 0 <= pos <= |this.left| + |this.right|
+     * @ensures <pre>
+     * this.left * this.right = #this.left * #this.right  and
+     * |this.left| = pos
+     * </pre>
+     */
+    public final void moveTo(int pos) {
+        int length = this.leftLength + this.rightLength;
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos <= length : ""
+                + "Violation of: pos <= |this.left| + |this.right|";
+
+        Node p = this.lastLeft;
+        int i = this.leftLength;
+        if (pos < Math.abs(pos - i)) {
+            p = this.preStart;
+            i = 0;
+        }
+        if (length - pos < Math.abs(pos - i)) {
+            p = this.postFinish.previous;
+            i = length;
+        }
+        while (i < pos) {
+            p = p.next;
+            i++;
+        }
+        while (i > pos) {
+            p = p.previous;
+            i--;
+        }
+        this.lastLeft = p;
+        this.leftLength = pos;
+        this.rightLength = length - pos;
+
+        assert this.conventionHolds();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * If {@code l} is a {@code List3}, this swaps the two chains of nodes in
+     * O(1) time, whatever their lengths.
+     * </p>
+     */
+    @Override
+    public final void swapRights(List<T> l) {
+        assert l != null : "Violation of: l is not null";
+        assert l != this : "Violation of: l is not this";
+
+        if (l instanceof List3<?>) {
+            /*
+             * This cast cannot fail since l is of dynamic type List3<?>, and
+             * the ? must be T or the call would not have compiled.
+             */
+            List3<T> other = (List3<T>) l;
+            Node thisFirst = this.lastLeft.next;
+            Node otherFirst = other.lastLeft.next;
+            this.lastLeft.next = otherFirst;
+            otherFirst.previous = this.lastLeft;
+            other.lastLeft.next = thisFirst;
+            thisFirst.previous = other.lastLeft;
+
+            Node postFinish = this.postFinish;
+            this.postFinish = other.postFinish;
+            other.postFinish = postFinish;
+            int rightLength = this.rightLength;
+            this.rightLength = other.rightLength;
+            other.rightLength = rightLength;
+
+            assert this.conventionHolds();
+            assert other.conventionHolds();
+        } else {
+            super.swapRights(l);
+        }
+    }
+
+    /**
+     * Inserts all the entries of {@code l} at the front of {@code this.right},
+     * and clears {@code l}. If {@code l} is a {@code List3}, its chain of
+     * nodes is spliced in, in O(1) time whatever its length.
+     *
+     * @param l
+     *            the list to insert
+     * @updates this.right
+     * @clears l
+     * @requires l is not this
+     * @ensures <pre>
+     * this.left = #this.left  and
+     * this.right = #l.left * #l.right * #this.right
+     * </pre>
+     */
+    public final void insertRight(List<T> l) {
+        assert l != null : "Violation of: l is not null";
+        assert l != this : "Violation of: l is not this";
+
+        if (l instanceof List3<?>) {
+            /*
+             * This cast cannot fail since l is of dynamic type List3<?>, and
+             * the ? must be T or the call would not have compiled.
+             */
+            List3<T> other = (List3<T>) l;
+            int count = other.leftLength + other.rightLength;
+            if (count > 0) {
+                Node first = other.preStart.next;
+                Node last = other.postFinish.previous;
+                Node next = this.lastLeft.next;
+                this.lastLeft.next = first;
+                first.previous = this.lastLeft;
+                last.next = next;
+                next.previous = last;
+                this.rightLength += count;
+                other.createNewRep();
+            }
+
+            assert this.conventionHolds();
+            assert other.conventionHolds();
+        } else {
+            l.moveToFinish();
+            while (l.leftLength() > 0) {
+                l.retreat();
+                this.addRightFront(l.removeRightFront());
+            }
+        }
+    }
+
+    /**
+     * Moves {@code this.right} into {@code l}, leaving {@code this.right}
+     * empty. If {@code l} is a {@code List3}, the chain of nodes is moved in
+     * O(1) time whatever its length.
+     *
+     * @param l
+     *            the list receiving this.right
+     * @updates this.right
+     * @replaces l
+     * @requires l is not this
+     * @ensures <pre>
+     * this.left = #this.left  and  this.right = <>  and
+     * l = (<>, #this.right)
+     * </pre>
+     */
+    public final void extractRight(List<T> l) {
+        assert l != null : "Violation of: l is not null";
+        assert l != this : "Violation of: l is not this";
+
+        l.clear();
+        this.swapRights(l);
+    }
+
 }
@@ -0,0 +1,183 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.list.List;
+import components.list.List1L;
+
+/**
+ * Customized JUnit test fixture for {@code List3}.
+ */
+public class List3Test extends ListTest {
+
+    @Override
+    protected final List<String> constructorTest() {
+        return new List3<String>();
+    }
+
+    @Override
+    protected final List<String> constructorRef() {
+        return new List1L<String>();
+    }
+
+    /**
+     * Tests moveTo to every position, from every position.
+     */
+    @Test
+    public final void testMoveTo() {
+        String[] entries = { "a", "b", "c", "d", "e", "f", "g" };
+        for (int from = 0; from <= entries.length; from++) {
+            for (int to = 0; to <= entries.length; to++) {
+                List3<String> test = new List3<>();
+                for (int i = entries.length - 1; i >= 0; i--) {
+                    test.addRightFront(entries[i]);
+                }
+                test.moveTo(from);
+                test.moveTo(to);
+                assertEquals(this.createFromArgsRef(to, entries), test);
+            }
+        }
+    }
+
+    /**
+     * Tests moveTo on an empty list.
+     */
+    @Test
+    public final void testMoveToEmpty() {
+        List3<String> test = new List3<>();
+        test.moveTo(0);
+        assertEquals(this.createFromArgsRef(0), test);
+    }
+
+    /**
+     * Tests that editing after moveTo keeps the list consistent.
+     */
+    @Test
+    public final void testMoveToThenEdit() {
+        String[] entries = many();
+        List3<String> test = new List3<>();
+        List<String> expected = this.createFromArgsRef(0, entries);
+        for (int i = entries.length - 1; i >= 0; i--) {
+            test.addRightFront(entries[i]);
+        }
+        final int[] positions = { entries.length - 2, 3, entries.length / 2,
+                entries.length / 2 + 1 };
+        for (int pos : positions) {
+            test.moveTo(pos);
+            expected.moveToStart();
+            for (int i = 0; i < pos; i++) {
+                expected.advance();
+            }
+            assertEquals(expected.removeRightFront(), test.removeRightFront());
+            test.addRightFront("x" + pos);
+            expected.addRightFront("x" + pos);
+            assertEquals(expected, test);
+        }
+    }
+
+    /**
+     * Tests swapRights with another {@code List3}, including empty rights.
+     */
+    @Test
+    public final void testSwapRights() {
+        List<String> test = this.createFromArgsTest(1, "a", "b", "c");
+        List<String> other = this.createFromArgsTest(2, "x", "y", "z");
+        test.swapRights(other);
+        assertEquals(this.createFromArgsRef(1, "a", "z"), test);
+        assertEquals(this.createFromArgsRef(2, "x", "y", "b", "c"), other);
+
+        List<String> empty = this.createFromArgsTest(0);
+        test.swapRights(empty);
+        assertEquals(this.createFromArgsRef(1, "a"), test);
+        assertEquals(this.createFromArgsRef(0, "z"), empty);
+        test.addRightFront("q");
+        test.moveToFinish();
+        assertEquals(this.createFromArgsRef(2, "a", "q"), test);
+    }
+
+    /**
+     * Tests insertRight with another {@code List3}, at the start, middle and
+     * finish, keeping the cursor of neither list in the way.
+     */
+    @Test
+    public final void testInsertRight() {
+        for (int left = 0; left <= 2; left++) {
+            List3<String> test = new List3<>();
+            test.transferFrom(this.createFromArgsTest(left, "a", "b"));
+            List<String> l = this.createFromArgsTest(1, "x", "y");
+            List<String> expected = this.createFromArgsRef(0, "a", "b");
+            for (int i = 0; i < left; i++) {
+                expected.advance();
+            }
+            expected.addRightFront("y");
+            expected.addRightFront("x");
+            test.insertRight(l);
+            assertEquals(expected, test);
+            assertEquals(this.createFromArgsRef(0), l);
+            test.moveToFinish();
+            test.addRightFront("end");
+            expected.moveToFinish();
+            expected.addRightFront("end");
+            assertEquals(expected, test);
+        }
+    }
+
+    /**
+     * Tests insertRight with an empty list.
+     */
+    @Test
+    public final void testInsertRightEmpty() {
+        List3<String> test = new List3<>();
+        test.transferFrom(this.createFromArgsTest(1, "a", "b"));
+        test.insertRight(new List3<String>());
+        assertEquals(this.createFromArgsRef(1, "a", "b"), test);
+    }
+
+    /**
+     * Tests insertRight with a list of another implementation.
+     */
+    @Test
+    public final void testInsertRightOther() {
+        List3<String> test = new List3<>();
+        test.transferFrom(this.createFromArgsTest(1, "a", "b"));
+        List<String> l = this.createFromArgsRef(1, "x", "y");
+        test.insertRight(l);
+        assertEquals(this.createFromArgsRef(1, "a", "x", "y", "b"), test);
+        assertEquals(0, l.leftLength() + l.rightLength());
+    }
+
+    /**
+     * Tests cutting and pasting a long segment with extractRight and
+     * insertRight.
+     */
+    @Test
+    public final void testCutAndPaste() {
+        String[] entries = many();
+        int cut = entries.length / 3;
+        List3<String> test = new List3<>();
+        test.transferFrom(this.createFromArgsTest(cut, entries));
+        List3<String> clipboard = new List3<>();
+        clipboard.addRightFront("stale");
+
+        test.extractRight(clipboard);
+        assertEquals(cut, test.leftLength());
+        assertEquals(0, test.rightLength());
+        assertEquals(0, clipboard.leftLength());
+        assertEquals(entries.length - cut, clipboard.rightLength());
+
+        test.moveTo(1);
+        test.insertRight(clipboard);
+        List<String> expected = this.createFromArgsRef(0);
+        for (int i = cut - 1; i >= 1; i--) {
+            expected.addRightFront(entries[i]);
+        }
+        for (int i = entries.length - 1; i >= cut; i--) {
+            expected.addRightFront(entries[i]);
+        }
+        expected.addRightFront(entries[0]);
+        expected.advance();
+        assertEquals(expected, test);
+        assertEquals(this.createFromArgsRef(0), clipboard);
+    }
+
+}
@@ -0,0 +1,792 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.list.List;
+import components.list.ListSecondary;
+
+/**
+ * {@code List} represented as an unrolled doubly linked list: each node holds
+ * up to {@code CAPACITY} consecutive entries in an array, with implementations
+ * of primary methods and of the secondary methods {@code List3} overrides,
+ * with the same cursor semantics. Compared with {@code List3}, which allocates
+ * a node with three references per entry, this stores an entry in about one
+ * array slot, and iterating reads consecutive slots instead of following a
+ * reference per entry.
+ *
+ * <p>
+ * {@code addRightFront} and {@code removeRightFront} shift at most
+ * {@code CAPACITY} entries within one node. A full node is split in halves, and
+ * a node less than half full absorbs its successor when both fit in three
+ * quarters of a node. This keeps runs of removals from leaving chains of nearly
+ * empty nodes, but it is no guarantee: a node left with a single entry can stay
+ * that way as long as its successor holds more than {@code MERGE_LIMIT - 1}
+ * entries. {@code moveTo} walks over whole nodes, so it takes time proportional
+ * to the number of nodes it passes. When their argument is also a
+ * {@code List4}, {@code swapRights}, {@code insertRight} and
+ * {@code extractRight} splice chains of nodes, copying at most {@code CAPACITY}
+ * entries whatever the lengths. All other methods take O(1) time.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code List} entries
+ * @convention <pre>
+ * $this.leftLength >= 0  and  $this.rightLength >= 0  and
+ * [$this.preStart and $this.postFinish are the first and last nodes of a
+ *  doubly linked list, and hold no entries]  and
+ * [every other node n of that list has 1 <= n.count <= CAPACITY, and
+ *  n.entries[n.count, CAPACITY) are all null]  and
+ * [the entries in all the nodes add up to
+ *  $this.leftLength + $this.rightLength]  and
+ * [$this.cursor is $this.postFinish and $this.offset = 0, and
+ *  $this.rightLength = 0, or
+ *  $this.cursor is a node n other than the sentinels with
+ *  0 <= $this.offset < n.count, and
+ *  n.entries[$this.offset] is the ($this.leftLength + 1)-th entry]
+ * </pre>
+ * @correspondence <pre>
+ * this =
+ *  ([the first $this.leftLength entries of the nodes, in order],
+ *   [the remaining $this.rightLength entries of the nodes, in order])
+ * </pre>
+ *
+ * @author Yuting Che
+ *
+ */
+public class List4<T> extends ListSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Maximum number of entries in a node.
+     */
+    private static final int CAPACITY = 32;
+
+    /**
+     * Largest total number of entries a node less than half full and its
+     * successor can have for them to be merged.
+     */
+    private static final int MERGE_LIMIT = CAPACITY * 3 / 4;
+
+    /**
+     * Node class for unrolled doubly linked list nodes.
+     */
+    private static final class Node {
+
+        /**
+         * Entries in positions [0, count), or null in the sentinels.
+         */
+        private Object[] entries;
+
+        /**
+         * Number of entries.
+         */
+        private int count;
+
+        /**
+         * Next node, or null in the trailing sentinel.
+         */
+        private Node next;
+
+        /**
+         * Previous node, or null in the leading sentinel.
+         */
+        private Node previous;
+
+    }
+
+    /**
+     * Sentinel node before the first node with entries.
+     */
+    private Node preStart;
+
+    /**
+     * Sentinel node after the last node with entries.
+     */
+    private Node postFinish;
+
+    /**
+     * Node holding the front of this.right, or postFinish if it is empty.
+     */
+    private Node cursor;
+
+    /**
+     * Position of the front of this.right in cursor.
+     */
+    private int offset;
+
+    /**
+     * Length of this.left.
+     */
+    private int leftLength;
+
+    /**
+     * Length of this.right.
+     */
+    private int rightLength;
+
+    /**
+     * Creates a node with room for entries and links it after {@code p}.
+     *
+     * @param p
+     *            the node to link after
+     * @return the new node
+     * @requires p.next /= null
+     */
+    private static Node linkAfter(Node p) {
+        assert p.next != null : "Violation of: p.next /= null";
+
+        Node n = new Node();
+        n.entries = new Object[CAPACITY];
+        n.count = 0;
+        n.previous = p;
+        n.next = p.next;
+        p.next.previous = n;
+        p.next = n;
+        return n;
+    }
+
+    /**
+     * Unlinks {@code n} from its doubly linked list.
+     *
+     * @param n
+     *            the node to unlink
+     * @requires n is neither sentinel
+     */
+    private static void unlink(Node n) {
+        n.previous.next = n.next;
+        n.next.previous = n.previous;
+    }
+
+    /**
+     * Moves the upper half of the entries of the full node {@code n} into a
+     * new node linked after it.
+     *
+     * @param n
+     *            the node to split
+     * @requires n.count = CAPACITY
+     */
+    private static void split(Node n) {
+        int half = CAPACITY / 2;
+        Node m = linkAfter(n);
+        System.arraycopy(n.entries, half, m.entries, 0, CAPACITY - half);
+        Arrays.fill(n.entries, half, CAPACITY, null);
+        m.count = CAPACITY - half;
+        n.count = half;
+    }
+
+    /**
+     * Moves the cursor to the next node if it is past the last entry of its
+     * node.
+     *
+     * @updates $this.cursor, $this.offset
+     */
+    private void normalize() {
+        if (this.cursor != this.postFinish
+                && this.offset == this.cursor.count) {
+            this.cursor = this.cursor.next;
+            this.offset = 0;
+        }
+    }
+
+    /**
+     * Merges {@code n.next} into {@code n} if {@code n} is less than half
+     * full and both fit in {@code MERGE_LIMIT} entries, keeping the cursor
+     * on the same entry.
+     *
+     * @param n
+     *            the node that lost an entry
+     * @requires n is neither sentinel
+     */
+    private void mergeWithNext(Node n) {
+        Node m = n.next;
+        if (n.count < CAPACITY / 2 && m != this.postFinish
+                && n.count + m.count <= MERGE_LIMIT) {
+            System.arraycopy(m.entries, 0, n.entries, n.count, m.count);
+            if (this.cursor == m) {
+                this.cursor = n;
+                this.offset += n.count;
+            }
+            n.count += m.count;
+            unlink(m);
+        }
+    }
+
+    /**
+     * Moves the entries of the cursor's node from the cursor on into a new
+     * node linked after it, so that the cursor is at the start of a node.
+     *
+     * @updates $this.cursor, $this.offset
+     * @ensures $this.offset = 0
+     */
+    private void splitAtCursor() {
+        Node n = this.cursor;
+        int k = this.offset;
+        if (k > 0) {
+            Node m = linkAfter(n);
+            m.count = n.count - k;
+            System.arraycopy(n.entries, k, m.entries, 0, m.count);
+            Arrays.fill(n.entries, k, n.count, null);
+            n.count = k;
+            this.cursor = m;
+            this.offset = 0;
+        }
+    }
+
+    /**
+     * Checks that the part of the convention repeated below holds for the
+     * current representation.
+     *
+     * @return true if the convention holds (or if assertion checking is off);
+     *         otherwise reports a violated assertion
+     * @convention <pre>
+     * $this.leftLength >= 0  and  $this.rightLength >= 0  and
+     * [$this.preStart and $this.postFinish are the first and last nodes of a
+     *  doubly linked list, and hold no entries]  and
+     * [every other node n of that list has 1 <= n.count <= CAPACITY, and
+     *  n.entries[n.count, CAPACITY) are all null]  and
+     * [the entries in all the nodes add up to
+     *  $this.leftLength + $this.rightLength]  and
+     * [$this.cursor is $this.postFinish and $this.offset = 0, and
+     *  $this.rightLength = 0, or
+     *  $this.cursor is a node n other than the sentinels with
+     *  0 <= $this.offset < n.count, and
+     *  n.entries[$this.offset] is the ($this.leftLength + 1)-th entry]
+     * </pre>
+     */
+    private boolean conventionHolds() {
+        assert this.leftLength >= 0 : "Violation of: $this.leftLength >= 0";
+        assert this.rightLength >= 0 : "Violation of: $this.rightLength >= 0";
+        assert this.preStart != null && this.preStart.previous == null
+                && this.preStart.count == 0 : ""
+                        + "Violation of: [$this.preStart is the first node of"
+                        + " a doubly linked list, and holds no entries]";
+        assert this.postFinish != null && this.postFinish.next == null
+                && this.postFinish.count == 0 : ""
+                        + "Violation of: [$this.postFinish is the last node of"
+                        + " a doubly linked list, and holds no entries]";
+
+        int total = 0;
+        boolean cursorFound = false;
+        Node n = this.preStart;
+        while (n != this.postFinish
+                && total <= this.leftLength + this.rightLength) {
+            assert (n.next != null) && (n.next.previous == n) : ""
+                    + "Violation of: [$this.preStart and $this.postFinish are"
+                    + " the first and last nodes of a doubly linked list]";
+            n = n.next;
+            if (n != this.postFinish) {
+                assert 1 <= n.count && n.count <= CAPACITY : ""
+                        + "Violation of: [every other node n of that list has"
+                        + " 1 <= n.count <= CAPACITY]";
+                for (int i = n.count; i < CAPACITY; i++) {
+                    assert n.entries[i] == null : ""
+                            + "Violation of: [n.entries[n.count, CAPACITY)"
+                            + " are all null]";
+                }
+                if (n == this.cursor) {
+                    /*
+                     * Check n.entries[$this.offset] is the
+                     * ($this.leftLength + 1)-th entry
+                     */
+                    assert 0 <= this.offset && this.offset < n.count : ""
+                            + "Violation of: 0 <= $this.offset < n.count";
+                    assert total + this.offset == this.leftLength : ""
+                            + "Violation of: [n.entries[$this.offset] is the"
+                            + " ($this.leftLength + 1)-th entry]";
+                    cursorFound = true;
+                }
+                total += n.count;
+            }
+        }
+        assert n == this.postFinish : ""
+                + "Violation of: [$this.preStart and $this.postFinish are the"
+                + " first and last nodes of a doubly linked list]";
+        assert total == this.leftLength + this.rightLength : ""
+                + "Violation of: [the entries in all the nodes add up to"
+                + " $this.leftLength + $this.rightLength]";
+        if (this.cursor == this.postFinish) {
+            assert this.offset == 0 && this.rightLength == 0 : ""
+                    + "Violation of: [$this.cursor is $this.postFinish and"
+                    + " $this.offset = 0, and $this.rightLength = 0]";
+            cursorFound = true;
+        }
+        assert cursorFound : ""
+                + "Violation of: [$this.cursor is $this.postFinish or a node"
+                + " of the list other than the sentinels]";
+
+        return true;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.preStart = new Node();
+        this.postFinish = new Node();
+        this.preStart.next = this.postFinish;
+        this.postFinish.previous = this.preStart;
+        this.cursor = this.postFinish;
+        this.offset = 0;
+        this.leftLength = 0;
+        this.rightLength = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public List4() {
+        this.createNewRep();
+
+        assert this.conventionHolds();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final List4<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void transferFrom(List<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof List4<?> : ""
+                + "Violation of: source is of dynamic type List4<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type List4<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        List4<T> localSource = (List4<T>) source;
+        this.preStart = localSource.preStart;
+        this.postFinish = localSource.postFinish;
+        this.cursor = localSource.cursor;
+        this.offset = localSource.offset;
+        this.leftLength = localSource.leftLength;
+        this.rightLength = localSource.rightLength;
+        localSource.createNewRep();
+
+        assert this.conventionHolds();
+        assert localSource.conventionHolds();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void addRightFront(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        Node n = this.cursor;
+        int i = this.offset;
+        if (n == this.postFinish || (i == 0 && n.count == CAPACITY)) {
+            /*
+             * Add at the end of the previous node if it has room
+             */
+            Node p = n.previous;
+            if (p != this.preStart && p.count < CAPACITY) {
+                n = p;
+                i = p.count;
+            } else if (n == this.postFinish) {
+                n = linkAfter(p);
+                i = 0;
+            }
+        }
+        if (n.count == CAPACITY) {
+            split(n);
+            if (i > n.count) {
+                i -= n.count;
+                n = n.next;
+            }
+        }
+        System.arraycopy(n.entries, i, n.entries, i + 1, n.count - i);
+        n.entries[i] = x;
+        n.count++;
+        this.cursor = n;
+        this.offset = i;
+        this.rightLength++;
+
+        assert this.conventionHolds();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T removeRightFront() {
+        assert this.rightLength > 0 : "Violation of: this.right /= <>";
+
+        Node n = this.cursor;
+        int i = this.offset;
+        T x = (T) n.entries[i];
+        n.count--;
+        System.arraycopy(n.entries, i + 1, n.entries, i, n.count - i);
+        n.entries[n.count] = null;
+        this.rightLength--;
+        if (n.count == 0) {
+            this.cursor = n.next;
+            this.offset = 0;
+            unlink(n);
+        } else {
+            this.normalize();
+            this.mergeWithNext(n);
+        }
+
+        assert this.conventionHolds();
+        return x;
+    }
+
+    @Override
+    public final void advance() {
+        assert this.rightLength > 0 : "Violation of: this.right /= <>";
+
+        this.offset++;
+        this.normalize();
+        this.leftLength++;
+        this.rightLength--;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void moveToStart() {
+        this.cursor = this.preStart.next;
+        this.offset = 0;
+        this.rightLength += this.leftLength;
+        this.leftLength = 0;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final int leftLength() {
+        assert this.conventionHolds();
+        return this.leftLength;
+    }
+
+    @Override
+    public final int rightLength() {
+        assert this.conventionHolds();
+        return this.rightLength;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        assert this.conventionHolds();
+        return new List4Iterator();
+    }
+
+    /*
+     * Other methods (overridden for performance reasons) ---------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T rightFront() {
+        assert this.rightLength > 0 : "Violation of: this.right /= <>";
+
+        assert this.conventionHolds();
+        return (T) this.cursor.entries[this.offset];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T replaceRightFront(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.rightLength > 0 : "Violation of: this.right /= <>";
+
+        T result = (T) this.cursor.entries[this.offset];
+        this.cursor.entries[this.offset] = x;
+
+        assert this.conventionHolds();
+        return result;
+    }
+
+    @Override
+    public final void moveToFinish() {
+        this.cursor = this.postFinish;
+        this.offset = 0;
+        this.leftLength += this.rightLength;
+        this.rightLength = 0;
+
+        assert this.conventionHolds();
+    }
+
+    @Override
+    public final void retreat() {
+        assert this.leftLength > 0 : "Violation of: this.left /= <>";
+
+        if (this.offset > 0) {
+            this.offset--;
+        } else {
+            this.cursor = this.cursor.previous;
+            this.offset = this.cursor.count - 1;
+        }
+        this.leftLength--;
+        this.rightLength++;
+
+        assert this.conventionHolds();
+    }
+
+    /**
+     * Moves the position in {@code this} so that {@code this.left} has length
+     * {@code pos}, walking node by node from whichever of the start, the
+     * current position and the finish is nearest.
+     *
+     * @param pos
+     *            the new length of this.left
+     * @updates this
+     * @requires 0 <= pos <= |this.left| + |this.right|
+     * @ensures <pre>
+     * this.left * this.right = #this.left * #this.right  and
+     * |this.left| = pos
+     * </pre>
+     */
+    public final void moveTo(int pos) {
+        int length = this.leftLength + this.rightLength;
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos <= length : ""
+                + "Violation of: pos <= |this.left| + |this.right|";
+
+        /*
+         * start is the position of the first entry of n
+         */
+        Node n = this.cursor;
+        int start = this.leftLength - this.offset;
+        if (pos < Math.abs(pos - start)) {
+            n = this.preStart.next;
+            start = 0;
+        }
+        if (length - pos < Math.abs(pos - start)) {
+            n = this.postFinish;
+            start = length;
+        }
+        while (pos < start) {
+            n = n.previous;
+            start -= n.count;
+        }
+        while (n != this.postFinish && pos >= start + n.count) {
+            start += n.count;
+            n = n.next;
+        }
+        this.cursor = n;
+        this.offset = pos - start;
+        this.leftLength = pos;
+        this.rightLength = length - pos;
+
+        assert this.conventionHolds();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * If {@code l} is a {@code List4}, this swaps the two chains of nodes,
+     * after splitting the node at each cursor, in time independent of the
+     * lengths.
+     * </p>
+     */
+    @Override
+    public final void swapRights(List<T> l) {
+        assert l != null : "Violation of: l is not null";
+        assert l != this : "Violation of: l is not this";
+
+        if (l instanceof List4<?>) {
+            /*
+             * This cast cannot fail since l is of dynamic type List4<?>, and
+             * the ? must be T or the call would not have compiled.
+             */
+            List4<T> other = (List4<T>) l;
+            this.splitAtCursor();
+            other.splitAtCursor();
+            Node thisLast = this.cursor.previous;
+            Node otherLast = other.cursor.previous;
+            thisLast.next = other.cursor;
+            other.cursor.previous = thisLast;
+            otherLast.next = this.cursor;
+            this.cursor.previous = otherLast;
+
+            Node postFinish = this.postFinish;
+            this.postFinish = other.postFinish;
+            other.postFinish = postFinish;
+            Node cursor = this.cursor;
+            this.cursor = other.cursor;
+            other.cursor = cursor;
+            int rightLength = this.rightLength;
+            this.rightLength = other.rightLength;
+            other.rightLength = rightLength;
+            if (thisLast != this.preStart) {
+                this.mergeWithNext(thisLast);
+            }
+            if (otherLast != other.preStart) {
+                other.mergeWithNext(otherLast);
+            }
+
+            assert this.conventionHolds();
+            assert other.conventionHolds();
+        } else {
+            super.swapRights(l);
+        }
+    }
+
+    /**
+     * Inserts all the entries of {@code l} at the front of {@code this.right},
+     * and clears {@code l}. If {@code l} is a {@code List4}, its chain of
+     * nodes is spliced in after splitting the node at the cursor, in time
+     * independent of the lengths.
+     *
+     * @param l
+     *            the list to insert
+     * @updates this.right
+     * @clears l
+     * @requires l is not this
+     * @ensures <pre>
+     * this.left = #this.left  and
+     * this.right = #l.left * #l.right * #this.right
+     * </pre>
+     */
+    public final void insertRight(List<T> l) {
+        assert l != null : "Violation of: l is not null";
+        assert l != this : "Violation of: l is not this";
+
+        if (l instanceof List4<?>) {
+            /*
+             * This cast cannot fail since l is of dynamic type List4<?>, and
+             * the ? must be T or the call would not have compiled.
+             */
+            List4<T> other = (List4<T>) l;
+            int count = other.leftLength + other.rightLength;
+            if (count > 0) {
+                this.splitAtCursor();
+                Node first = other.preStart.next;
+                Node last = other.postFinish.previous;
+                Node before = this.cursor.previous;
+                before.next = first;
+                first.previous = before;
+                last.next = this.cursor;
+                this.cursor.previous = last;
+                this.cursor = first;
+                this.rightLength += count;
+                other.createNewRep();
+                this.mergeWithNext(last);
+                if (before != this.preStart) {
+                    this.mergeWithNext(before);
+                }
+            }
+
+            assert this.conventionHolds();
+            assert other.conventionHolds();
+        } else {
+            l.moveToFinish();
+            while (l.leftLength() > 0) {
+                l.retreat();
+                this.addRightFront(l.removeRightFront());
+            }
+        }
+    }
+
+    /**
+     * Moves {@code this.right} into {@code l}, leaving {@code this.right}
+     * empty. If {@code l} is a {@code List4}, the chain of nodes is moved in
+     * time independent of the lengths.
+     *
+     * @param l
+     *            the list receiving this.right
+     * @updates this.right
+     * @replaces l
+     * @requires l is not this
+     * @ensures <pre>
+     * this.left = #this.left  and  this.right = <>  and
+     * l = (<>, #this.right)
+     * </pre>
+     */
+    public final void extractRight(List<T> l) {
+        assert l != null : "Violation of: l is not null";
+        assert l != this : "Violation of: l is not this";
+
+        l.clear();
+        this.swapRights(l);
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code List4}.
+     */
+    private final class List4Iterator implements Iterator<T> {
+
+        /**
+         * Node holding the next entry, or postFinish if there is none.
+         */
+        private Node current;
+
+        /**
+         * Position of the next entry in current.
+         */
+        private int index;
+
+        /**
+         * No-argument constructor.
+         */
+        List4Iterator() {
+            this.current = List4.this.preStart.next;
+            this.index = 0;
+            assert List4.this.conventionHolds();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current != List4.this.postFinish;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = (T) this.current.entries[this.index];
+            this.index++;
+            if (this.index == this.current.count) {
+                this.current = this.current.next;
+                this.index = 0;
+            }
+            assert List4.this.conventionHolds();
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,328 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import components.list.List;
+import components.list.List1L;
+
+/**
+ * Customized JUnit test fixture for {@code List4}.
+ */
+public class List4Test extends ListTest {
+
+    /**
+     * Number of random edits made by {@code testRandomEdits}.
+     */
+    private static final int EDITS = 5_000;
+
+    @Override
+    protected final List<String> constructorTest() {
+        return new List4<String>();
+    }
+
+    @Override
+    protected final List<String> constructorRef() {
+        return new List1L<String>();
+    }
+
+    /**
+     * Tests rightFront and replaceRightFront across node boundaries.
+     */
+    @Test
+    public final void testRightFrontAndReplace() {
+        String[] entries = many();
+        List<String> test = this.createFromArgsTest(0, entries);
+        List<String> expected = this.createFromArgsRef(0, entries);
+        while (test.rightLength() > 0) {
+            assertEquals(expected.rightFront(), test.rightFront());
+            assertEquals(expected.replaceRightFront("r"),
+                    test.replaceRightFront("r"));
+            test.advance();
+            expected.advance();
+        }
+        assertEquals(expected, test);
+    }
+
+    /**
+     * Moves the position in {@code list} so that {@code list.left} has length
+     * {@code pos}, using only kernel methods.
+     *
+     * @param list
+     *            the list
+     * @param pos
+     *            the new length of list.left
+     * @updates list
+     * @requires 0 <= pos <= |list.left| + |list.right|
+     * @ensures <pre>
+     * list.left * list.right = #list.left * #list.right  and
+     * |list.left| = pos
+     * </pre>
+     */
+    private static void moveTo(List<String> list, int pos) {
+        list.moveToStart();
+        for (int i = 0; i < pos; i++) {
+            list.advance();
+        }
+    }
+
+    /**
+     * Tests moveTo to every position, from every position, in a list of
+     * several nodes.
+     */
+    @Test
+    public final void testMoveTo() {
+        final int step = 7;
+        String[] entries = many();
+        List4<String> test = new List4<>();
+        test.transferFrom(this.createFromArgsTest(0, entries));
+        List<String> expected = this.createFromArgsRef(0, entries);
+        for (int from = 0; from <= entries.length; from += step) {
+            for (int to = 0; to <= entries.length; to += step) {
+                test.moveTo(from);
+                test.moveTo(to);
+                assertEquals(to, test.leftLength());
+                if (to < entries.length) {
+                    assertEquals(entries[to], test.rightFront());
+                }
+            }
+        }
+        test.moveTo(entries.length);
+        moveTo(expected, entries.length);
+        assertEquals(expected, test);
+    }
+
+    /**
+     * Tests moveTo on an empty list.
+     */
+    @Test
+    public final void testMoveToEmpty() {
+        List4<String> test = new List4<>();
+        test.moveTo(0);
+        assertEquals(this.createFromArgsRef(0), test);
+    }
+
+    /**
+     * Tests swapRights with another {@code List4}, with cursors inside nodes
+     * and at the finish.
+     */
+    @Test
+    public final void testSwapRights() {
+        String[] entries = many();
+        int cut = entries.length / 3;
+        List<String> test = this.createFromArgsTest(cut, entries);
+        List<String> other = this.createFromArgsTest(2, "x", "y", "z");
+        test.swapRights(other);
+        List<String> expected = this.createFromArgsRef(0, "z");
+        for (int i = cut - 1; i >= 0; i--) {
+            expected.addRightFront(entries[i]);
+        }
+        moveTo(expected, cut);
+        List<String> expectedOther = this.createFromArgsRef(2, "x", "y");
+        expectedOther.moveToFinish();
+        for (int i = entries.length - 1; i >= cut; i--) {
+            expectedOther.addRightFront(entries[i]);
+        }
+        assertEquals(expected, test);
+        assertEquals(expectedOther, other);
+
+        List<String> empty = this.createFromArgsTest(0);
+        test.swapRights(empty);
+        expected.removeRightFront();
+        assertEquals(expected, test);
+        assertEquals(this.createFromArgsRef(0, "z"), empty);
+    }
+
+    /**
+     * Tests insertRight with another {@code List4}, at the start, inside a
+     * node, and at the finish.
+     */
+    @Test
+    public final void testInsertRight() {
+        String[] entries = many();
+        final int[] positions = { 0, 1, entries.length / 2,
+            entries.length };
+        for (int pos : positions) {
+            List4<String> test = new List4<>();
+            test.transferFrom(this.createFromArgsTest(pos, entries));
+            List<String> l = this.createFromArgsTest(1, "x", "y");
+            List<String> expected = this.createFromArgsRef(pos, entries);
+            expected.addRightFront("y");
+            expected.addRightFront("x");
+            test.insertRight(l);
+            assertEquals(expected, test);
+            assertEquals(this.createFromArgsRef(0), l);
+            test.moveToFinish();
+            test.addRightFront("end");
+            expected.moveToFinish();
+            expected.addRightFront("end");
+            assertEquals(expected, test);
+        }
+    }
+
+    /**
+     * Tests insertRight with an empty list and with a list of another
+     * implementation.
+     */
+    @Test
+    public final void testInsertRightEmptyAndOther() {
+        List4<String> test = new List4<>();
+        test.transferFrom(this.createFromArgsTest(1, "a", "b"));
+        test.insertRight(new List4<String>());
+        assertEquals(this.createFromArgsRef(1, "a", "b"), test);
+        List<String> l = this.createFromArgsRef(1, "x", "y");
+        test.insertRight(l);
+        assertEquals(this.createFromArgsRef(1, "a", "x", "y", "b"), test);
+        assertEquals(0, l.leftLength() + l.rightLength());
+    }
+
+    /**
+     * Tests cutting and pasting a long segment with extractRight and
+     * insertRight.
+     */
+    @Test
+    public final void testCutAndPaste() {
+        String[] entries = many();
+        int cut = entries.length / 3;
+        List4<String> test = new List4<>();
+        test.transferFrom(this.createFromArgsTest(cut, entries));
+        List4<String> clipboard = new List4<>();
+        clipboard.addRightFront("stale");
+
+        test.extractRight(clipboard);
+        assertEquals(cut, test.leftLength());
+        assertEquals(0, test.rightLength());
+        assertEquals(0, clipboard.leftLength());
+        assertEquals(entries.length - cut, clipboard.rightLength());
+
+        test.moveTo(1);
+        test.insertRight(clipboard);
+        List<String> expected = this.createFromArgsRef(0);
+        for (int i = cut - 1; i >= 1; i--) {
+            expected.addRightFront(entries[i]);
+        }
+        for (int i = entries.length - 1; i >= cut; i--) {
+            expected.addRightFront(entries[i]);
+        }
+        expected.addRightFront(entries[0]);
+        expected.advance();
+        assertEquals(expected, test);
+        assertEquals(this.createFromArgsRef(0), clipboard);
+    }
+
+    /**
+     * Tests a long pseudo-random mix of edits, cursor moves and splices,
+     * which splits and merges many nodes, against the reference
+     * implementation, comparing the whole lists after every step.
+     */
+    @Test
+    public final void testRandomEdits() {
+        final int kinds = 9;
+        final int maxClip = 80;
+        List4<String> test = new List4<>();
+        List<String> expected = this.constructorRef();
+        Random rnd = new Random(2231);
+        for (int e = 0; e < EDITS; e++) {
+            switch (rnd.nextInt(kinds)) {
+                case 0:
+                case 1:
+                    test.addRightFront("x" + e);
+                    expected.addRightFront("x" + e);
+                    break;
+                case 2:
+                case 3:
+                    if (expected.rightLength() > 0) {
+                        assertEquals(expected.removeRightFront(),
+                                test.removeRightFront());
+                    }
+                    break;
+                case 4:
+                    if (expected.rightLength() > 0) {
+                        test.advance();
+                        expected.advance();
+                    }
+                    break;
+                case 5:
+                    if (expected.leftLength() > 0) {
+                        test.retreat();
+                        expected.retreat();
+                    }
+                    break;
+                case 6:
+                    if (rnd.nextBoolean()) {
+                        test.moveToStart();
+                        expected.moveToStart();
+                    } else {
+                        test.moveToFinish();
+                        expected.moveToFinish();
+                    }
+                    break;
+                case 7: {
+                    int pos = rnd.nextInt(
+                            expected.leftLength() + expected.rightLength() + 1);
+                    test.moveTo(pos);
+                    moveTo(expected, pos);
+                    break;
+                }
+                default: {
+                    /*
+                     * Cut this.right and paste back its first entries at a
+                     * random position, then the rest at the finish
+                     */
+                    List4<String> clip = new List4<>();
+                    test.extractRight(clip);
+                    List<String> expectedClip = this.constructorRef();
+                    while (expected.rightLength() > 0) {
+                        expectedClip.addRightFront(expected.removeRightFront());
+                        expectedClip.advance();
+                    }
+                    expectedClip.moveToStart();
+                    assertEquals(expectedClip, clip);
+                    int pos = rnd.nextInt(expected.leftLength() + 1);
+                    int n = Math.min(rnd.nextInt(maxClip),
+                            clip.rightLength());
+                    List4<String> head = new List4<>();
+                    for (int i = 0; i < n; i++) {
+                        head.addRightFront(clip.removeRightFront());
+                        head.advance();
+                    }
+                    test.moveTo(pos);
+                    test.insertRight(head);
+                    moveTo(expected, pos);
+                    for (int i = 0; i < n; i++) {
+                        expected.addRightFront(
+                                expectedClip.removeRightFront());
+                        expected.advance();
+                    }
+                    for (int i = 0; i < n; i++) {
+                        expected.retreat();
+                    }
+                    assertEquals(expected, test);
+                    test.moveToFinish();
+                    test.insertRight(clip);
+                    expected.moveToFinish();
+                    while (expectedClip.rightLength() > 0) {
+                        expected.addRightFront(
+                                expectedClip.removeRightFront());
+                        expected.advance();
+                    }
+                    moveTo(expected, test.leftLength());
+                    break;
+                }
+            }
+            assertEquals(expected, test);
+            if (expected.rightLength() > 0) {
+                assertEquals(expected.rightFront(), test.rightFront());
+            }
+        }
+        assertEquals(expected, test);
+        test.moveToStart();
+        expected.moveToStart();
+        while (expected.rightLength() > 0) {
+            assertEquals(expected.removeRightFront(), test.removeRightFront());
+        }
+        assertEquals(expected, test);
+    }
+
+}
@@ -0,0 +1,199 @@
+import components.list.List;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Compares {@code List4} (unrolled linked list) and {@code List3} (doubly
+ * linked list) on {@code String} entries: the time per entry to build a list
+ * of n entries by adding each at the finish, to iterate over it, to walk the
+ * cursor across it with {@code advance}, and to empty it from the start with
+ * {@code removeRightFront}, and the heap the built list takes per entry, not
+ * counting the entries themselves.
+ *
+ * <p>
+ * Usage: {@code ListBenchmark [n]}; the default is 10^6 entries. Run without
+ * {@code -ea}: {@code List3} and {@code List4} check their conventions, walking
+ * the whole list, in every method when assertions are enabled. The heap figures
+ * come from {@code Runtime} after requesting garbage collections, so they are
+ * estimates.
+ * </p>
+ *
+ * @author Yuting Che
+ *
+ */
+public final class ListBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private ListBenchmark() {
+    }
+
+    /**
+     * Default number of entries.
+     */
+    private static final int DEFAULT_ENTRIES = 1_000_000;
+
+    /**
+     * Number of untimed rounds before timing.
+     */
+    private static final int WARMUP_ROUNDS = 3;
+
+    /**
+     * Number of timed rounds; the fastest is reported.
+     */
+    private static final int TIMED_ROUNDS = 5;
+
+    /**
+     * Number of garbage collections requested before reading the heap size.
+     */
+    private static final int GC_REQUESTS = 3;
+
+    /**
+     * Sink for results so the JIT cannot discard the timed loops.
+     */
+    private static int sink;
+
+    /**
+     * Times one round on {@code list}: builds it, iterates over it, walks the
+     * cursor across it, and empties it.
+     *
+     * @param list
+     *            the list under test
+     * @param entries
+     *            the entries
+     * @return nanoseconds for {build, iterate, advance, remove} phases
+     * @updates list
+     * @requires list = (<>, <>)
+     * @ensures list = (<>, <>)
+     */
+    private static long[] round(List<String> list, String[] entries) {
+        long start = System.nanoTime();
+        for (String e : entries) {
+            list.addRightFront(e);
+            list.advance();
+        }
+        long built = System.nanoTime();
+        int acc = 0;
+        for (String e : list) {
+            acc += e.length();
+        }
+        long iterated = System.nanoTime();
+        list.moveToStart();
+        while (list.rightLength() > 0) {
+            list.advance();
+        }
+        long walked = System.nanoTime();
+        list.moveToStart();
+        while (list.rightLength() > 0) {
+            acc += list.removeRightFront().length();
+        }
+        long removed = System.nanoTime();
+        sink += acc;
+        return new long[] { built - start, iterated - built, walked - iterated,
+            removed - walked };
+    }
+
+    /**
+     * Returns the heap in use, after requesting garbage collections.
+     *
+     * @return the bytes of heap in use
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < GC_REQUESTS; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Returns an estimate of the heap {@code list} takes per entry once
+     * built, not counting the entries.
+     *
+     * @param list
+     *            the list under test
+     * @param entries
+     *            the entries
+     * @return the bytes per entry
+     * @updates list
+     * @requires list = (<>, <>)
+     * @ensures list = (<>, <>)
+     */
+    private static double bytesPerEntry(List<String> list,
+            String[] entries) {
+        long before = usedHeap();
+        for (String e : entries) {
+            list.addRightFront(e);
+            list.advance();
+        }
+        long after = usedHeap();
+        sink += list.leftLength();
+        list.clear();
+        return (double) (after - before) / entries.length;
+    }
+
+    /**
+     * Outputs the fastest time per entry of each phase on {@code list}, and
+     * its heap per entry.
+     *
+     * @param name
+     *            the name of the implementation
+     * @param list
+     *            the list under test
+     * @param entries
+     *            the entries
+     * @param out
+     *            the output stream
+     * @updates out.content
+     * @requires list = (<>, <>) and out.is_open
+     */
+    private static void benchmark(String name, List<String> list,
+            String[] entries, SimpleWriter out) {
+        long[] best = { Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE,
+            Long.MAX_VALUE };
+        for (int r = 0; r < WARMUP_ROUNDS + TIMED_ROUNDS; r++) {
+            long[] t = round(list, entries);
+            if (r >= WARMUP_ROUNDS) {
+                for (int i = 0; i < best.length; i++) {
+                    best[i] = Math.min(best[i], t[i]);
+                }
+            }
+        }
+        double n = entries.length;
+        out.println(String.format("%-8s %9.1f %9.1f %9.1f %9.1f %9.1f",
+                name, best[0] / n, best[1] / n, best[2] / n, best[3] / n,
+                bytesPerEntry(list, entries)));
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            optional number of entries
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+
+        int n = DEFAULT_ENTRIES;
+        if (args.length > 0) {
+            n = Integer.parseInt(args[0]);
+        }
+        String[] entries = new String[n];
+        for (int i = 0; i < n; i++) {
+            entries[i] = "line" + i;
+        }
+
+        out.println(n + " entries, ns/entry and heap bytes/entry");
+        out.println(String.format("%-8s %9s %9s %9s %9s %9s", "list", "build",
+                "iterate", "advance", "remove", "bytes"));
+        benchmark("List4", new List4<String>(), entries, out);
+        benchmark("List3", new List3<String>(), entries, out);
+        if (sink == 1) {
+            out.println();
+        }
+
+        out.close();
+    }
+
+}
@@ -0,0 +1,280 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import components.list.List;
+
+/**
+ * JUnit test fixture for {@code List<String>}'s constructor and kernel
+ * methods, and the secondary methods implementations override.
+ */
+public abstract class ListTest {
+
+    /**
+     * Number of entries used by the tests with many entries.
+     */
+    private static final int MANY = 1000;
+
+    /**
+     * Invokes the appropriate {@code List} constructor for the implementation
+     * under test and returns the result.
+     *
+     * @return the new list
+     * @ensures constructorTest = (<>, <>)
+     */
+    protected abstract List<String> constructorTest();
+
+    /**
+     * Invokes the appropriate {@code List} constructor for the reference
+     * implementation and returns the result.
+     *
+     * @return the new list
+     * @ensures constructorRef = (<>, <>)
+     */
+    protected abstract List<String> constructorRef();
+
+    /**
+     * Makes {@code list} hold the given entries, with the first
+     * {@code leftLength} of them in {@code list.left}.
+     *
+     * @param list
+     *            the list
+     * @param leftLength
+     *            the length of list.left
+     * @param args
+     *            the entries
+     * @updates list
+     * @requires list = (<>, <>)  and  0 <= leftLength <= |args|
+     * @ensures list = ([first leftLength entries in args], [the others])
+     */
+    private static void fill(List<String> list, int leftLength,
+            String... args) {
+        for (int i = args.length - 1; i >= 0; i--) {
+            list.addRightFront(args[i]);
+        }
+        for (int i = 0; i < leftLength; i++) {
+            list.advance();
+        }
+    }
+
+    /**
+     * Creates and returns a {@code List<String>} of the implementation under
+     * test type with the given entries.
+     *
+     * @param leftLength
+     *            the length of the left part
+     * @param args
+     *            the entries for the list
+     * @return the constructed list
+     * @requires 0 <= leftLength <= |args|
+     * @ensures <pre>
+     * createFromArgsTest =
+     *   ([first leftLength entries in args], [remaining entries in args])
+     * </pre>
+     */
+    protected final List<String> createFromArgsTest(int leftLength,
+            String... args) {
+        List<String> list = this.constructorTest();
+        fill(list, leftLength, args);
+        return list;
+    }
+
+    /**
+     * Creates and returns a {@code List<String>} of the reference
+     * implementation type with the given entries.
+     *
+     * @param leftLength
+     *            the length of the left part
+     * @param args
+     *            the entries for the list
+     * @return the constructed list
+     * @requires 0 <= leftLength <= |args|
+     * @ensures <pre>
+     * createFromArgsRef =
+     *   ([first leftLength entries in args], [remaining entries in args])
+     * </pre>
+     */
+    protected final List<String> createFromArgsRef(int leftLength,
+            String... args) {
+        List<String> list = this.constructorRef();
+        fill(list, leftLength, args);
+        return list;
+    }
+
+    /**
+     * Returns {@code MANY} distinct entries.
+     *
+     * @return the entries
+     */
+    protected static String[] many() {
+        String[] result = new String[MANY];
+        for (int i = 0; i < MANY; i++) {
+            result[i] = "e" + i;
+        }
+        return result;
+    }
+
+    /**
+     * Test the no argument constructor.
+     */
+    @Test
+    public void testConstructor() {
+        List<String> test = this.constructorTest();
+        List<String> expected = this.constructorRef();
+        assertEquals(expected, test);
+        assertEquals(0, test.leftLength());
+        assertEquals(0, test.rightLength());
+    }
+
+    /**
+     * Test addRightFront on an empty list and in the middle of a list.
+     */
+    @Test
+    public void testAddRightFront() {
+        List<String> test = this.createFromArgsTest(0);
+        List<String> expected = this.createFromArgsRef(0);
+        test.addRightFront("a");
+        expected.addRightFront("a");
+        assertEquals(expected, test);
+
+        test = this.createFromArgsTest(1, "a", "b");
+        expected = this.createFromArgsRef(1, "a", "b");
+        test.addRightFront("c");
+        expected.addRightFront("c");
+        assertEquals(expected, test);
+    }
+
+    /**
+     * Test removeRightFront at the start, middle and end of a list.
+     */
+    @Test
+    public void testRemoveRightFront() {
+        for (int left = 0; left < 3; left++) {
+            List<String> test = this.createFromArgsTest(left, "a", "b", "c");
+            List<String> expected = this.createFromArgsRef(left, "a", "b",
+                    "c");
+            assertEquals(expected.removeRightFront(), test.removeRightFront());
+            assertEquals(expected, test);
+        }
+    }
+
+    /**
+     * Test advance.
+     */
+    @Test
+    public void testAdvance() {
+        List<String> test = this.createFromArgsTest(1, "a", "b", "c");
+        List<String> expected = this.createFromArgsRef(2, "a", "b", "c");
+        test.advance();
+        assertEquals(expected, test);
+    }
+
+    /**
+     * Test moveToStart.
+     */
+    @Test
+    public void testMoveToStart() {
+        List<String> test = this.createFromArgsTest(2, "a", "b", "c");
+        List<String> expected = this.createFromArgsRef(0, "a", "b", "c");
+        test.moveToStart();
+        assertEquals(expected, test);
+    }
+
+    /**
+     * Test moveToFinish from the start, the middle and the finish.
+     */
+    @Test
+    public void testMoveToFinish() {
+        for (int left = 0; left <= 3; left++) {
+            List<String> test = this.createFromArgsTest(left, "a", "b", "c");
+            List<String> expected = this.createFromArgsRef(3, "a", "b", "c");
+            test.moveToFinish();
+            assertEquals(expected, test);
+        }
+        List<String> test = this.createFromArgsTest(0);
+        test.moveToFinish();
+        assertEquals(this.createFromArgsRef(0), test);
+    }
+
+    /**
+     * Test retreat.
+     */
+    @Test
+    public void testRetreat() {
+        List<String> test = this.createFromArgsTest(2, "a", "b", "c");
+        List<String> expected = this.createFromArgsRef(1, "a", "b", "c");
+        test.retreat();
+        assertEquals(expected, test);
+    }
+
+    /**
+     * Test that moveToFinish followed by edits at the finish and retreat
+     * keep the list consistent.
+     */
+    @Test
+    public void testEditsAtFinish() {
+        List<String> test = this.createFromArgsTest(1, "a", "b");
+        List<String> expected = this.createFromArgsRef(1, "a", "b");
+        test.moveToFinish();
+        expected.moveToFinish();
+        test.addRightFront("c");
+        expected.addRightFront("c");
+        test.retreat();
+        expected.retreat();
+        assertEquals(expected.removeRightFront(), test.removeRightFront());
+        assertEquals(expected, test);
+    }
+
+    /**
+     * Test transferFrom.
+     */
+    @Test
+    public void testTransferFrom() {
+        List<String> test = this.constructorTest();
+        List<String> source = this.createFromArgsTest(1, "a", "b");
+        test.transferFrom(source);
+        assertEquals(this.createFromArgsRef(1, "a", "b"), test);
+        assertEquals(this.createFromArgsRef(0), source);
+    }
+
+    /**
+     * Test the iterator, which goes over this.left then this.right.
+     */
+    @Test
+    public void testIterator() {
+        List<String> test = this.createFromArgsTest(2, "a", "b", "c");
+        Iterator<String> it = test.iterator();
+        StringBuilder seen = new StringBuilder();
+        while (it.hasNext()) {
+            seen.append(it.next());
+        }
+        assertEquals("abc", seen.toString());
+        assertEquals(this.createFromArgsRef(2, "a", "b", "c"), test);
+    }
+
+    /**
+     * Test many entries, moving the cursor back and forth.
+     */
+    @Test
+    public void testMany() {
+        String[] entries = many();
+        List<String> test = this.createFromArgsTest(entries.length / 2,
+                entries);
+        List<String> expected = this.createFromArgsRef(entries.length / 2,
+                entries);
+        test.moveToFinish();
+        expected.moveToFinish();
+        test.retreat();
+        expected.retreat();
+        assertEquals(expected.removeRightFront(), test.removeRightFront());
+        test.moveToStart();
+        expected.moveToStart();
+        test.advance();
+        expected.advance();
+        assertEquals(expected.removeRightFront(), test.removeRightFront());
+        assertEquals(expected, test);
+    }
+
+}
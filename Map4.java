@@ -0,0 +1,646 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.array.Array;
+import components.array.Array1L;
+import components.map.Map;
+import components.map.Map1L;
+import components.map.MapSecondary;
+
+/**
+ * {@code Map} represented as a hash table using {@code Map}s for the buckets,
+ * with implementations of primary methods. The table grows automatically
+ * when the load factor (entries per bucket) would exceed a configurable
+ * maximum. Rehashing is incremental: the entries of the old table are moved
+ * to the new one a few buckets at a time by later calls to {@code add},
+ * {@code remove} and {@code removeAny}, so no single call pays for the whole
+ * rehash. The new table has room for at least twice the entries present when
+ * the rehash starts, so at least as many calls as there are nonempty old
+ * buckets come before the next grow, and each rehash is over before the next
+ * one starts.
+ *
+ * <p>
+ * Each table keeps a list of its nonempty buckets, so {@code removeAny},
+ * iteration and rehashing never look at empty buckets: their cost depends on
+ * the number of entries, not on the size of the table. Buckets are created
+ * by the first {@code add} into them, so a grow allocates only the arrays of
+ * the new table, not one {@code Map} per bucket; allocating those arrays is
+ * still proportional to the size of the table, but it is a few bulk
+ * allocations, not {@code 2n + 1} object constructions in one call.
+ * </p>
+ *
+ * @param <K>
+ *            type of {@code Map} domain (key) entries
+ * @param <V>
+ *            type of {@code Map} range (associated value) entries
+ * @convention <pre>
+ * |$this.hashTable.buckets| > 0  and
+ * $this.maxLoadFactor > 0  and
+ * [$this.hashTable and $this.oldTable each satisfy the Table convention]  and
+ * for all t: Table, i: integer, pf: PARTIAL_FUNCTION, x: K
+ *     where ((t = $this.hashTable  or  t = $this.oldTable)  and
+ *            0 <= i  and  i < |t.buckets|  and
+ *            <pf> = t.buckets[i, i+1)  and
+ *            x is in DOMAIN(pf))
+ *   ([computed result of x.hashCode()] mod |t.buckets| = i))  and
+ * [the domains of all the buckets of $this.hashTable and $this.oldTable are
+ *  pairwise disjoint]  and
+ * $this.size = [sum of the sizes of the buckets of $this.hashTable and
+ *               $this.oldTable]
+ * </pre>
+ * @correspondence <pre>
+ * this = union t: Table, i: integer, pf: PARTIAL_FUNCTION
+ *            where ((t = $this.hashTable  or  t = $this.oldTable)  and
+ *                   0 <= i  and  i < |t.buckets|  and
+ *                   <pf> = t.buckets[i, i+1))
+ *          (pf)
+ * </pre>
+ *
+ * @author Yuting Che
+ *
+ */
+public class Map4<K, V> extends MapSecondary<K, V> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default size of hash table.
+     */
+    private static final int DEFAULT_HASH_TABLE_SIZE = 101;
+
+    /**
+     * Default maximum load factor (entries per bucket) before the table grows.
+     */
+    private static final double DEFAULT_MAX_LOAD_FACTOR = 1.0;
+
+    /**
+     * Number of nonempty old-table buckets moved to the new table by each call
+     * to {@code add}, {@code remove} or {@code removeAny} during a rehash; any
+     * value of at least 1 finishes a rehash before the next grow (see
+     * {@code growIfNeeded}).
+     */
+    private static final int BUCKETS_PER_STEP = 4;
+
+    /**
+     * Array of buckets together with the list of its nonempty buckets.
+     *
+     * @param <K>
+     *            type of keys
+     * @param <V>
+     *            type of values
+     * @convention <pre>
+     * |$this.position| = |$this.buckets|  and
+     * 0 <= $this.occupiedCount <= |$this.buckets|  and
+     * [$this.occupied[0, $this.occupiedCount) holds, in some order, exactly
+     *  the indices of the nonempty buckets]  and
+     * for all i: integer where (0 <= i < $this.occupiedCount)
+     *   ($this.position[$this.occupied[i]] = i)  and
+     * [every bucket that has not been created is empty]  and
+     * $this.empty = {}
+     * </pre>
+     */
+    private static final class Table<K, V> {
+
+        /**
+         * The buckets; an entry that may not be examined is a bucket not yet
+         * created, which is empty.
+         */
+        private final Array<Map<K, V>> buckets;
+
+        /**
+         * Empty bucket returned for the buckets not yet created; never
+         * changed.
+         */
+        private final Map<K, V> empty;
+
+        /**
+         * Indices of the nonempty buckets, in positions [0, occupiedCount).
+         */
+        private final int[] occupied;
+
+        /**
+         * Position of each nonempty bucket's index in {@code occupied}.
+         */
+        private final int[] position;
+
+        /**
+         * Number of nonempty buckets.
+         */
+        private int occupiedCount;
+
+        /**
+         * Constructor resulting in {@code length} empty buckets.
+         *
+         * @param length
+         *            the number of buckets
+         * @requires length >= 0
+         */
+        private Table(int length) {
+            this.buckets = new Array1L<>(length);
+            this.empty = new Map1L<>();
+            this.occupied = new int[length];
+            this.position = new int[length];
+            this.occupiedCount = 0;
+        }
+
+        /**
+         * Returns the number of buckets.
+         *
+         * @return the number of buckets
+         */
+        private int length() {
+            return this.buckets.length();
+        }
+
+        /**
+         * Returns the index of the bucket where {@code key} belongs.
+         *
+         * @param key
+         *            the key
+         * @return the bucket index of key
+         * @requires length() > 0
+         */
+        private int indexOf(K key) {
+            return mod(key.hashCode(), this.buckets.length());
+        }
+
+        /**
+         * Returns bucket {@code i}. The bucket returned must not be changed
+         * unless it is nonempty: an empty bucket may be shared.
+         *
+         * @param i
+         *            the bucket index
+         * @return bucket i
+         * @aliases reference returned
+         */
+        private Map<K, V> bucket(int i) {
+            Map<K, V> b = this.empty;
+            if (this.buckets.mayBeExamined(i)) {
+                b = this.buckets.entry(i);
+            }
+            return b;
+        }
+
+        /**
+         * Returns the index of the {@code j}-th nonempty bucket.
+         *
+         * @param j
+         *            the position in the list of nonempty buckets
+         * @return the bucket index
+         * @requires 0 <= j < occupiedCount
+         */
+        private int occupiedBucket(int j) {
+            return this.occupied[j];
+        }
+
+        /**
+         * Adds ({@code key}, {@code value}) to bucket {@code i}, creating the
+         * bucket if needed and recording it as nonempty.
+         *
+         * @param i
+         *            the bucket index
+         * @param key
+         *            the key
+         * @param value
+         *            the value
+         */
+        private void add(int i, K key, V value) {
+            if (!this.buckets.mayBeExamined(i)) {
+                this.buckets.setEntry(i, new Map1L<K, V>());
+            }
+            Map<K, V> b = this.buckets.entry(i);
+            if (b.size() == 0) {
+                this.position[i] = this.occupiedCount;
+                this.occupied[this.occupiedCount] = i;
+                this.occupiedCount++;
+            }
+            b.add(key, value);
+        }
+
+        /**
+         * Records that bucket {@code i} may have just become empty.
+         *
+         * @param i
+         *            the bucket index
+         */
+        private void removed(int i) {
+            if (this.buckets.entry(i).size() == 0) {
+                int last = this.occupied[this.occupiedCount - 1];
+                int p = this.position[i];
+                this.occupied[p] = last;
+                this.position[last] = p;
+                this.occupiedCount--;
+            }
+        }
+
+        /**
+         * Removes {@code key} from bucket {@code i}.
+         *
+         * @param i
+         *            the bucket index
+         * @param key
+         *            the key
+         * @return the removed pair
+         * @requires key is in DOMAIN(bucket i)
+         */
+        private Pair<K, V> remove(int i, K key) {
+            Pair<K, V> p = this.buckets.entry(i).remove(key);
+            this.removed(i);
+            return p;
+        }
+
+        /**
+         * Removes any pair from the last nonempty bucket in the list.
+         *
+         * @return the removed pair
+         * @requires occupiedCount > 0
+         */
+        private Pair<K, V> removeAny() {
+            int i = this.occupied[this.occupiedCount - 1];
+            Pair<K, V> p = this.buckets.entry(i).removeAny();
+            this.removed(i);
+            return p;
+        }
+
+    }
+
+    /**
+     * Buckets for hashing.
+     */
+    private Table<K, V> hashTable;
+
+    /**
+     * Buckets of the table being rehashed into {@code hashTable}; empty when
+     * no rehash is in progress.
+     */
+    private Table<K, V> oldTable;
+
+    /**
+     * Total size of abstract {@code this}.
+     */
+    private int size;
+
+    /**
+     * Largest number of entries per bucket before the table grows.
+     */
+    private double maxLoadFactor;
+
+    /**
+     * Computes {@code a} mod {@code b} as % should have been defined to work.
+     *
+     * @param a
+     *            the number being reduced
+     * @param b
+     *            the modulus
+     * @return the result of a mod b, which satisfies 0 <= {@code mod} < b
+     * @requires b > 0
+     * @ensures <pre>
+     * 0 <= mod  and  mod < b  and
+     * there exists k: integer (a = k * b + mod)
+     * </pre>
+     */
+    private static int mod(int a, int b) {
+        assert b > 0 : "Violation of: b > 0";
+
+        int m = a % b;
+        if (m < 0) {
+            m += b;
+        }
+        return m;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param hashTableSize
+     *            the size of the hash table
+     * @param loadFactor
+     *            the maximum load factor
+     * @requires hashTableSize > 0 and loadFactor > 0
+     * @ensures <pre>
+     * |$this.hashTable.buckets| = hashTableSize  and
+     * [all buckets of $this.hashTable are empty]  and
+     * |$this.oldTable.buckets| = 0  and  $this.size = 0  and
+     * $this.maxLoadFactor = loadFactor
+     * </pre>
+     */
+    private void createNewRep(int hashTableSize, double loadFactor) {
+        this.hashTable = new Table<>(hashTableSize);
+        this.oldTable = new Table<>(0);
+        this.size = 0;
+        this.maxLoadFactor = loadFactor;
+    }
+
+    /**
+     * Moves up to {@code buckets} nonempty buckets of the old table into the
+     * new one; ends the rehash when the old table has been emptied.
+     *
+     * @param buckets
+     *            the most buckets to move
+     * @updates $this.hashTable, $this.oldTable
+     * @ensures [this is unchanged]
+     */
+    private void rehashStep(int buckets) {
+        int moved = 0;
+        while (moved < buckets && this.oldTable.occupiedCount > 0) {
+            int i = this.oldTable.occupiedBucket(0);
+            Map<K, V> bucket = this.oldTable.bucket(i);
+            while (bucket.size() > 0) {
+                Pair<K, V> p = bucket.removeAny();
+                this.hashTable.add(this.hashTable.indexOf(p.key()), p.key(),
+                        p.value());
+            }
+            this.oldTable.removed(i);
+            moved++;
+        }
+        if (this.oldTable.length() > 0 && this.oldTable.occupiedCount == 0) {
+            this.oldTable = new Table<>(0);
+        }
+    }
+
+    /**
+     * Starts a rehash into a new table if {@code this} has more entries per
+     * bucket than the maximum load factor allows. The new table has at least
+     * twice as many buckets as the current one, and enough for
+     * {@code 2 * size} entries within the maximum load factor. So the next
+     * grow needs more than {@code size} further calls to {@code add}, each of
+     * which first moves at least one of the at most {@code size} nonempty
+     * buckets of the table being rehashed: no rehash is in progress when the
+     * next one starts.
+     *
+     * @updates $this.hashTable, $this.oldTable
+     * @requires [no rehash is in progress if this needs to grow]
+     * @ensures [this is unchanged]
+     */
+    private void growIfNeeded() {
+        if (this.size > this.maxLoadFactor * this.hashTable.length()) {
+            assert this.oldTable.occupiedCount == 0 : ""
+                    + "Violation of: no rehash is in progress";
+            long forSize = (long) Math.ceil(2 * this.size / this.maxLoadFactor);
+            long length = Math.max(2L * this.hashTable.length() + 1, forSize);
+            this.oldTable = this.hashTable;
+            this.hashTable = new Table<>(
+                    (int) Math.min(length, Integer.MAX_VALUE - 2));
+        }
+    }
+
+    /**
+     * Returns the table, old or new, that holds {@code key}, or the new table
+     * if it is in neither.
+     *
+     * @param key
+     *            the key
+     * @return the table for key
+     * @aliases reference returned
+     */
+    private Table<K, V> tableFor(K key) {
+        Table<K, V> table = this.hashTable;
+        if (this.oldTable.occupiedCount > 0 && this.oldTable
+                .bucket(this.oldTable.indexOf(key)).hasKey(key)) {
+            table = this.oldTable;
+        }
+        return table;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Map4() {
+        this.createNewRep(DEFAULT_HASH_TABLE_SIZE, DEFAULT_MAX_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructor resulting in a hash table of size {@code hashTableSize}.
+     *
+     * @param hashTableSize
+     *            initial size of hash table
+     * @requires hashTableSize > 0
+     * @ensures this = {}
+     */
+    public Map4(int hashTableSize) {
+        assert hashTableSize > 0 : "Violation of: hashTableSize > 0";
+
+        this.createNewRep(hashTableSize, DEFAULT_MAX_LOAD_FACTOR);
+    }
+
+    /**
+     * Constructor resulting in a hash table of size {@code hashTableSize} that
+     * grows when there are more than {@code maxLoadFactor} entries per bucket.
+     *
+     * @param hashTableSize
+     *            initial size of hash table
+     * @param maxLoadFactor
+     *            maximum number of entries per bucket
+     * @requires hashTableSize > 0 and maxLoadFactor > 0
+     * @ensures this = {}
+     */
+    public Map4(int hashTableSize, double maxLoadFactor) {
+        assert hashTableSize > 0 : "Violation of: hashTableSize > 0";
+        assert maxLoadFactor > 0 : "Violation of: maxLoadFactor > 0";
+
+        this.createNewRep(hashTableSize, maxLoadFactor);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Map<K, V> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        /*
+         * Keep the table size: a map that is cleared and refilled does not
+         * grow again
+         */
+        this.createNewRep(this.hashTable.length(), this.maxLoadFactor);
+    }
+
+    @Override
+    public final void transferFrom(Map<K, V> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Map4<?, ?> : ""
+                + "Violation of: source is of dynamic type Map4<?,?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Map4<?,?>, and
+         * the ?,? must be K,V or the call would not have compiled.
+         */
+        Map4<K, V> localSource = (Map4<K, V>) source;
+        this.hashTable = localSource.hashTable;
+        this.oldTable = localSource.oldTable;
+        this.size = localSource.size;
+        this.maxLoadFactor = localSource.maxLoadFactor;
+        localSource.createNewRep(DEFAULT_HASH_TABLE_SIZE,
+                localSource.maxLoadFactor);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+
+        this.rehashStep(BUCKETS_PER_STEP);
+        this.hashTable.add(this.hashTable.indexOf(key), key, value);
+        this.size++;
+        this.growIfNeeded();
+    }
+
+    @Override
+    public final Pair<K, V> remove(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        this.rehashStep(BUCKETS_PER_STEP);
+        Table<K, V> table = this.tableFor(key);
+        this.size--;
+        return table.remove(table.indexOf(key), key);
+    }
+
+    @Override
+    public final Pair<K, V> removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        this.rehashStep(BUCKETS_PER_STEP);
+        Table<K, V> table = this.oldTable;
+        if (table.occupiedCount == 0) {
+            table = this.hashTable;
+        }
+        this.size--;
+        return table.removeAny();
+    }
+
+    @Override
+    public final V value(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        Table<K, V> table = this.tableFor(key);
+        return table.bucket(table.indexOf(key)).value(key);
+    }
+
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        Table<K, V> table = this.tableFor(key);
+        return table.bucket(table.indexOf(key)).hasKey(key);
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<Pair<K, V>> iterator() {
+        return new Map4Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Map4}. The
+     * nonempty buckets of the old table are visited first, then those of the
+     * new table.
+     */
+    private final class Map4Iterator implements Iterator<Pair<K, V>> {
+
+        /**
+         * Number of elements seen already (i.e., |~this.seen|).
+         */
+        private int numberSeen;
+
+        /**
+         * Position, in the concatenation of the lists of nonempty buckets of
+         * the old and new tables, of the bucket from which current bucket
+         * iterator comes.
+         */
+        private int currentBucket;
+
+        /**
+         * Bucket iterator from which next element will come.
+         */
+        private Iterator<Pair<K, V>> bucketIterator;
+
+        /**
+         * No-argument constructor.
+         */
+        Map4Iterator() {
+            this.numberSeen = 0;
+            this.currentBucket = -1;
+            this.bucketIterator = new Map1L<K, V>().iterator();
+        }
+
+        /**
+         * Returns the nonempty bucket at position {@code j} in the
+         * concatenation of the lists of nonempty buckets of the old and new
+         * tables.
+         *
+         * @param j
+         *            the position
+         * @return the bucket
+         */
+        private Map<K, V> bucket(int j) {
+            Table<K, V> table = Map4.this.oldTable;
+            int k = j;
+            if (k >= table.occupiedCount) {
+                k -= table.occupiedCount;
+                table = Map4.this.hashTable;
+            }
+            return table.bucket(table.occupiedBucket(k));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.numberSeen < Map4.this.size;
+        }
+
+        @Override
+        public Pair<K, V> next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            this.numberSeen++;
+            while (!this.bucketIterator.hasNext()) {
+                this.currentBucket++;
+                this.bucketIterator = this.bucket(this.currentBucket)
+                        .iterator();
+            }
+            return this.bucketIterator.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
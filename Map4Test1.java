@@ -0,0 +1,32 @@
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code Map4} starting from a hash table
+ * of size 1, so that the table grows and rehashes (incrementally) while the
+ * tests run.
+ */
+public class Map4Test1 extends MapTest {
+
+    /**
+     * Size of hash table to be used in tests.
+     */
+    private static final int TEST_HASH_TABLE_SIZE = 1;
+
+    /**
+     * Maximum load factor to be used in tests.
+     */
+    private static final double TEST_MAX_LOAD_FACTOR = 0.75;
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new Map4<String, String>(TEST_HASH_TABLE_SIZE,
+                TEST_MAX_LOAD_FACTOR);
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+}
@@ -0,0 +1,420 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.map.Map;
+import components.map.MapSecondary;
+
+/**
+ * {@code Map} represented as an open-addressing hash table with Robin Hood
+ * linear probing, with implementations of primary methods. Keys, values and
+ * (mixed) hash codes live in parallel arrays, so a lookup touches a few
+ * adjacent array slots instead of following a bucket object per slot as
+ * {@code Map4} does. Removal uses backward-shift deletion, so there are no
+ * tombstones.
+ *
+ * @param <K>
+ *            type of {@code Map} domain (key) entries
+ * @param <V>
+ *            type of {@code Map} range (associated value) entries
+ * @mathdefinitions <pre>
+ * HOME(h: integer, n: integer): integer is h mod n
+ * DIST(i: integer, h: integer, n: integer): integer is
+ *  (i - HOME(h, n)) mod n
+ * </pre>
+ * @convention <pre>
+ * |$this.keys| = |$this.values| = |$this.hashes|  and
+ * [|$this.keys| is a power of two]  and
+ * $this.size = [number of i such that $this.keys[i] /= null]  and
+ * $this.size <= MAX_LOAD_FACTOR * |$this.keys|  and
+ * for all i: integer where ($this.keys[i] /= null)
+ *   ($this.values[i] /= null  and
+ *    $this.hashes[i] = [mixed hash code of $this.keys[i]]  and
+ *    [every slot from HOME($this.hashes[i], |$this.keys|) to i (cyclically)
+ *     is occupied by a key whose DIST is at least the DIST of that slot
+ *     from HOME($this.hashes[i], |$this.keys|)])  and
+ * [the non-null keys are distinct]
+ * </pre>
+ * @correspondence <pre>
+ * this = {(k, v): K x V where (there exists i: integer
+ *          ($this.keys[i] = k  and  $this.values[i] = v))}
+ * </pre>
+ *
+ * @author Yuting Che
+ *
+ */
+public class Map5<K, V> extends MapSecondary<K, V> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default number of slots.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Largest fraction of slots in use before the table doubles.
+     */
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    /**
+     * Keys, or {@code null} for empty slots.
+     */
+    private Object[] keys;
+
+    /**
+     * Values of the keys in the corresponding slots.
+     */
+    private Object[] values;
+
+    /**
+     * Mixed hash codes of the keys in the corresponding slots.
+     */
+    private int[] hashes;
+
+    /**
+     * Number of entries.
+     */
+    private int size;
+
+    /**
+     * Slot where {@code removeAny} starts looking for an entry.
+     */
+    private int anyHint;
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param capacity
+     *            number of slots
+     * @requires [capacity is a power of two]
+     */
+    private void createNewRep(int capacity) {
+        this.keys = new Object[capacity];
+        this.values = new Object[capacity];
+        this.hashes = new int[capacity];
+        this.size = 0;
+        this.anyHint = 0;
+    }
+
+    /**
+     * Returns the probe distance of slot {@code i}, holding an entry with
+     * mixed hash code {@code h}, from that entry's home slot.
+     *
+     * @param i
+     *            the slot
+     * @param h
+     *            the mixed hash code
+     * @return DIST(i, h, |$this.keys|)
+     */
+    private int distance(int i, int h) {
+        int mask = this.keys.length - 1;
+        return (i - (h & mask)) & mask;
+    }
+
+    /**
+     * Returns the slot holding {@code key}, or -1 if it is not in the table.
+     *
+     * @param key
+     *            the key
+     * @return the slot of key, or -1
+     */
+    private int find(Object key) {
+        int mask = this.keys.length - 1;
+        int h = HashMixing.mixedHash(key);
+        int i = h & mask;
+        int dist = 0;
+        int result = -1;
+        boolean done = false;
+        while (!done) {
+            Object k = this.keys[i];
+            if (k == null || this.distance(i, this.hashes[i]) < dist) {
+                done = true;
+            } else if (this.hashes[i] == h && k.equals(key)) {
+                result = i;
+                done = true;
+            } else {
+                i = (i + 1) & mask;
+                dist++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Inserts an entry, known not to be in the table, Robin Hood style: an
+     * entry closer to its home slot than the one being placed gives up its
+     * slot and is placed further along instead.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @param hash
+     *            the mixed hash code of key
+     * @requires [key is not in the table] and [the table has an empty slot]
+     */
+    private void insert(Object key, Object value, int hash) {
+        int mask = this.keys.length - 1;
+        Object k = key;
+        Object v = value;
+        int h = hash;
+        int i = h & mask;
+        int dist = 0;
+        while (this.keys[i] != null) {
+            int existing = this.distance(i, this.hashes[i]);
+            if (existing < dist) {
+                Object tk = this.keys[i];
+                Object tv = this.values[i];
+                int th = this.hashes[i];
+                this.keys[i] = k;
+                this.values[i] = v;
+                this.hashes[i] = h;
+                k = tk;
+                v = tv;
+                h = th;
+                dist = existing;
+            }
+            i = (i + 1) & mask;
+            dist++;
+        }
+        this.keys[i] = k;
+        this.values[i] = v;
+        this.hashes[i] = h;
+    }
+
+    /**
+     * Empties slot {@code i} and shifts the following entries of the cluster
+     * back by one, so no gap is left in any probe sequence.
+     *
+     * @param i
+     *            the slot to empty
+     * @requires $this.keys[i] /= null
+     */
+    private void deleteAt(int i) {
+        int mask = this.keys.length - 1;
+        int hole = i;
+        int next = (hole + 1) & mask;
+        while (this.keys[next] != null
+                && this.distance(next, this.hashes[next]) > 0) {
+            this.keys[hole] = this.keys[next];
+            this.values[hole] = this.values[next];
+            this.hashes[hole] = this.hashes[next];
+            hole = next;
+            next = (next + 1) & mask;
+        }
+        this.keys[hole] = null;
+        this.values[hole] = null;
+        this.hashes[hole] = 0;
+    }
+
+    /**
+     * Doubles the number of slots, reinserting every entry.
+     */
+    private void grow() {
+        Object[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        int[] oldHashes = this.hashes;
+        int oldSize = this.size;
+        this.createNewRep(2 * oldKeys.length);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                this.insert(oldKeys[i], oldValues[i], oldHashes[i]);
+            }
+        }
+        this.size = oldSize;
+    }
+
+    /**
+     * Returns the entry in slot {@code i} as a {@code Pair}.
+     *
+     * @param i
+     *            the slot
+     * @return the entry in slot i
+     * @requires $this.keys[i] /= null
+     */
+    @SuppressWarnings("unchecked")
+    private Pair<K, V> pairAt(int i) {
+        return new SimplePair<K, V>((K) this.keys[i], (V) this.values[i]);
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Map5() {
+        this.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Map<K, V> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    @Override
+    public final void transferFrom(Map<K, V> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Map5<?, ?> : ""
+                + "Violation of: source is of dynamic type Map5<?,?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Map5<?,?>, and
+         * the ?,? must be K,V or the call would not have compiled.
+         */
+        Map5<K, V> localSource = (Map5<K, V>) source;
+        this.keys = localSource.keys;
+        this.values = localSource.values;
+        this.hashes = localSource.hashes;
+        this.size = localSource.size;
+        this.anyHint = localSource.anyHint;
+        localSource.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+
+        if (this.size + 1 > MAX_LOAD_FACTOR * this.keys.length) {
+            this.grow();
+        }
+        this.insert(key, value, HashMixing.mixedHash(key));
+        this.size++;
+    }
+
+    @Override
+    public final Pair<K, V> remove(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        int i = this.find(key);
+        Pair<K, V> p = this.pairAt(i);
+        this.deleteAt(i);
+        this.size--;
+        return p;
+    }
+
+    @Override
+    public final Pair<K, V> removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        int mask = this.keys.length - 1;
+        int i = this.anyHint;
+        while (this.keys[i] == null) {
+            i = (i + 1) & mask;
+        }
+        Pair<K, V> p = this.pairAt(i);
+        this.deleteAt(i);
+        this.size--;
+        this.anyHint = i;
+        return p;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final V value(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        return (V) this.values[this.find(key)];
+    }
+
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        return this.find(key) >= 0;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<Pair<K, V>> iterator() {
+        return new Map5Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Map5}.
+     */
+    private final class Map5Iterator implements Iterator<Pair<K, V>> {
+
+        /**
+         * Number of elements seen already (i.e., |~this.seen|).
+         */
+        private int numberSeen;
+
+        /**
+         * Slot to look at next.
+         */
+        private int slot;
+
+        /**
+         * No-argument constructor.
+         */
+        Map5Iterator() {
+            this.numberSeen = 0;
+            this.slot = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.numberSeen < Map5.this.size;
+        }
+
+        @Override
+        public Pair<K, V> next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            while (Map5.this.keys[this.slot] == null) {
+                this.slot++;
+            }
+            this.numberSeen++;
+            Pair<K, V> p = Map5.this.pairAt(this.slot);
+            this.slot++;
+            return p;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,176 @@
+import components.map.Map;
+import components.map.Map1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Compares the time per operation of {@code Map5} (open addressing),
+ * {@code Map4} (chained) and {@code Map1L} on {@code String} keys: adding n
+ * keys, looking each up with {@code hasKey} and {@code value}, and removing
+ * them all. It also reports the longest single {@code add} while filling an
+ * empty map, which includes every grow of the table: a pause proportional to
+ * the size of the table shows up there, not in the averages.
+ *
+ * <p>
+ * Usage: {@code MapBenchmark [n]}; the default is 10^5 keys. Give the JVM a
+ * heap big enough that no collection happens while a map fills (say
+ * {@code -Xms2g -Xmx2g}): a collection pause lands in the worst add too, and
+ * on a small heap it hides the cost of growing.
+ * </p>
+ *
+ * @author Yuting Che
+ *
+ */
+public final class MapBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private MapBenchmark() {
+    }
+
+    /**
+     * Default number of keys.
+     */
+    private static final int DEFAULT_KEYS = 100_000;
+
+    /**
+     * Number of untimed rounds before timing.
+     */
+    private static final int WARMUP_ROUNDS = 3;
+
+    /**
+     * Number of timed rounds; the fastest is reported.
+     */
+    private static final int TIMED_ROUNDS = 5;
+
+    /**
+     * Sink for lookup results so the JIT cannot discard the timed loops.
+     */
+    private static int sink;
+
+    /**
+     * Times one round on {@code map}: adds every key, looks every key up, and
+     * removes every key.
+     *
+     * @param map
+     *            the map under test
+     * @param keys
+     *            the keys
+     * @return nanoseconds for {add, lookup, remove} phases
+     * @updates map
+     * @requires map = {} and [the keys are distinct]
+     * @ensures map = {}
+     */
+    private static long[] round(Map<String, String> map, String[] keys) {
+        long start = System.nanoTime();
+        for (String k : keys) {
+            map.add(k, k);
+        }
+        long added = System.nanoTime();
+        int acc = 0;
+        for (String k : keys) {
+            if (map.hasKey(k)) {
+                acc += map.value(k).length();
+            }
+        }
+        long looked = System.nanoTime();
+        for (String k : keys) {
+            map.remove(k);
+        }
+        long removed = System.nanoTime();
+        sink += acc;
+        return new long[] { added - start, looked - added, removed - looked };
+    }
+
+    /**
+     * Adds every key to a new, empty instance of {@code map}'s class, timing
+     * each {@code add}; a new instance starts from the default table size, so
+     * the adds go through every grow.
+     *
+     * @param map
+     *            the map under test
+     * @param keys
+     *            the keys
+     * @return nanoseconds taken by the slowest add
+     * @requires [the keys are distinct]
+     */
+    private static long worstAdd(Map<String, String> map, String[] keys) {
+        Map<String, String> fresh = map.newInstance();
+        long worst = 0;
+        for (String k : keys) {
+            long start = System.nanoTime();
+            fresh.add(k, k);
+            worst = Math.max(worst, System.nanoTime() - start);
+        }
+        return worst;
+    }
+
+    /**
+     * Outputs the fastest time per operation of each phase on {@code map},
+     * and the shortest, over the timed rounds, of the slowest single add.
+     *
+     * @param name
+     *            the name of the implementation
+     * @param map
+     *            the map under test
+     * @param keys
+     *            the keys
+     * @param out
+     *            the output stream
+     * @updates out.content
+     * @requires map = {} and out.is_open
+     */
+    private static void benchmark(String name, Map<String, String> map,
+            String[] keys, SimpleWriter out) {
+        final double nanosPerMicro = 1e3;
+        long[] best = { Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE };
+        long worst = Long.MAX_VALUE;
+        for (int r = 0; r < WARMUP_ROUNDS + TIMED_ROUNDS; r++) {
+            long[] t = round(map, keys);
+            long w = worstAdd(map, keys);
+            if (r >= WARMUP_ROUNDS) {
+                for (int i = 0; i < best.length; i++) {
+                    best[i] = Math.min(best[i], t[i]);
+                }
+                worst = Math.min(worst, w);
+            }
+        }
+        double n = keys.length;
+        out.println(String.format("%-8s %10.1f %10.1f %10.1f %14.1f", name,
+                best[0] / n, best[1] / n, best[2] / n,
+                worst / nanosPerMicro));
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            optional number of keys
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+
+        int n = DEFAULT_KEYS;
+        if (args.length > 0) {
+            n = Integer.parseInt(args[0]);
+        }
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = "key" + i;
+        }
+
+        out.println(n + " keys, ns/operation");
+        out.println(String.format("%-8s %10s %10s %10s %14s", "map", "add",
+                "lookup", "remove", "worst add (us)"));
+        benchmark("Map5", new Map5<String, String>(), keys, out);
+        benchmark("Map4", new Map4<String, String>(), keys, out);
+        benchmark("Map1L", new Map1L<String, String>(), keys, out);
+        if (sink == 1) {
+            out.println();
+        }
+
+        out.close();
+    }
+
+}
@@ -13,6 +13,11 @@ import components.map.Map;
  */
 public abstract class MapTest {
 
+    /**
+     * Number of entries used by the tests with many entries.
+     */
+    private static final int MANY = 1000;
+
     /**
      * Invokes the appropriate {@code Map} constructor for the implementation
      * under test and returns the result.
@@ -267,4 +272,74 @@ public abstract class MapTest {
         assertEquals(1, pair.size());
     }
 
+    /**
+     * Tests adding many entries, enough for most implementations to
+     * grow their representation.
+     */
+    @Test
+    public final void testAddMany() {
+        Map<String, String> test = this.constructorTest();
+        Map<String, String> ref = this.constructorRef();
+        for (int i = 0; i < MANY; i++) {
+            test.add("k" + i, "v" + i);
+            ref.add("k" + i, "v" + i);
+        }
+        assertEquals(ref, test);
+        assertEquals("v" + (MANY / 2), test.value("k" + (MANY / 2)));
+    }
+
+    /**
+     * Tests removing entries interleaved with adds.
+     */
+    @Test
+    public final void testRemoveDuringGrowth() {
+        Map<String, String> test = this.constructorTest();
+        Map<String, String> ref = this.constructorRef();
+        for (int i = 0; i < MANY; i++) {
+            test.add("k" + i, "v" + i);
+            ref.add("k" + i, "v" + i);
+            if (i % 3 == 0) {
+                test.remove("k" + (i / 2));
+                ref.remove("k" + (i / 2));
+            }
+        }
+        assertEquals(ref, test);
+    }
+
+    /**
+     * Tests draining a large map with removeAny.
+     */
+    @Test
+    public final void testRemoveAnyDrains() {
+        Map<String, String> test = this.constructorTest();
+        Map<String, String> ref = this.constructorRef();
+        for (int i = 0; i < MANY; i++) {
+            test.add("k" + i, "v" + i);
+        }
+        while (test.size() > 0) {
+            Map.Pair<String, String> p = test.removeAny();
+            assertEquals("v" + p.key().substring(1), p.value());
+        }
+        assertEquals(ref, test);
+    }
+
+    /**
+     * Tests refilling a large map after clearing it.
+     */
+    @Test
+    public final void testClearAndRefill() {
+        Map<String, String> test = this.constructorTest();
+        Map<String, String> ref = this.constructorRef();
+        for (int i = 0; i < MANY; i++) {
+            test.add("k" + i, "v" + i);
+        }
+        test.clear();
+        assertEquals(ref, test);
+        for (int i = 0; i < MANY; i++) {
+            test.add("j" + i, "w" + i);
+            ref.add("j" + i, "w" + i);
+        }
+        assertEquals(ref, test);
+    }
+
 }
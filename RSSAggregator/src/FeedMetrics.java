@@ -0,0 +1,583 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+import components.map.Map;
+import components.map.Map1L;
+import components.queue.Queue;
+import components.queue.Queue1L;
+
+/**
+ * Lightweight in-process metrics registry for one run of
+ * {@code RSSAggregator}. It keeps a histogram per named metric and one row of
+ * measurements per feed, and writes a summary report as JSON, CSV and HTML.
+ *
+ * <p>
+ * Durations are recorded in nanoseconds and reported in milliseconds. Sizes
+ * and counts are recorded and reported as is.
+ * </p>
+ *
+ * @author Yuting Che
+ *
+ */
+public final class FeedMetrics {
+
+    /**
+     * Stages of processing one feed, in the order they happen.
+     */
+    public enum Stage {
+        /**
+         * Opening the connection to the feed.
+         */
+        CONNECT,
+        /**
+         * Downloading the feed.
+         */
+        DOWNLOAD,
+        /**
+         * Parsing the feed into an {@code XMLTree}.
+         */
+        PARSE,
+        /**
+         * Rendering the feed page.
+         */
+        RENDER;
+
+        /**
+         * Returns the metric name of this stage.
+         *
+         * @return the metric name
+         */
+        public String metric() {
+            return this.name().toLowerCase(Locale.ROOT) + "_ms";
+        }
+    }
+
+    /**
+     * Histogram with power-of-two buckets: bucket k holds values v with
+     * 2^(k-1) <= v < 2^k, and bucket 0 holds 0.
+     */
+    public static final class Histogram {
+
+        /**
+         * Number of buckets; enough for any non-negative {@code long}.
+         */
+        private static final int BUCKETS = 64;
+
+        /**
+         * Count of values in each bucket.
+         */
+        private final long[] counts = new long[BUCKETS];
+
+        /**
+         * Number of values recorded.
+         */
+        private long count;
+
+        /**
+         * Sum of values recorded.
+         */
+        private long sum;
+
+        /**
+         * Smallest value recorded.
+         */
+        private long min = Long.MAX_VALUE;
+
+        /**
+         * Largest value recorded.
+         */
+        private long max = Long.MIN_VALUE;
+
+        /**
+         * Records {@code value}.
+         *
+         * @param value
+         *            the value
+         * @requires value >= 0
+         */
+        public void record(long value) {
+            assert value >= 0 : "Violation of: value >= 0";
+
+            this.counts[BUCKETS - Long.numberOfLeadingZeros(value)]++;
+            this.count++;
+            this.sum += value;
+            this.min = Math.min(this.min, value);
+            this.max = Math.max(this.max, value);
+        }
+
+        /**
+         * Returns the number of values recorded.
+         *
+         * @return the number of values
+         */
+        public long count() {
+            return this.count;
+        }
+
+        /**
+         * Returns the smallest value recorded.
+         *
+         * @return the smallest value
+         * @requires count() > 0
+         */
+        public long min() {
+            assert this.count > 0 : "Violation of: count() > 0";
+            return this.min;
+        }
+
+        /**
+         * Returns the largest value recorded.
+         *
+         * @return the largest value
+         * @requires count() > 0
+         */
+        public long max() {
+            assert this.count > 0 : "Violation of: count() > 0";
+            return this.max;
+        }
+
+        /**
+         * Returns the mean of the values recorded.
+         *
+         * @return the mean
+         * @requires count() > 0
+         */
+        public double mean() {
+            assert this.count > 0 : "Violation of: count() > 0";
+            return (double) this.sum / this.count;
+        }
+
+        /**
+         * Returns an upper estimate of the {@code p}-th percentile: the upper
+         * bound of the bucket holding it, capped at {@code max()}.
+         *
+         * @param p
+         *            the percentile
+         * @return the estimated percentile
+         * @requires count() > 0 and 0 <= p <= 100
+         */
+        public long percentile(double p) {
+            assert this.count > 0 : "Violation of: count() > 0";
+            assert 0 <= p && p <= 100 : "Violation of: 0 <= p <= 100";
+
+            long rank = (long) Math.ceil(p / 100 * this.count);
+            long seen = 0;
+            int k = 0;
+            while (k < BUCKETS - 1 && seen + this.counts[k] < rank) {
+                seen += this.counts[k];
+                k++;
+            }
+            long upper = 0;
+            if (k > 0) {
+                upper = (1L << k) - 1;
+                if (k == BUCKETS - 1) {
+                    upper = Long.MAX_VALUE;
+                }
+            }
+            return Math.max(this.min, Math.min(upper, this.max));
+        }
+
+    }
+
+    /**
+     * Measurements for one feed.
+     */
+    private static final class FeedRow {
+
+        /**
+         * Name of the feed.
+         */
+        private final String name;
+
+        /**
+         * Duration of each {@code Stage}, in nanoseconds.
+         */
+        private final long[] nanos = new long[Stage.values().length];
+
+        /**
+         * Bytes downloaded.
+         */
+        private long bytes;
+
+        /**
+         * Items in the feed.
+         */
+        private int items;
+
+        /**
+         * Items rendered into the page on this run.
+         */
+        private int rendered;
+
+        /**
+         * Constructor from the feed name.
+         *
+         * @param name
+         *            the name of the feed
+         */
+        private FeedRow(String name) {
+            this.name = name;
+        }
+
+    }
+
+    /**
+     * Histograms by metric name.
+     */
+    private final Map<String, Histogram> histograms;
+
+    /**
+     * Rows for the feeds, in the order they were started.
+     */
+    private final Queue<FeedRow> feeds;
+
+    /**
+     * Row for the feed currently being processed.
+     */
+    private FeedRow current;
+
+    /**
+     * No-argument constructor.
+     */
+    public FeedMetrics() {
+        this.histograms = new Map1L<>();
+        this.feeds = new Queue1L<>();
+    }
+
+    /**
+     * Records {@code value} in the histogram named {@code metric}.
+     *
+     * @param metric
+     *            the name of the metric
+     * @param value
+     *            the value
+     * @requires value >= 0
+     */
+    public void record(String metric, long value) {
+        assert metric != null : "Violation of: metric is not null";
+
+        if (!this.histograms.hasKey(metric)) {
+            this.histograms.add(metric, new Histogram());
+        }
+        this.histograms.value(metric).record(value);
+    }
+
+    /**
+     * Returns the histogram named {@code metric}.
+     *
+     * @param metric
+     *            the name of the metric
+     * @return the histogram
+     * @requires [some value has been recorded for metric]
+     */
+    public Histogram histogram(String metric) {
+        assert metric != null : "Violation of: metric is not null";
+        assert this.histograms.hasKey(metric) : ""
+                + "Violation of: [some value has been recorded for metric]";
+
+        return this.histograms.value(metric);
+    }
+
+    /**
+     * Starts the row for a new feed; later calls to {@code time},
+     * {@code bytes} and {@code items} apply to it.
+     *
+     * @param name
+     *            the name of the feed
+     */
+    public void startFeed(String name) {
+        assert name != null : "Violation of: name is not null";
+
+        this.current = new FeedRow(name);
+        this.feeds.enqueue(this.current);
+    }
+
+    /**
+     * Records that {@code stage} of the current feed took {@code nanos}.
+     *
+     * @param stage
+     *            the stage
+     * @param nanos
+     *            the duration, in nanoseconds
+     * @requires [startFeed has been called] and nanos >= 0
+     */
+    public void time(Stage stage, long nanos) {
+        assert this.current != null : "Violation of: startFeed has been called";
+
+        this.current.nanos[stage.ordinal()] += nanos;
+        this.record(stage.metric(), nanos);
+    }
+
+    /**
+     * Records that {@code bytes} were downloaded for the current feed.
+     *
+     * @param bytes
+     *            the number of bytes
+     * @requires [startFeed has been called] and bytes >= 0
+     */
+    public void bytes(long bytes) {
+        assert this.current != null : "Violation of: startFeed has been called";
+
+        this.current.bytes = bytes;
+        this.record("feed_bytes", bytes);
+    }
+
+    /**
+     * Records the number of items in the current feed and how many of them
+     * were rendered on this run.
+     *
+     * @param items
+     *            the number of items in the feed
+     * @param rendered
+     *            the number of items rendered
+     * @requires [startFeed has been called] and 0 <= rendered <= items
+     */
+    public void items(int items, int rendered) {
+        assert this.current != null : "Violation of: startFeed has been called";
+
+        this.current.items = items;
+        this.current.rendered = rendered;
+        this.record("feed_items", items);
+        this.record("rendered_items", rendered);
+    }
+
+    /**
+     * Formats {@code nanos} as milliseconds.
+     *
+     * @param nanos
+     *            the duration, in nanoseconds
+     * @return the duration in milliseconds, with three decimals
+     */
+    private static String millis(double nanos) {
+        final double nanosPerMilli = 1e6;
+        return String.format(Locale.ROOT, "%.3f", nanos / nanosPerMilli);
+    }
+
+    /**
+     * Formats a value of {@code metric} for the report: durations in
+     * milliseconds, everything else as is.
+     *
+     * @param metric
+     *            the name of the metric
+     * @param value
+     *            the value
+     * @return the formatted value
+     */
+    private static String format(String metric, double value) {
+        String result;
+        if (metric.endsWith("_ms")) {
+            result = millis(value);
+        } else if (value == Math.rint(value)) {
+            result = Long.toString((long) value);
+        } else {
+            result = String.format(Locale.ROOT, "%.3f", value);
+        }
+        return result;
+    }
+
+    /**
+     * Returns {@code s} as a JSON string literal.
+     *
+     * @param s
+     *            the string
+     * @return the JSON literal
+     */
+    private static String json(String s) {
+        StringBuilder b = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                b.append('\\').append(c);
+            } else if (c < ' ') {
+                b.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                b.append(c);
+            }
+        }
+        return b.append('"').toString();
+    }
+
+    /**
+     * Returns {@code s} as a CSV field.
+     *
+     * @param s
+     *            the string
+     * @return the CSV field
+     */
+    private static String csv(String s) {
+        String result = s;
+        if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0
+                || s.indexOf('\n') >= 0) {
+            result = "\"" + s.replace("\"", "\"\"") + "\"";
+        }
+        return result;
+    }
+
+    /**
+     * Returns {@code s} with the HTML special characters escaped.
+     *
+     * @param s
+     *            the string
+     * @return the escaped string
+     */
+    private static String html(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">",
+                "&gt;");
+    }
+
+    /**
+     * Returns the percentiles reported for every histogram.
+     *
+     * @return the percentiles
+     */
+    private static double[] reportedPercentiles() {
+        final double p50 = 50;
+        final double p90 = 90;
+        final double p99 = 99;
+        return new double[] { p50, p90, p99 };
+    }
+
+    /**
+     * Renders the report as JSON.
+     *
+     * @return the JSON report
+     */
+    private String toJson() {
+        String nl = System.lineSeparator();
+        StringBuilder b = new StringBuilder("{").append(nl);
+        b.append("  \"feeds\": [");
+        String sep = nl;
+        for (FeedRow f : this.feeds) {
+            b.append(sep).append("    {\"name\": ").append(json(f.name));
+            for (Stage s : Stage.values()) {
+                b.append(", \"").append(s.metric()).append("\": ")
+                        .append(millis(f.nanos[s.ordinal()]));
+            }
+            b.append(", \"bytes\": ").append(f.bytes);
+            b.append(", \"items\": ").append(f.items);
+            b.append(", \"rendered\": ").append(f.rendered).append('}');
+            sep = "," + nl;
+        }
+        b.append(nl).append("  ],").append(nl);
+        b.append("  \"histograms\": {");
+        sep = nl;
+        for (Map.Pair<String, Histogram> p : this.histograms) {
+            Histogram h = p.value();
+            String m = p.key();
+            b.append(sep).append("    ").append(json(m)).append(": {");
+            b.append("\"count\": ").append(h.count());
+            b.append(", \"min\": ").append(format(m, h.min()));
+            b.append(", \"mean\": ").append(format(m, h.mean()));
+            for (double pc : reportedPercentiles()) {
+                b.append(", \"p").append((int) pc).append("\": ")
+                        .append(format(m, h.percentile(pc)));
+            }
+            b.append(", \"max\": ").append(format(m, h.max())).append('}');
+            sep = "," + nl;
+        }
+        b.append(nl).append("  }").append(nl).append('}').append(nl);
+        return b.toString();
+    }
+
+    /**
+     * Renders the per-feed rows as CSV.
+     *
+     * @return the CSV report
+     */
+    private String toCsv() {
+        String nl = System.lineSeparator();
+        StringBuilder b = new StringBuilder("name");
+        for (Stage s : Stage.values()) {
+            b.append(',').append(s.metric());
+        }
+        b.append(",bytes,items,rendered").append(nl);
+        for (FeedRow f : this.feeds) {
+            b.append(csv(f.name));
+            for (Stage s : Stage.values()) {
+                b.append(',').append(millis(f.nanos[s.ordinal()]));
+            }
+            b.append(',').append(f.bytes).append(',').append(f.items)
+                    .append(',').append(f.rendered).append(nl);
+        }
+        return b.toString();
+    }
+
+    /**
+     * Renders the report as an HTML page.
+     *
+     * @return the HTML report
+     */
+    private String toHtml() {
+        String nl = System.lineSeparator();
+        StringBuilder b = new StringBuilder();
+        b.append("<html> <head> <title>Feed metrics</title> </head> <body>")
+                .append(nl);
+        b.append("<h2>Feeds</h2>").append(nl);
+        b.append("<table border=\"1\">").append(nl).append("<tr>");
+        b.append("<th>Feed</th>");
+        for (Stage s : Stage.values()) {
+            b.append("<th>").append(s.metric()).append("</th>");
+        }
+        b.append("<th>bytes</th><th>items</th><th>rendered</th></tr>")
+                .append(nl);
+        for (FeedRow f : this.feeds) {
+            b.append("<tr><td>").append(html(f.name)).append("</td>");
+            for (Stage s : Stage.values()) {
+                b.append("<td>").append(millis(f.nanos[s.ordinal()]))
+                        .append("</td>");
+            }
+            b.append("<td>").append(f.bytes).append("</td><td>")
+                    .append(f.items).append("</td><td>").append(f.rendered)
+                    .append("</td></tr>").append(nl);
+        }
+        b.append("</table>").append(nl);
+        b.append("<h2>Histograms</h2>").append(nl);
+        b.append("<table border=\"1\">").append(nl);
+        b.append("<tr><th>Metric</th><th>count</th><th>min</th><th>mean</th>");
+        for (double pc : reportedPercentiles()) {
+            b.append("<th>p").append((int) pc).append("</th>");
+        }
+        b.append("<th>max</th></tr>").append(nl);
+        for (Map.Pair<String, Histogram> p : this.histograms) {
+            Histogram h = p.value();
+            String m = p.key();
+            b.append("<tr><td>").append(html(m)).append("</td><td>")
+                    .append(h.count()).append("</td><td>")
+                    .append(format(m, h.min())).append("</td><td>")
+                    .append(format(m, h.mean())).append("</td>");
+            for (double pc : reportedPercentiles()) {
+                b.append("<td>").append(format(m, h.percentile(pc)))
+                        .append("</td>");
+            }
+            b.append("<td>").append(format(m, h.max())).append("</td></tr>")
+                    .append(nl);
+        }
+        b.append("</table>").append(nl).append("</body> </html>").append(nl);
+        return b.toString();
+    }
+
+    /**
+     * Writes the report to {@code base + ".json"}, {@code base + ".csv"} and
+     * {@code base + ".html"}.
+     *
+     * @param base
+     *            the file name the report files are derived from
+     * @throws IOException
+     *             if a report file cannot be written
+     * @ensures [report files are written]
+     */
+    public void writeReport(String base) throws IOException {
+        assert base != null : "Violation of: base is not null";
+
+        Files.write(Paths.get(base + ".json"),
+                this.toJson().getBytes(StandardCharsets.UTF_8));
+        Files.write(Paths.get(base + ".csv"),
+                this.toCsv().getBytes(StandardCharsets.UTF_8));
+        Files.write(Paths.get(base + ".html"),
+                this.toHtml().getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,401 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Asynchronous writer stage for generated HTML pages. Completed page buffers
+ * are handed to {@code submit}, queued in a bounded buffer, and written to
+ * their files by a small pool of I/O threads, so slow disks do not stall
+ * fetching and parsing. When the buffer is full, {@code submit} blocks until
+ * one of the I/O threads takes a page (backpressure). Any failure to write a
+ * page, checked or not, is recorded and reported by {@code close}, so a bad
+ * page never stops an I/O thread and {@code submit} cannot be left waiting on
+ * a queue nobody drains. The I/O threads are daemon threads: if the caller
+ * fails before calling {@code close}, they do not keep the JVM alive;
+ * callers that want their pages written must call {@code close}, for
+ * instance through try-with-resources. A page can carry a follow-up file, such
+ * as a state file describing it, that is written after the page and only if
+ * the page was written.
+ *
+ * @author Yuting Che
+ *
+ */
+public final class PageWriter implements AutoCloseable {
+
+    /**
+     * Page to be written by one of the I/O threads.
+     */
+    private static final class Page {
+
+        /**
+         * Name of the output file, or {@code null} for the "stop" marker.
+         */
+        private final String fileName;
+
+        /**
+         * Contents of the page.
+         */
+        private final CharSequence content;
+
+        /**
+         * File to write after this one, only if this one was written, or
+         * {@code null} if none.
+         */
+        private final Page then;
+
+        /**
+         * Constructor from file name, contents and follow-up file.
+         *
+         * @param fileName
+         *            the name of the output file
+         * @param content
+         *            the contents of the page
+         * @param then
+         *            the file to write after this one, or null
+         */
+        private Page(String fileName, CharSequence content, Page then) {
+            this.fileName = fileName;
+            this.content = content;
+            this.then = then;
+        }
+
+    }
+
+    /**
+     * Marker telling an I/O thread there are no more pages.
+     */
+    private static final Page STOP = new Page(null, "", null);
+
+    /**
+     * Pages waiting to be written.
+     */
+    private final BlockingQueue<Page> pages;
+
+    /**
+     * The I/O threads.
+     */
+    private final Thread[] writers;
+
+    /**
+     * Number of submitted writes not yet finished, by file name; guarded by
+     * {@code this}.
+     */
+    private final Map<String, Integer> pending = new HashMap<>();
+
+    /**
+     * First failure seen by any I/O thread, or {@code null} if none.
+     */
+    private IOException failure;
+
+    /**
+     * Whether {@code close} has been called.
+     */
+    private boolean closed;
+
+    /**
+     * Constructor; starts the I/O threads.
+     *
+     * @param threads
+     *            number of I/O threads
+     * @param capacity
+     *            maximum number of pages waiting to be written
+     * @requires threads > 0 and capacity > 0
+     */
+    public PageWriter(int threads, int capacity) {
+        assert threads > 0 : "Violation of: threads > 0";
+        assert capacity > 0 : "Violation of: capacity > 0";
+
+        this.pages = new ArrayBlockingQueue<>(capacity);
+        this.writers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            this.writers[i] = new Thread(this::drain, "page-writer-" + i);
+            this.writers[i].setDaemon(true);
+            this.writers[i].start();
+        }
+    }
+
+    /**
+     * Takes pages from the queue and writes them until the "stop" marker is
+     * seen.
+     */
+    private void drain() {
+        boolean done = false;
+        while (!done) {
+            Page p = takeUninterruptibly(this.pages);
+            if (p == STOP) {
+                done = true;
+            } else {
+                boolean written = true;
+                while (p != null) {
+                    if (written) {
+                        written = this.tryWrite(p);
+                    }
+                    this.finished(p.fileName);
+                    p = p.then;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes one page, recording any failure.
+     *
+     * @param p
+     *            the page
+     * @return whether the page was written
+     */
+    private boolean tryWrite(Page p) {
+        boolean result = false;
+        try {
+            write(p.fileName, p.content);
+            result = true;
+        } catch (IOException e) {
+            this.recordFailure(e);
+        } catch (RuntimeException e) {
+            /*
+             * For instance an InvalidPathException for a bad file name
+             */
+            this.recordFailure(new IOException("Cannot write " + p.fileName,
+                    e));
+        }
+        return result;
+    }
+
+    /**
+     * Records that a write to {@code fileName} was submitted.
+     *
+     * @param fileName
+     *            the name of the file
+     */
+    private synchronized void started(String fileName) {
+        this.pending.merge(fileName, 1, Integer::sum);
+    }
+
+    /**
+     * Records that a write to {@code fileName} is finished, written or not,
+     * and wakes up the threads waiting in {@code awaitWritten}.
+     *
+     * @param fileName
+     *            the name of the file
+     */
+    private synchronized void finished(String fileName) {
+        if (this.pending.merge(fileName, -1, Integer::sum) == 0) {
+            this.pending.remove(fileName);
+        }
+        this.notifyAll();
+    }
+
+    /**
+     * Writes {@code content} to the file named {@code fileName}, replacing
+     * whatever was there, through a {@code FileChannel}.
+     *
+     * @param fileName
+     *            the name of the output file
+     * @param content
+     *            the contents to write
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    private static void write(String fileName, CharSequence content)
+            throws IOException {
+        ByteBuffer bytes = StandardCharsets.UTF_8
+                .encode(CharBuffer.wrap(content));
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Remembers {@code e} if it is the first failure.
+     *
+     * @param e
+     *            the failure
+     */
+    private synchronized void recordFailure(IOException e) {
+        if (this.failure == null) {
+            this.failure = e;
+        } else {
+            this.failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Removes and returns the head of {@code q}, waiting as long as needed and
+     * ignoring interrupts (the interrupt status is restored afterwards).
+     *
+     * @param q
+     *            the queue
+     * @return the head of {@code q}
+     */
+    private static Page takeUninterruptibly(BlockingQueue<Page> q) {
+        Page result = null;
+        boolean interrupted = false;
+        while (result == null) {
+            try {
+                result = q.take();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+
+    /**
+     * Adds {@code p} to {@code q}, waiting as long as needed for space and
+     * ignoring interrupts (the interrupt status is restored afterwards).
+     *
+     * @param q
+     *            the queue
+     * @param p
+     *            the page to add
+     */
+    private static void putUninterruptibly(BlockingQueue<Page> q, Page p) {
+        boolean added = false;
+        boolean interrupted = false;
+        while (!added) {
+            try {
+                q.put(p);
+                added = true;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hands a completed page to the I/O threads. Blocks while the queue of
+     * pages waiting to be written is full.
+     *
+     * @param fileName
+     *            the name of the output file
+     * @param content
+     *            the contents of the page
+     * @requires [this has not been closed] and [content is not modified
+     *           after this call]
+     * @ensures [content will be written to fileName before close returns]
+     */
+    public void submit(String fileName, CharSequence content) {
+        assert fileName != null : "Violation of: fileName is not null";
+        assert content != null : "Violation of: content is not null";
+        assert !this.closed : "Violation of: this has not been closed";
+
+        this.started(fileName);
+        putUninterruptibly(this.pages, new Page(fileName, content, null));
+    }
+
+    /**
+     * Hands a completed page to the I/O threads together with a follow-up
+     * file, which one I/O thread writes right after the page, and only if the
+     * page was written. Blocks while the queue of pages waiting to be written
+     * is full.
+     *
+     * @param fileName
+     *            the name of the output file
+     * @param content
+     *            the contents of the page
+     * @param thenName
+     *            the name of the follow-up file
+     * @param thenContent
+     *            the contents of the follow-up file
+     * @requires <pre>
+     * [this has not been closed] and [content and thenContent are not
+     *  modified after this call]
+     * </pre>
+     * @ensures <pre>
+     * [content will be written to fileName before close returns, and then,
+     *  if that succeeded, thenContent to thenName]
+     * </pre>
+     */
+    public void submit(String fileName, CharSequence content, String thenName,
+            CharSequence thenContent) {
+        assert fileName != null : "Violation of: fileName is not null";
+        assert content != null : "Violation of: content is not null";
+        assert thenName != null : "Violation of: thenName is not null";
+        assert thenContent != null : "Violation of: thenContent is not null";
+        assert !this.closed : "Violation of: this has not been closed";
+
+        this.started(fileName);
+        this.started(thenName);
+        putUninterruptibly(this.pages, new Page(fileName, content,
+                new Page(thenName, thenContent, null)));
+    }
+
+    /**
+     * Waits until every write to {@code fileName} submitted so far is
+     * finished, successfully or not, so the file can be read back.
+     *
+     * @param fileName
+     *            the name of the file
+     * @ensures [no write to fileName is queued or in progress]
+     */
+    public synchronized void awaitWritten(String fileName) {
+        assert fileName != null : "Violation of: fileName is not null";
+
+        boolean interrupted = false;
+        while (this.pending.containsKey(fileName)) {
+            try {
+                this.wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for every submitted page to be written and stops the I/O threads.
+     *
+     * @throws UncheckedIOException
+     *             if any page could not be written
+     * @ensures [all submitted pages have been written]
+     */
+    @Override
+    public void close() {
+        if (!this.closed) {
+            this.closed = true;
+            for (int i = 0; i < this.writers.length; i++) {
+                putUninterruptibly(this.pages, STOP);
+            }
+            boolean interrupted = false;
+            for (Thread t : this.writers) {
+                while (t.isAlive()) {
+                    try {
+                        t.join();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            if (this.failure != null) {
+                throw new UncheckedIOException(this.failure);
+            }
+        }
+    }
+
+}
@@ -1,3 +1,17 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+
+import components.set.Set;
+import components.set.Set1L;
 import components.simplereader.SimpleReader;
 import components.simplereader.SimpleReader1L;
 import components.simplewriter.SimpleWriter;
@@ -14,6 +28,65 @@ import components.xmltree.XMLTree1;
  */
 public final class RSSAggregator {
 
+    /**
+     * Number of I/O threads writing feed pages.
+     */
+    private static final int WRITER_THREADS = 2;
+
+    /**
+     * Maximum number of rendered pages waiting to be written.
+     */
+    private static final int WRITER_QUEUE_SIZE = 8;
+
+    /**
+     * Initial capacity of the buffer a feed page is rendered into.
+     */
+    private static final int PAGE_CAPACITY = 16 * 1024;
+
+    /**
+     * Line separator used in rendered pages.
+     */
+    private static final String NEW_LINE = System.lineSeparator();
+
+    /**
+     * Suffix appended to a feed page's file name to name its state file, which
+     * holds the GUIDs of the items already rendered on the page, one per line.
+     */
+    private static final String STATE_SUFFIX = ".state";
+
+    /**
+     * Suffix appended to the index file's base name to name the metrics
+     * report files.
+     */
+    private static final String METRICS_SUFFIX = "-metrics";
+
+    /**
+     * Prefix of the state file key of an item with no GUID, link, title or
+     * description; the rest of the key is the item's rendered row, on one
+     * line.
+     */
+    private static final String ROW_KEY_PREFIX = "row:";
+
+    /**
+     * A line break in a state file key, with the white space around it; each
+     * one is replaced by a single space, so every key fits on one line.
+     */
+    private static final Pattern KEY_LINE_BREAK = Pattern
+            .compile("\\s*\\R\\s*");
+
+    /**
+     * A line break between the keys of a state file, of whatever platform it
+     * was written on.
+     */
+    private static final Pattern STATE_LINE_BREAK = Pattern.compile("\\R");
+
+    /**
+     * End of the table header row in a rendered page; new item rows are
+     * spliced into an existing page right after it.
+     */
+    private static final String TABLE_HEADER_END = "<th>News</th>" + NEW_LINE
+            + "</tr>" + NEW_LINE;
+
     /**
      * Private constructor so this utility class cannot be instantiated.
      */
@@ -39,18 +112,17 @@ public final class RSSAggregator {
      *
      * @param channel
      *            the channel element XMLTree
-     * @param out
-     *            the output stream
-     * @updates out.content
-     * @requires [the root of channel is a <channel> tag] and out.is_open
-     * @ensures out.content = #out.content * [the HTML "opening" tags]
+     * @param page
+     *            the page being rendered
+     * @updates page
+     * @requires [the root of channel is a <channel> tag]
+     * @ensures page = #page * [the HTML "opening" tags]
      */
-    private static void outputHeader(XMLTree channel, SimpleWriter out) {
+    private static void outputHeader(XMLTree channel, StringBuilder page) {
         assert channel != null : "Violation of: channel is not null";
-        assert out != null : "Violation of: out is not null";
+        assert page != null : "Violation of: page is not null";
         assert channel.isTag() && channel.label().equals("channel") : ""
                 + "Violation of: the label root of channel is a <channel> tag";
-        assert out.isOpen() : "Violation of: out.is_open";
 
         String headTitle = "";
         String h1Title = "Empty Title";
@@ -78,16 +150,18 @@ public final class RSSAggregator {
             }
         }
 
-        out.println("<html> <head> <title>" + headTitle
-                + "</title> </head> <body>");
-        out.println("<h1> <a href=\"" + link + "\">" + h1Title + "</a> </h1>");
-        out.println("<p>" + description + "</p>");
-        out.println("<table border=\"1\">");
-        out.println("<tr>");
-        out.println("<th>Date</th>");
-        out.println("<th>Source</th>");
-        out.println("<th>News</th>");
-        out.println("</tr>");
+        page.append("<html> <head> <title>").append(headTitle)
+                .append("</title> </head> <body>").append(NEW_LINE);
+        page.append("<h1> <a href=\"").append(link).append("\">")
+                .append(h1Title).append("</a> </h1>").append(NEW_LINE);
+        page.append("<p>").append(description).append("</p>")
+                .append(NEW_LINE);
+        page.append("<table border=\"1\">").append(NEW_LINE);
+        page.append("<tr>").append(NEW_LINE);
+        page.append("<th>Date</th>").append(NEW_LINE);
+        page.append("<th>Source</th>").append(NEW_LINE);
+        page.append("<th>News</th>").append(NEW_LINE);
+        page.append("</tr>").append(NEW_LINE);
     }
 
     /**
@@ -97,18 +171,16 @@ public final class RSSAggregator {
      * </table>
      * </body> </html>
      *
-     * @param out
-     *            the output stream
-     * @updates out.contents
-     * @requires out.is_open
-     * @ensures out.content = #out.content * [the HTML "closing" tags]
+     * @param page
+     *            the page being rendered
+     * @updates page
+     * @ensures page = #page * [the HTML "closing" tags]
      */
-    private static void outputFooter(SimpleWriter out) {
-        assert out != null : "Violation of: out is not null";
-        assert out.isOpen() : "Violation of: out.is_open";
+    private static void outputFooter(StringBuilder page) {
+        assert page != null : "Violation of: page is not null";
 
-        out.println("</table>");
-        out.println("</body> </html>");
+        page.append("</table>").append(NEW_LINE);
+        page.append("</body> </html>").append(NEW_LINE);
     }
 
     /**
@@ -152,22 +224,20 @@ public final class RSSAggregator {
      *
      * @param item
      *            the news item
-     * @param out
-     *            the output stream
-     * @updates out.content
-     * @requires [the label of the root of item is an <item> tag] and
-     *           out.is_open
+     * @param page
+     *            the page being rendered
+     * @updates page
+     * @requires [the label of the root of item is an <item> tag]
      * @ensures <pre>
-     * out.content = #out.content *
+     * page = #page *
      *   [an HTML table row with publication date, source, and title of news item]
      * </pre>
      */
-    private static void processItem(XMLTree item, SimpleWriter out) {
+    private static void processItem(XMLTree item, StringBuilder page) {
         assert item != null : "Violation of: item is not null";
-        assert out != null : "Violation of: out is not null";
+        assert page != null : "Violation of: page is not null";
         assert item.isTag() && item.label().equals("item") : ""
                 + "Violation of: the label root of item is an <item> tag";
-        assert out.isOpen() : "Violation of: out.is_open";
 
         String date = "No date available";
         String sourceLink = "";
@@ -195,26 +265,261 @@ public final class RSSAggregator {
                         .label();
             }
         }
-        out.println("<tr>");
-        out.println("<th>" + date + "</th>");
+        page.append("<tr>").append(NEW_LINE);
+        page.append("<th>").append(date).append("</th>").append(NEW_LINE);
         if (sourceLink.equals("")) {
-            out.println("<th>" + source + "</th>");
+            page.append("<th>").append(source).append("</th>")
+                    .append(NEW_LINE);
         } else {
-            out.println(
-                    "<th> <a href=\"" + sourceLink + "\">" + source + "</th>");
+            page.append("<th> <a href=\"").append(sourceLink).append("\">")
+                    .append(source).append("</th>").append(NEW_LINE);
         }
         if (link.equals("")) {
-            out.println("<th>" + link + news + "</a> </th>");
+            page.append("<th>").append(link).append(news)
+                    .append("</a> </th>").append(NEW_LINE);
         } else {
-            out.println("<th> <a href=\"" + link + "\">" + news + "</a> </th>");
+            page.append("<th> <a href=\"").append(link).append("\">")
+                    .append(news).append("</a> </th>").append(NEW_LINE);
         }
-        out.println("</tr>");
+        page.append("</tr>").append(NEW_LINE);
 
     }
 
     /**
-     * Processes one XML RSS (version 2.0) feed from a given URL converting it
-     * into the corresponding HTML output file.
+     * Returns the identifier of the given news item: the text of its
+     * {@code <guid>} if it has one, otherwise its link, title or description,
+     * in that order.
+     *
+     * @param item
+     *            the news item
+     * @return the identifier of item
+     * @requires [the label of the root of item is an <item> tag]
+     * @ensures guidOf = [identifier of item]
+     */
+    private static String guidOf(XMLTree item) {
+        assert item != null : "Violation of: item is not null";
+        assert item.isTag() && item.label().equals("item") : ""
+                + "Violation of: the label root of item is an <item> tag";
+
+        String guid = "";
+        String[] tags = { "guid", "link", "title", "description" };
+        int k = 0;
+        while (guid.isEmpty() && k < tags.length) {
+            int index = getChildElement(item, tags[k]);
+            if (index > -1) {
+                guid = stateKey(item.child(index).child(0).label());
+            }
+            k++;
+        }
+        return guid;
+    }
+
+    /**
+     * Returns {@code key} as it is kept in a state file: trimmed, with each
+     * line break and the white space around it replaced by a single space.
+     * Keys are normalized this way both before they are stored and before they
+     * are compared, so a multi-line identifier reads back as the key it was
+     * stored under.
+     *
+     * @param key
+     *            the key
+     * @return the normalized key
+     * @ensures stateKey = [key trimmed, on one line]
+     */
+    private static String stateKey(String key) {
+        assert key != null : "Violation of: key is not null";
+
+        return KEY_LINE_BREAK.matcher(key.trim()).replaceAll(" ");
+    }
+
+    /**
+     * Reads the file named {@code fileName}, or returns {@code null} if it
+     * does not exist or cannot be read.
+     *
+     * @param fileName
+     *            the name of the file
+     * @return the contents of the file, or {@code null}
+     * @ensures readIfPresent = [contents of fileName, or null if unreadable]
+     */
+    private static String readIfPresent(String fileName) {
+        String result = null;
+        Path path = Paths.get(fileName);
+        if (Files.isRegularFile(path)) {
+            try {
+                result = new String(Files.readAllBytes(path),
+                        StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                result = null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Renders one feed into {@code fileName}. If the page and its state file
+     * exist from an earlier run, only the items whose GUIDs are not in the
+     * state file are rendered, and their rows are spliced into the existing
+     * page right below the table header; if there are no such items, nothing
+     * is written. Otherwise the whole page is rendered. An item with no
+     * identifier at all (see {@code guidOf}) is keyed in the state file by its
+     * rendered row, so it is rendered once, like any other item. The state
+     * file is written only after the page has been written, so a failed page
+     * write leaves its items to be rendered again on the next run; and any
+     * write of the page or the state file still queued from earlier in this
+     * run finishes before they are read back.
+     *
+     * @param channel
+     *            the channel element XMLTree
+     * @param fileName
+     *            the name of the HTML page for the feed
+     * @param pages
+     *            the writer for rendered pages
+     * @param metrics
+     *            the metrics for this run
+     * @updates metrics
+     * @requires [the root of channel is a <channel> tag]
+     * @ensures <pre>
+     * [fileName holds a table of the items in channel, plus any items it held
+     *   before; fileName + STATE_SUFFIX holds the GUIDs of those items;
+     *   the item counts of the feed are recorded in metrics]
+     * </pre>
+     */
+    static void renderFeed(XMLTree channel, String fileName,
+            PageWriter pages, FeedMetrics metrics) {
+        assert channel != null : "Violation of: channel is not null";
+        assert fileName != null : "Violation of: fileName is not null";
+        assert pages != null : "Violation of: pages is not null";
+        assert metrics != null : "Violation of: metrics is not null";
+
+        String stateFile = fileName + STATE_SUFFIX;
+        pages.awaitWritten(fileName);
+        pages.awaitWritten(stateFile);
+        String oldState = readIfPresent(stateFile);
+        String oldPage = readIfPresent(fileName);
+        int splice = -1;
+        if (oldState != null && oldPage != null) {
+            splice = oldPage.indexOf(TABLE_HEADER_END);
+        }
+
+        Set<String> rendered = new Set1L<>();
+        StringBuilder state = new StringBuilder();
+        if (splice >= 0) {
+            for (String line : STATE_LINE_BREAK.split(oldState)) {
+                String guid = stateKey(line);
+                if (!guid.isEmpty() && !rendered.contains(guid)) {
+                    rendered.add(guid);
+                    state.append(guid).append(NEW_LINE);
+                }
+            }
+        }
+        StringBuilder rows = new StringBuilder(PAGE_CAPACITY);
+        int items = 0;
+        int renderedItems = 0;
+        for (int j = 0; j < channel.numberOfChildren(); j++) {
+            XMLTree item = channel.child(j);
+            if (item.label().equals("item")) {
+                items++;
+                String guid = guidOf(item);
+                StringBuilder row = null;
+                if (guid.isEmpty()) {
+                    row = new StringBuilder();
+                    processItem(item, row);
+                    guid = ROW_KEY_PREFIX + stateKey(row.toString());
+                }
+                if (!rendered.contains(guid)) {
+                    if (row == null) {
+                        processItem(item, rows);
+                    } else {
+                        rows.append(row);
+                    }
+                    renderedItems++;
+                    rendered.add(guid);
+                    state.append(guid).append(NEW_LINE);
+                }
+            }
+        }
+
+        if (splice < 0) {
+            StringBuilder page = new StringBuilder(
+                    rows.length() + PAGE_CAPACITY);
+            outputHeader(channel, page);
+            page.append(rows);
+            outputFooter(page);
+            pages.submit(fileName, page, stateFile, state);
+        } else if (rows.length() > 0) {
+            int end = splice + TABLE_HEADER_END.length();
+            StringBuilder page = new StringBuilder(
+                    oldPage.length() + rows.length());
+            page.append(oldPage, 0, end).append(rows).append(oldPage, end,
+                    oldPage.length());
+            pages.submit(fileName, page, stateFile, state);
+        }
+        metrics.items(items, renderedItems);
+    }
+
+    /**
+     * Fetches and parses the feed at {@code feedUrl}, recording the time spent
+     * connecting, downloading and parsing, and the number of bytes downloaded.
+     * A feed given by URL is downloaded into a temporary file first, so that
+     * the download is timed separately from parsing; a feed given by file name
+     * is parsed in place.
+     *
+     * @param feedUrl
+     *            the URL or file name of the feed
+     * @param metrics
+     *            the metrics for this run
+     * @return the parsed feed
+     * @updates metrics
+     * @ensures fetchFeed = [the XMLTree of the feed at feedUrl]
+     */
+    private static XMLTree fetchFeed(String feedUrl, FeedMetrics metrics) {
+        assert feedUrl != null : "Violation of: feedUrl is not null";
+        assert metrics != null : "Violation of: metrics is not null";
+
+        XMLTree result;
+        if (feedUrl.contains("://")) {
+            Path local = null;
+            try {
+                long start = System.nanoTime();
+                URLConnection connection = new URL(feedUrl).openConnection();
+                connection.connect();
+                long connected = System.nanoTime();
+                metrics.time(FeedMetrics.Stage.CONNECT, connected - start);
+                local = Files.createTempFile("feed", ".xml");
+                try (InputStream in = connection.getInputStream()) {
+                    metrics.bytes(Files.copy(in, local,
+                            StandardCopyOption.REPLACE_EXISTING));
+                }
+                long downloaded = System.nanoTime();
+                metrics.time(FeedMetrics.Stage.DOWNLOAD,
+                        downloaded - connected);
+                result = new XMLTree1(local.toString());
+                metrics.time(FeedMetrics.Stage.PARSE,
+                        System.nanoTime() - downloaded);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                if (local != null) {
+                    local.toFile().delete();
+                }
+            }
+        } else {
+            metrics.bytes(Paths.get(feedUrl).toFile().length());
+            long start = System.nanoTime();
+            result = new XMLTree1(feedUrl);
+            metrics.time(FeedMetrics.Stage.PARSE, System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    /**
+     * Processes a list of XML RSS (version 2.0) feeds from a given URL,
+     * converting each feed into the corresponding HTML output file and
+     * outputting an index of the generated files. Feed pages are rendered on
+     * this thread and handed to a {@code PageWriter}, so writing them overlaps
+     * with fetching and parsing the next feed. Pages from earlier runs are
+     * updated incrementally (see {@code renderFeed}). Per-feed timings and
+     * sizes are written to a metrics report next to {@code file}.
      *
      * @param url
      *            the URL of the RSS feed
@@ -226,11 +531,13 @@ public final class RSSAggregator {
      * @requires out.is_open
      * @ensures <pre>
      * [reads RSS feed from url, saves HTML document with table of news items
-     *   to file, appends to out.content any needed messages]
+     *   to file, appends to out.content any needed messages, writes metrics
+     *   report files next to file]
      * </pre>
      */
     private static void processFeed(String url, String file, SimpleWriter out) {
         XMLTree xml = new XMLTree1(url);
+        FeedMetrics metrics = new FeedMetrics();
 
         String title = xml.attributeValue("title");
         String h2Title = xml.attributeValue("title");
@@ -245,27 +552,40 @@ public final class RSSAggregator {
         out.println("<body>");
         out.println("<h2>" + h2Title + "</h2>");
         out.println("<ul>");
-        for (int i = 0; i < xml.numberOfChildren(); i++) {
-            feedUrl = xml.child(i).attributeValue("url");
-            name = xml.child(i).attributeValue("name");
-            fileName = xml.child(i).attributeValue("file");
-            SimpleWriter pageName = new SimpleWriter1L(fileName);
-
-            XMLTree feedXml = new XMLTree1(feedUrl);
-            XMLTree channel = feedXml.child(0);
-            outputHeader(channel, pageName);
-            for (int j = 0; j < channel.numberOfChildren(); j++) {
-                if (channel.child(j).label().equals("item")) {
-                    processItem(channel.child(j), pageName);
-                }
+        /*
+         * close, which waits for the pages to be written, runs even if a feed
+         * cannot be fetched or parsed
+         */
+        try (PageWriter pages = new PageWriter(WRITER_THREADS,
+                WRITER_QUEUE_SIZE)) {
+            for (int i = 0; i < xml.numberOfChildren(); i++) {
+                feedUrl = xml.child(i).attributeValue("url");
+                name = xml.child(i).attributeValue("name");
+                fileName = xml.child(i).attributeValue("file");
+                metrics.startFeed(name);
+
+                XMLTree feedXml = fetchFeed(feedUrl, metrics);
+                XMLTree channel = feedXml.child(0);
+                long start = System.nanoTime();
+                renderFeed(channel, fileName, pages, metrics);
+                metrics.time(FeedMetrics.Stage.RENDER,
+                        System.nanoTime() - start);
+                out.println("<li>" + "<a href=\"" + fileName + "\">" + name
+                        + "</a></li>");
             }
-            outputFooter(pageName);
-            out.println("<li>" + "<a href=\"" + fileName + "\">" + name
-                    + "</a></li>");
-            pageName.close();
         }
         out.println("</ul> </body></html>");
 
+        String base = file;
+        if (base.endsWith(".html")) {
+            base = base.substring(0, base.length() - ".html".length());
+        }
+        try {
+            metrics.writeReport(base + METRICS_SUFFIX);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
     }
 
     /**
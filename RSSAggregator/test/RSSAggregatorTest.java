@@ -0,0 +1,109 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import components.xmltree.XMLTree;
+import components.xmltree.XMLTree1;
+
+/**
+ * JUnit test fixture for {@code RSSAggregator}.
+ */
+public final class RSSAggregatorTest {
+
+    /**
+     * Renders the channel of the RSS feed {@code rss} into {@code page}, the
+     * given number of times, each time as a separate run, and returns the
+     * number of item rows on the page.
+     *
+     * @param rss
+     *            the RSS feed
+     * @param page
+     *            the page file
+     * @param runs
+     *            the number of runs
+     * @return the number of item rows on the page
+     * @throws IOException
+     *             if a file cannot be written or read
+     */
+    private static int renderRows(String rss, Path page, int runs)
+            throws IOException {
+        Path feed = page.resolveSibling("feed.xml");
+        Files.write(feed, rss.getBytes(StandardCharsets.UTF_8));
+        XMLTree xml = new XMLTree1(feed.toString());
+        XMLTree channel = xml.child(0);
+        for (int k = 0; k < runs; k++) {
+            FeedMetrics metrics = new FeedMetrics();
+            metrics.startFeed(page.toString());
+            try (PageWriter pages = new PageWriter(1, 1)) {
+                RSSAggregator.renderFeed(channel, page.toString(), pages,
+                        metrics);
+            }
+        }
+        String html = new String(Files.readAllBytes(page),
+                StandardCharsets.UTF_8);
+        int rows = -1;
+        int at = html.indexOf("<tr>");
+        while (at >= 0) {
+            rows++;
+            at = html.indexOf("<tr>", at + 1);
+        }
+        return rows;
+    }
+
+    /**
+     * Returns an RSS feed with one item, whose only identifier is the given
+     * description.
+     *
+     * @param description
+     *            the description of the item
+     * @return the RSS feed
+     */
+    private static String feedWithDescription(String description) {
+        return "<rss version=\"2.0\"><channel><title>Feed</title>"
+                + "<link>http://example.com/</link>"
+                + "<description>Test feed</description><item><description>"
+                + description + "</description></item></channel></rss>";
+    }
+
+    @Test
+    public void testRenderTwiceOneItem() throws IOException {
+        Path dir = Files.createTempDirectory("rss");
+        Path page = dir.resolve("feed.html");
+        int rows = renderRows(feedWithDescription("one item"), page, 2);
+        assertEquals(1, rows);
+    }
+
+    @Test
+    public void testRenderTwiceMultiLineDescriptionLf() throws IOException {
+        Path dir = Files.createTempDirectory("rss");
+        Path page = dir.resolve("feed.html");
+        int rows = renderRows(feedWithDescription("first line\nsecond line"),
+                page, 2);
+        assertEquals(1, rows);
+    }
+
+    @Test
+    public void testRenderTwiceMultiLineDescriptionCrLf() throws IOException {
+        Path dir = Files.createTempDirectory("rss");
+        Path page = dir.resolve("feed.html");
+        int rows = renderRows(
+                feedWithDescription("first line\r\n  second line\r\n"), page,
+                2);
+        assertEquals(1, rows);
+    }
+
+    @Test
+    public void testRenderThriceMultiLineDescriptionCr() throws IOException {
+        Path dir = Files.createTempDirectory("rss");
+        Path page = dir.resolve("feed.html");
+        int rows = renderRows(feedWithDescription("first line\rsecond line"),
+                page, 3);
+        assertEquals(1, rows);
+    }
+
+}
@@ -0,0 +1,319 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.sequence.Sequence;
+import components.sequence.SequenceSecondary;
+
+/**
+ * {@code Sequence} represented as a gap buffer: a growable array holding the
+ * entries with a gap of unused slots at the position of the last edit, with
+ * implementations of primary methods. An edit moves the gap to its position
+ * with one {@code System.arraycopy} of the entries in between, so a run of
+ * edits near one another costs amortized O(1) each, where {@code Sequence3}
+ * moves entries one at a time between its two {@code Stack}s, allocating a
+ * node for each.
+ *
+ * @param <T>
+ *            type of {@code Sequence} entries
+ * @convention <pre>
+ * |$this.entries| >= 1  and
+ * 0 <= $this.gapStart <= $this.gapEnd <= |$this.entries|  and
+ * [$this.entries[$this.gapStart, $this.gapEnd) are all null]
+ * </pre>
+ * @correspondence <pre>
+ * this = $this.entries[0, $this.gapStart) *
+ *        $this.entries[$this.gapEnd, |$this.entries|)
+ * </pre>
+ *
+ * @author Yuting Che
+ *
+ */
+public class Sequence4<T> extends SequenceSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Initial number of slots.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Slots holding the entries and the gap.
+     */
+    private Object[] entries;
+
+    /**
+     * First slot of the gap.
+     */
+    private int gapStart;
+
+    /**
+     * Slot after the last slot of the gap.
+     */
+    private int gapEnd;
+
+    /**
+     * Moves the gap so that it starts at {@code pos}, without changing
+     * {@code this}.
+     *
+     * @param pos
+     *            the new start of the gap
+     * @updates $this.entries, $this.gapStart, $this.gapEnd
+     * @requires 0 <= pos <= |this|
+     * @ensures $this.gapStart = pos
+     */
+    private void moveGap(int pos) {
+        if (pos < this.gapStart) {
+            int n = this.gapStart - pos;
+            System.arraycopy(this.entries, pos, this.entries, this.gapEnd - n,
+                    n);
+            Arrays.fill(this.entries, pos, Math.min(this.gapStart,
+                    this.gapEnd - n), null);
+            this.gapStart = pos;
+            this.gapEnd -= n;
+        } else if (pos > this.gapStart) {
+            int n = pos - this.gapStart;
+            System.arraycopy(this.entries, this.gapEnd, this.entries,
+                    this.gapStart, n);
+            Arrays.fill(this.entries, Math.max(this.gapEnd, pos),
+                    this.gapEnd + n, null);
+            this.gapStart = pos;
+            this.gapEnd += n;
+        }
+    }
+
+    /**
+     * Doubles the number of slots if the gap is empty, without changing
+     * {@code this} or the start of the gap.
+     *
+     * @updates $this.entries, $this.gapEnd
+     * @ensures $this.gapStart < $this.gapEnd
+     */
+    private void ensureRoom() {
+        if (this.gapStart == this.gapEnd) {
+            int tail = this.entries.length - this.gapEnd;
+            Object[] bigger = new Object[2 * this.entries.length];
+            System.arraycopy(this.entries, 0, bigger, 0, this.gapStart);
+            System.arraycopy(this.entries, this.gapEnd, bigger,
+                    bigger.length - tail, tail);
+            this.entries = bigger;
+            this.gapEnd = bigger.length - tail;
+        }
+    }
+
+    /**
+     * Returns the slot holding the entry at position {@code pos}.
+     *
+     * @param pos
+     *            the position
+     * @return the slot of the entry at pos
+     * @requires 0 <= pos < |this|
+     */
+    private int slot(int pos) {
+        int result = pos;
+        if (pos >= this.gapStart) {
+            result += this.gapEnd - this.gapStart;
+        }
+        return result;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.entries = new Object[INITIAL_CAPACITY];
+        this.gapStart = 0;
+        this.gapEnd = INITIAL_CAPACITY;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Sequence4() {
+        this.createNewRep();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Sequence<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Sequence<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Sequence4<?> : ""
+                + "Violation of: source is of dynamic type Sequence4<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Sequence4<?>,
+         * and the ? must be T or the call would not have compiled.
+         */
+        Sequence4<T> localSource = (Sequence4<T>) source;
+        this.entries = localSource.entries;
+        this.gapStart = localSource.gapStart;
+        this.gapEnd = localSource.gapEnd;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(int pos, T x) {
+        assert x != null : "Violation of: x is not null";
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos <= this.length() : "Violation of: pos <= |this|";
+
+        this.moveGap(pos);
+        this.ensureRoom();
+        this.entries[this.gapStart] = x;
+        this.gapStart++;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T remove(int pos) {
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos < this.length() : "Violation of: pos < |this|";
+
+        this.moveGap(pos);
+        T result = (T) this.entries[this.gapEnd];
+        this.entries[this.gapEnd] = null;
+        this.gapEnd++;
+        return result;
+    }
+
+    @Override
+    public final int length() {
+        return this.entries.length - (this.gapEnd - this.gapStart);
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Sequence4Iterator();
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * This takes O(1) time and does not move the gap.
+     * </p>
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T entry(int pos) {
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos < this.length() : "Violation of: pos < |this|";
+
+        return (T) this.entries[this.slot(pos)];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * This takes O(1) time and does not move the gap.
+     * </p>
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T replaceEntry(int pos, T x) {
+        assert x != null : "Violation of: x is not null";
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos < this.length() : "Violation of: pos < |this|";
+
+        int i = this.slot(pos);
+        T result = (T) this.entries[i];
+        this.entries[i] = x;
+        return result;
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Sequence4}; it
+     * skips over the gap instead of moving it.
+     */
+    private final class Sequence4Iterator implements Iterator<T> {
+
+        /**
+         * Slot of the next entry, or |$this.entries| if there is none.
+         */
+        private int slot;
+
+        /**
+         * No-argument constructor.
+         */
+        Sequence4Iterator() {
+            this.slot = 0;
+            this.skipGap();
+        }
+
+        /**
+         * Moves {@code slot} past the gap if it is in it.
+         */
+        private void skipGap() {
+            if (this.slot == Sequence4.this.gapStart) {
+                this.slot = Sequence4.this.gapEnd;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.slot < Sequence4.this.entries.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = (T) Sequence4.this.entries[this.slot];
+            this.slot++;
+            this.skipGap();
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
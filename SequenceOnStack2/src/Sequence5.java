@@ -0,0 +1,888 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import components.sequence.Sequence;
+import components.sequence.SequenceSecondary;
+
+/**
+ * {@code Sequence} represented as a rope: a treap (a binary tree that is a
+ * search tree by position and a heap by random priority) whose nodes each
+ * hold a chunk of up to {@code CHUNK} consecutive entries, with
+ * implementations of primary methods. Splitting the tree at a position and
+ * concatenating two trees take O(log |this|) expected time, so, when their
+ * argument is also a {@code Sequence5}, {@code append}, {@code insert} and
+ * {@code extract} take O(log |this|) expected time instead of moving entries
+ * one at a time. {@code add}, {@code remove}, {@code entry} and
+ * {@code replaceEntry} also take O(log |this|) expected time.
+ *
+ * <p>
+ * Every chunk is at least half full unless it is the only one: {@code add}
+ * splits a full chunk in halves, and a chunk that falls below half full, by
+ * {@code remove} or where two trees are split or concatenated, is refilled
+ * from a neighbour, the two (or three) chunks being merged or their entries
+ * evened out. So a sequence of n entries has at most about 2n / CHUNK + 1
+ * nodes.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code Sequence} entries
+ * @mathdefinitions <pre>
+ * ENTRIES(n: node): string of T is
+ *  [the concatenation, in in-order, of n.chunk[0, n.count) for every node
+ *   in the tree rooted at n, or the empty string if n is null]
+ * </pre>
+ * @convention <pre>
+ * for every node n in the tree rooted at $this.root
+ *   (1 <= n.count <= CHUNK  and  |n.chunk| = CHUNK  and
+ *    [n.count >= CHUNK / 2, unless n is the only node]  and
+ *    [n.chunk[n.count, CHUNK) are all null]  and
+ *    n.size = |ENTRIES(n)|  and
+ *    [n.priority >= the priorities of the children of n])
+ * </pre>
+ * @correspondence this = ENTRIES($this.root)
+ *
+ * @author Yuting Che
+ *
+ */
+public class Sequence5<T> extends SequenceSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Largest number of entries in one node. With compressed references, 64
+     * references fill four 64-byte cache lines: enough that a sequential scan
+     * spends most of its time in array slots rather than in tree nodes, and
+     * small enough that shifting entries within a chunk on an edit is cheap.
+     */
+    private static final int CHUNK = 64;
+
+    /**
+     * Smallest number of entries in a node other than the only one.
+     */
+    private static final int HALF = CHUNK / 2;
+
+    /**
+     * Node of the treap.
+     */
+    private static final class Node {
+
+        /**
+         * Entries held by this node, in positions [0, count).
+         */
+        private final Object[] chunk;
+
+        /**
+         * Number of entries held by this node.
+         */
+        private int count;
+
+        /**
+         * Number of entries in the subtree rooted at this node.
+         */
+        private int size;
+
+        /**
+         * Random heap priority.
+         */
+        private final int priority;
+
+        /**
+         * Root of the left subtree, or {@code null}.
+         */
+        private Node left;
+
+        /**
+         * Root of the right subtree, or {@code null}.
+         */
+        private Node right;
+
+        /**
+         * Constructor resulting in a leaf with no entries and the given
+         * priority.
+         *
+         * @param priority
+         *            the heap priority
+         */
+        private Node(int priority) {
+            this.chunk = new Object[CHUNK];
+            this.count = 0;
+            this.size = 0;
+            this.priority = priority;
+            this.left = null;
+            this.right = null;
+        }
+
+        /**
+         * Constructor resulting in a leaf with no entries and a random
+         * priority.
+         */
+        private Node() {
+            this(ThreadLocalRandom.current().nextInt());
+        }
+
+    }
+
+    /**
+     * Root of the treap, or {@code null} if this is empty.
+     */
+    private Node root;
+
+    /**
+     * Returns the number of entries in the subtree rooted at {@code n}.
+     *
+     * @param n
+     *            the root of the subtree, or null
+     * @return |ENTRIES(n)|
+     */
+    private static int size(Node n) {
+        int result = 0;
+        if (n != null) {
+            result = n.size;
+        }
+        return result;
+    }
+
+    /**
+     * Recomputes {@code n.size} from its children and its count.
+     *
+     * @param n
+     *            the node
+     * @updates n.size
+     */
+    private static void updateSize(Node n) {
+        n.size = size(n.left) + n.count + size(n.right);
+    }
+
+    /**
+     * Returns the root of the concatenation of the trees rooted at {@code a}
+     * and {@code b}.
+     *
+     * @param a
+     *            the root of the first tree, or null
+     * @param b
+     *            the root of the second tree, or null
+     * @return the root of the concatenation
+     * @ensures ENTRIES(merge) = ENTRIES(#a) * ENTRIES(#b)
+     */
+    private static Node merge(Node a, Node b) {
+        Node result;
+        if (a == null) {
+            result = b;
+        } else if (b == null) {
+            result = a;
+        } else if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            updateSize(a);
+            result = a;
+        } else {
+            b.left = merge(a, b.left);
+            updateSize(b);
+            result = b;
+        }
+        return result;
+    }
+
+    /**
+     * Splits the tree rooted at {@code n} into the trees holding its first
+     * {@code pos} entries and the rest; a chunk straddling {@code pos} is
+     * split in two.
+     *
+     * @param n
+     *            the root of the tree, or null
+     * @param pos
+     *            the position to split at
+     * @return the roots of the two trees
+     * @requires 0 <= pos <= |ENTRIES(n)|
+     * @ensures <pre>
+     * ENTRIES(split[0]) * ENTRIES(split[1]) = ENTRIES(#n)  and
+     * |ENTRIES(split[0])| = pos
+     * </pre>
+     */
+    private static Node[] split(Node n, int pos) {
+        Node[] result;
+        if (n == null) {
+            result = new Node[] { null, null };
+        } else {
+            int leftSize = size(n.left);
+            if (pos <= leftSize) {
+                result = split(n.left, pos);
+                n.left = result[1];
+                updateSize(n);
+                result[1] = n;
+            } else if (pos >= leftSize + n.count) {
+                result = split(n.right, pos - leftSize - n.count);
+                n.right = result[0];
+                updateSize(n);
+                result[0] = n;
+            } else {
+                /*
+                 * The tail of the chunk gets n's priority, so the heap order
+                 * holds wherever the caller links the right tree
+                 */
+                int k = pos - leftSize;
+                Node tail = new Node(n.priority);
+                tail.count = n.count - k;
+                tail.size = tail.count;
+                System.arraycopy(n.chunk, k, tail.chunk, 0, tail.count);
+                Arrays.fill(n.chunk, k, n.count, null);
+                n.count = k;
+                Node right = n.right;
+                n.right = null;
+                updateSize(n);
+                result = new Node[] { n, merge(tail, right) };
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Inserts {@code x} at offset {@code k} of {@code n}'s chunk.
+     *
+     * @param n
+     *            the node
+     * @param k
+     *            the offset
+     * @param x
+     *            the entry
+     * @updates n.chunk, n.count
+     * @requires 0 <= k <= n.count < CHUNK
+     */
+    private static void insertAt(Node n, int k, Object x) {
+        System.arraycopy(n.chunk, k, n.chunk, k + 1, n.count - k);
+        n.chunk[k] = x;
+        n.count++;
+    }
+
+    /**
+     * Inserts {@code x} at position {@code pos} of the tree rooted at
+     * {@code n}, if the chunk it belongs in has room.
+     *
+     * @param n
+     *            the root of the tree
+     * @param pos
+     *            the position
+     * @param x
+     *            the entry
+     * @return -1 if x was inserted, or else the position in ENTRIES(n) of the
+     *         first entry of the full chunk x belongs in
+     * @updates n
+     * @requires n /= null  and  0 <= pos <= |ENTRIES(n)|
+     * @ensures <pre>
+     * if insertInChunk = -1
+     *  then ENTRIES(n) = ENTRIES(#n)[0, pos) * <x> * ENTRIES(#n)[pos, |#n|)
+     *  else (n = #n  and  insertInChunk <= pos <= insertInChunk + CHUNK  and
+     *        [a node of n holds ENTRIES(n)[insertInChunk,
+     *         insertInChunk + CHUNK)])
+     * </pre>
+     */
+    private static int insertInChunk(Node n, int pos, Object x) {
+        int result;
+        int leftSize = size(n.left);
+        if (pos < leftSize) {
+            result = insertInChunk(n.left, pos, x);
+        } else if (pos <= leftSize + n.count) {
+            result = leftSize;
+            if (n.count < CHUNK) {
+                insertAt(n, pos - leftSize, x);
+                result = -1;
+            }
+        } else {
+            result = insertInChunk(n.right, pos - leftSize - n.count, x);
+            if (result >= 0) {
+                result += leftSize + n.count;
+            }
+        }
+        if (result < 0) {
+            n.size++;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of entries in the first node of the tree rooted at
+     * {@code n}.
+     *
+     * @param n
+     *            the root of the tree
+     * @return the count of the first node in in-order
+     * @requires n /= null
+     */
+    private static int firstCount(Node n) {
+        Node m = n;
+        while (m.left != null) {
+            m = m.left;
+        }
+        return m.count;
+    }
+
+    /**
+     * Returns the number of entries in the last node of the tree rooted at
+     * {@code n}.
+     *
+     * @param n
+     *            the root of the tree
+     * @return the count of the last node in in-order
+     * @requires n /= null
+     */
+    private static int lastCount(Node n) {
+        Node m = n;
+        while (m.right != null) {
+            m = m.right;
+        }
+        return m.count;
+    }
+
+    /**
+     * Copies the entries of the tree rooted at {@code n} into {@code to},
+     * starting at {@code at}.
+     *
+     * @param n
+     *            the root of the tree, or null
+     * @param to
+     *            the destination
+     * @param at
+     *            the position in to of the first entry
+     * @return at + |ENTRIES(n)|
+     * @updates to
+     * @requires 0 <= at  and  at + |ENTRIES(n)| <= |to|
+     * @ensures to[at, copyEntries) = ENTRIES(n)
+     */
+    private static int copyEntries(Node n, Object[] to, int at) {
+        int next = at;
+        if (n != null) {
+            next = copyEntries(n.left, to, next);
+            System.arraycopy(n.chunk, 0, to, next, n.count);
+            next = copyEntries(n.right, to, next + n.count);
+        }
+        return next;
+    }
+
+    /**
+     * Returns the root of a new tree holding the entries of the small tree
+     * rooted at {@code n} in as few nodes as possible, with counts differing
+     * by at most one.
+     *
+     * @param n
+     *            the root of the tree
+     * @return the root of the new tree
+     * @requires n /= null
+     * @ensures <pre>
+     * ENTRIES(rechunk) = ENTRIES(n)  and
+     * [rechunk has ceiling(|ENTRIES(n)| / CHUNK) nodes, with counts
+     *  differing by at most one]
+     * </pre>
+     */
+    private static Node rechunk(Node n) {
+        int total = size(n);
+        Object[] entries = new Object[total];
+        copyEntries(n, entries, 0);
+        int chunks = (total + CHUNK - 1) / CHUNK;
+        Node result = null;
+        int from = 0;
+        for (int c = 1; c <= chunks; c++) {
+            int to = total * c / chunks;
+            Node m = new Node();
+            System.arraycopy(entries, from, m.chunk, 0, to - from);
+            m.count = to - from;
+            m.size = m.count;
+            result = merge(result, m);
+            from = to;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the root of the concatenation of the trees rooted at {@code a}
+     * and {@code b}, refilling the less than half full chunks where they meet
+     * from their neighbours.
+     *
+     * @param a
+     *            the root of the first tree, or null
+     * @param b
+     *            the root of the second tree, or null
+     * @return the root of the concatenation
+     * @requires <pre>
+     * [every node of a other than its last one, and every node of b other
+     *  than its first one, has at least HALF entries]
+     * </pre>
+     * @ensures <pre>
+     * ENTRIES(join) = ENTRIES(#a) * ENTRIES(#b)  and
+     * [every node of join has at least HALF entries, unless it is the only
+     *  node]
+     * </pre>
+     */
+    private static Node join(Node a, Node b) {
+        Node left = a;
+        Node right = b;
+        Node middle = null;
+        if (left != null && lastCount(left) < HALF) {
+            Node[] halves = split(left, size(left) - lastCount(left));
+            left = halves[0];
+            middle = halves[1];
+        }
+        if (right != null && firstCount(right) < HALF) {
+            Node[] halves = split(right, firstCount(right));
+            middle = merge(middle, halves[0]);
+            right = halves[1];
+        }
+        if (middle != null && size(middle) < HALF) {
+            /*
+             * The neighbour taken now is at least half full, so the chunks
+             * taken hold at least HALF entries between them
+             */
+            if (left != null) {
+                Node[] halves = split(left, size(left) - lastCount(left));
+                left = halves[0];
+                middle = merge(halves[1], middle);
+            } else if (right != null) {
+                Node[] halves = split(right, firstCount(right));
+                middle = merge(middle, halves[0]);
+                right = halves[1];
+            }
+        }
+        if (middle != null) {
+            middle = rechunk(middle);
+        }
+        return merge(merge(left, middle), right);
+    }
+
+    /**
+     * Removes the entry at position {@code pos} of the tree rooted at
+     * {@code n}, dropping its node if that empties it.
+     *
+     * @param n
+     *            the root of the tree
+     * @param pos
+     *            the position
+     * @return the root of the resulting tree
+     * @requires 0 <= pos < |ENTRIES(n)|
+     * @ensures <pre>
+     * ENTRIES(removeAt) = ENTRIES(#n)[0, pos) * ENTRIES(#n)[pos + 1, |#n|)
+     * </pre>
+     */
+    private static Node removeAt(Node n, int pos) {
+        Node result = n;
+        int leftSize = size(n.left);
+        if (pos < leftSize) {
+            n.left = removeAt(n.left, pos);
+            n.size--;
+        } else if (pos < leftSize + n.count) {
+            int k = pos - leftSize;
+            System.arraycopy(n.chunk, k + 1, n.chunk, k, n.count - k - 1);
+            n.count--;
+            n.chunk[n.count] = null;
+            n.size--;
+            if (n.count == 0) {
+                result = merge(n.left, n.right);
+            }
+        } else {
+            n.right = removeAt(n.right, pos - leftSize - n.count);
+            n.size--;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the node holding the entry at position {@code pos}, and stores
+     * that entry's offset in the node's chunk in {@code offset[0]}.
+     *
+     * @param pos
+     *            the position
+     * @param offset
+     *            receives the offset in the node's chunk
+     * @return the node holding entry pos
+     * @requires 0 <= pos < |this|
+     */
+    private Node find(int pos, int[] offset) {
+        Node n = this.root;
+        int p = pos;
+        boolean found = false;
+        while (!found) {
+            int leftSize = size(n.left);
+            if (p < leftSize) {
+                n = n.left;
+            } else if (p < leftSize + n.count) {
+                found = true;
+                p -= leftSize;
+            } else {
+                p -= leftSize + n.count;
+                n = n.right;
+            }
+        }
+        offset[0] = p;
+        return n;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.root = null;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Sequence5() {
+        this.createNewRep();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Sequence<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Sequence<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Sequence5<?> : ""
+                + "Violation of: source is of dynamic type Sequence5<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Sequence5<?>,
+         * and the ? must be T or the call would not have compiled.
+         */
+        Sequence5<T> localSource = (Sequence5<T>) source;
+        this.root = localSource.root;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(int pos, T x) {
+        assert x != null : "Violation of: x is not null";
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos <= this.length() : "Violation of: pos <= |this|";
+
+        if (this.root == null) {
+            Node leaf = new Node();
+            insertAt(leaf, 0, x);
+            leaf.size = 1;
+            this.root = leaf;
+        } else {
+            int start = insertInChunk(this.root, pos, x);
+            if (start >= 0) {
+                /*
+                 * The chunk x belongs in is full: take it out of the tree,
+                 * split it in halves, and put x in the half it belongs in
+                 */
+                Node[] before = split(this.root, start);
+                Node[] after = split(before[1], CHUNK);
+                Node lower = after[0];
+                Node upper = new Node();
+                System.arraycopy(lower.chunk, HALF, upper.chunk, 0,
+                        CHUNK - HALF);
+                Arrays.fill(lower.chunk, HALF, CHUNK, null);
+                lower.count = HALF;
+                upper.count = CHUNK - HALF;
+                int k = pos - start;
+                if (k <= HALF) {
+                    insertAt(lower, k, x);
+                } else {
+                    insertAt(upper, k - HALF, x);
+                }
+                lower.size = lower.count;
+                upper.size = upper.count;
+                this.root = merge(merge(before[0], merge(lower, upper)),
+                        after[1]);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T remove(int pos) {
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos < this.length() : "Violation of: pos < |this|";
+
+        int[] offset = new int[1];
+        Node n = this.find(pos, offset);
+        T result = (T) n.chunk[offset[0]];
+        this.root = removeAt(this.root, pos);
+        if (0 < n.count && n.count < HALF && n.count < this.length()) {
+            /*
+             * The chunk is no longer half full and is not the only one:
+             * refill it from a neighbour
+             */
+            Node[] halves = split(this.root, pos - offset[0]);
+            this.root = join(halves[0], halves[1]);
+        }
+        return result;
+    }
+
+    @Override
+    public final int length() {
+        return size(this.root);
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Sequence5Iterator();
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * This takes O(log |this|) expected time.
+     * </p>
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T entry(int pos) {
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos < this.length() : "Violation of: pos < |this|";
+
+        int[] offset = new int[1];
+        return (T) this.find(pos, offset).chunk[offset[0]];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * This takes O(log |this|) expected time.
+     * </p>
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public final T replaceEntry(int pos, T x) {
+        assert x != null : "Violation of: x is not null";
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos < this.length() : "Violation of: pos < |this|";
+
+        int[] offset = new int[1];
+        Node n = this.find(pos, offset);
+        T result = (T) n.chunk[offset[0]];
+        n.chunk[offset[0]] = x;
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * When {@code s} is a {@code Sequence5}, this takes O(log(|this| + |s|))
+     * expected time.
+     * </p>
+     */
+    @Override
+    public final void append(Sequence<T> s) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+
+        if (s instanceof Sequence5<?>) {
+            /*
+             * This cast cannot fail since s is of dynamic type Sequence5<?>,
+             * and the ? must be T or the call would not have compiled.
+             */
+            Sequence5<T> other = (Sequence5<T>) s;
+            this.root = join(this.root, other.root);
+            other.createNewRep();
+        } else {
+            super.append(s);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * When {@code s} is a {@code Sequence5}, this takes O(log(|this| + |s|))
+     * expected time.
+     * </p>
+     */
+    @Override
+    public final void insert(int pos, Sequence<T> s) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos <= this.length() : "Violation of: pos <= |this|";
+
+        if (s instanceof Sequence5<?>) {
+            /*
+             * This cast cannot fail since s is of dynamic type Sequence5<?>,
+             * and the ? must be T or the call would not have compiled.
+             */
+            Sequence5<T> other = (Sequence5<T>) s;
+            Node[] halves = split(this.root, pos);
+            this.root = join(join(halves[0], other.root), halves[1]);
+            other.createNewRep();
+        } else {
+            super.insert(pos, s);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * When {@code s} is a {@code Sequence5}, this takes O(log |this|)
+     * expected time.
+     * </p>
+     */
+    @Override
+    public final void extract(int pos1, int pos2, Sequence<T> s) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+        assert 0 <= pos1 : "Violation of: 0 <= pos1";
+        assert pos1 <= pos2 : "Violation of: pos1 <= pos2";
+        assert pos2 <= this.length() : "Violation of: pos2 <= |this|";
+
+        if (s instanceof Sequence5<?>) {
+            /*
+             * This cast cannot fail since s is of dynamic type Sequence5<?>,
+             * and the ? must be T or the call would not have compiled.
+             */
+            Sequence5<T> other = (Sequence5<T>) s;
+            Node[] head = split(this.root, pos1);
+            Node[] middle = split(join(null, head[1]), pos2 - pos1);
+            this.root = join(head[0], middle[1]);
+            other.root = join(middle[0], null);
+        } else {
+            super.extract(pos1, pos2, s);
+        }
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Sequence5}: an
+     * in-order traversal of the nodes, with an explicit stack of the
+     * ancestors still to be visited, and of the entries of each node's chunk.
+     */
+    private final class Sequence5Iterator implements Iterator<T> {
+
+        /**
+         * Initial capacity of {@code path}.
+         */
+        private static final int INITIAL_DEPTH = 32;
+
+        /**
+         * Nodes still to be visited, each before all of its right subtree, in
+         * positions [0, depth).
+         */
+        private Node[] path;
+
+        /**
+         * Number of nodes on {@code path}.
+         */
+        private int depth;
+
+        /**
+         * Node whose entries are being returned, or {@code null} when there
+         * are no more entries.
+         */
+        private Node current;
+
+        /**
+         * Offset in {@code current}'s chunk of the next entry.
+         */
+        private int offset;
+
+        /**
+         * No-argument constructor.
+         */
+        Sequence5Iterator() {
+            this.path = new Node[INITIAL_DEPTH];
+            this.depth = 0;
+            this.pushLeftSpine(Sequence5.this.root);
+            this.advance();
+        }
+
+        /**
+         * Pushes {@code n} and its chain of left descendants on {@code path}.
+         *
+         * @param n
+         *            the top of the chain, or null
+         */
+        private void pushLeftSpine(Node n) {
+            Node m = n;
+            while (m != null) {
+                if (this.depth == this.path.length) {
+                    this.path = Arrays.copyOf(this.path, 2 * this.depth);
+                }
+                this.path[this.depth] = m;
+                this.depth++;
+                m = m.left;
+            }
+        }
+
+        /**
+         * Makes {@code current} the next node in in-order, or {@code null} if
+         * there is none.
+         */
+        private void advance() {
+            this.current = null;
+            this.offset = 0;
+            if (this.depth > 0) {
+                this.depth--;
+                this.current = this.path[this.depth];
+                this.path[this.depth] = null;
+                this.pushLeftSpine(this.current.right);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current != null;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = (T) this.current.chunk[this.offset];
+            this.offset++;
+            if (this.offset == this.current.count) {
+                this.advance();
+            }
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
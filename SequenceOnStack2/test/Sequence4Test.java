@@ -0,0 +1,46 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.sequence.Sequence;
+import components.sequence.Sequence1L;
+
+/**
+ * Customized JUnit test fixture for {@code Sequence4}.
+ */
+public class Sequence4Test extends SequenceTest {
+
+    @Override
+    protected final Sequence<String> constructorTest() {
+        return new Sequence4<String>();
+    }
+
+    @Override
+    protected final Sequence<String> constructorRef() {
+        return new Sequence1L<String>();
+    }
+
+    /**
+     * Tests entry and replaceEntry on both sides of the gap.
+     */
+    @Test
+    public final void testEntryAndReplaceEntry() {
+        Sequence<String> test = this.constructorTest();
+        Sequence<String> expected = this.constructorRef();
+        for (String s : new String[] { "a", "b", "c", "d", "e" }) {
+            test.add(test.length(), s);
+            expected.add(expected.length(), s);
+        }
+        test.remove(2);
+        expected.remove(2);
+        for (int i = 0; i < test.length(); i++) {
+            assertEquals(expected.entry(i), test.entry(i));
+        }
+        assertEquals("a", test.replaceEntry(0, "A"));
+        assertEquals("e", test.replaceEntry(3, "E"));
+        expected.replaceEntry(0, "A");
+        expected.replaceEntry(3, "E");
+        assertEquals(expected, test);
+    }
+
+}
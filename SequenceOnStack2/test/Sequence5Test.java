@@ -0,0 +1,167 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import components.sequence.Sequence;
+import components.sequence.Sequence1L;
+
+/**
+ * Customized JUnit test fixture for {@code Sequence5}.
+ */
+public class Sequence5Test extends SequenceTest {
+
+    /**
+     * Number of entries used by the tests with many entries; several chunks'
+     * worth.
+     */
+    private static final int MANY = 1000;
+
+    @Override
+    protected final Sequence<String> constructorTest() {
+        return new Sequence5<String>();
+    }
+
+    @Override
+    protected final Sequence<String> constructorRef() {
+        return new Sequence1L<String>();
+    }
+
+    /**
+     * Adds entries {@code prefix + 0}, ..., {@code prefix + (n - 1)} to the
+     * end of {@code s}.
+     *
+     * @param s
+     *            the sequence
+     * @param prefix
+     *            the prefix of the entries
+     * @param n
+     *            the number of entries
+     * @updates s
+     */
+    private static void fill(Sequence<String> s, String prefix, int n) {
+        for (int i = 0; i < n; i++) {
+            s.add(s.length(), prefix + i);
+        }
+    }
+
+    /**
+     * Tests entry and replaceEntry across many chunks.
+     */
+    @Test
+    public final void testEntryAndReplaceEntry() {
+        Sequence<String> test = this.constructorTest();
+        Sequence<String> expected = this.constructorRef();
+        fill(test, "e", MANY);
+        fill(expected, "e", MANY);
+        for (int i = 0; i < MANY; i += 7) {
+            assertEquals(expected.entry(i), test.entry(i));
+            assertEquals(expected.replaceEntry(i, "r" + i),
+                    test.replaceEntry(i, "r" + i));
+        }
+        assertEquals(expected, test);
+    }
+
+    /**
+     * Tests the splitting and merging append, insert and extract.
+     */
+    @Test
+    public final void testAppendInsertExtract() {
+        Sequence<String> test = this.constructorTest();
+        Sequence<String> expected = this.constructorRef();
+        fill(test, "a", MANY);
+        fill(expected, "a", MANY);
+
+        Sequence<String> s = this.constructorTest();
+        Sequence<String> sExpected = this.constructorRef();
+        fill(s, "b", MANY / 2);
+        fill(sExpected, "b", MANY / 2);
+        test.append(s);
+        expected.append(sExpected);
+        assertEquals(expected, test);
+        assertEquals(sExpected, s);
+
+        fill(s, "c", MANY / 3);
+        fill(sExpected, "c", MANY / 3);
+        test.insert(MANY / 3, s);
+        expected.insert(MANY / 3, sExpected);
+        assertEquals(expected, test);
+        assertEquals(sExpected, s);
+
+        test.extract(MANY / 5, MANY + MANY / 7, s);
+        expected.extract(MANY / 5, MANY + MANY / 7, sExpected);
+        assertEquals(expected, test);
+        assertEquals(sExpected, s);
+        assertEquals(expected.length(), test.length());
+    }
+
+    /**
+     * Tests append, insert and extract with a {@code Sequence} of another
+     * implementation.
+     */
+    @Test
+    public final void testBulkOperationsOther() {
+        Sequence<String> test = this.constructorTest();
+        Sequence<String> expected = this.constructorRef();
+        fill(test, "a", MANY);
+        fill(expected, "a", MANY);
+        Sequence<String> s = this.constructorRef();
+        Sequence<String> sExpected = this.constructorRef();
+
+        fill(s, "b", MANY / 4);
+        fill(sExpected, "b", MANY / 4);
+        test.insert(MANY / 2, s);
+        expected.insert(MANY / 2, sExpected);
+        test.extract(MANY / 3, MANY / 2, s);
+        expected.extract(MANY / 3, MANY / 2, sExpected);
+        assertEquals(expected, test);
+        assertEquals(sExpected, s);
+    }
+
+    /**
+     * Tests a long random mix of add, remove, insert and extract in the
+     * middle of the sequence, which splits and refills chunks, comparing with
+     * the reference implementation after every step.
+     */
+    @Test
+    public final void testRandomEdits() {
+        final int steps = 4000;
+        final int kinds = 4;
+        final int maxBlock = 150;
+        Random rnd = new Random(2231);
+        Sequence<String> test = this.constructorTest();
+        Sequence<String> expected = this.constructorRef();
+        fill(test, "a", MANY);
+        fill(expected, "a", MANY);
+        for (int step = 0; step < steps; step++) {
+            int pos = rnd.nextInt(expected.length() + 1);
+            int kind = rnd.nextInt(kinds);
+            if (kind == 0 || expected.length() == 0) {
+                test.add(pos, "n" + step);
+                expected.add(pos, "n" + step);
+            } else if (kind == 1) {
+                pos = Math.min(pos, expected.length() - 1);
+                assertEquals(expected.remove(pos), test.remove(pos));
+            } else if (kind == 2) {
+                Sequence<String> s = this.constructorTest();
+                Sequence<String> sExpected = this.constructorRef();
+                int n = rnd.nextInt(maxBlock);
+                fill(s, "i" + step + ".", n);
+                fill(sExpected, "i" + step + ".", n);
+                test.insert(pos, s);
+                expected.insert(pos, sExpected);
+            } else {
+                int end = Math.min(expected.length(),
+                        pos + rnd.nextInt(maxBlock));
+                Sequence<String> s = this.constructorTest();
+                Sequence<String> sExpected = this.constructorRef();
+                test.extract(pos, end, s);
+                expected.extract(pos, end, sExpected);
+                assertEquals(sExpected, s);
+            }
+            assertEquals(expected, test);
+        }
+    }
+
+}
@@ -77,15 +77,18 @@ public abstract class SequenceTest {
     @Test
     public void testAdd() {
         Sequence<String> sequence = this.createFromArgsTest("A", "B", "C");
+        Sequence<String> expected = this.createFromArgsRef("A", "X", "B", "C");
         sequence.add(1, "X");
-        assertEquals("AXBC", sequence.toString());
+        assertEquals(expected, sequence);
     }
 
     @Test
     public void testRemove() {
         Sequence<String> sequence = this.createFromArgsTest("A", "B", "C");
-        sequence.remove(1);
-        assertEquals("AC", sequence.toString());
+        Sequence<String> expected = this.createFromArgsRef("A", "C");
+        String removed = sequence.remove(1);
+        assertEquals("B", removed);
+        assertEquals(expected, sequence);
     }
 
     @Test
@@ -94,4 +97,29 @@ public abstract class SequenceTest {
         assertEquals(3, sequence.length());
     }
 
+    /**
+     * Tests adds and removes at scattered positions against the reference
+     * implementation.
+     */
+    @Test
+    public void testScatteredEdits() {
+        final int n = 500;
+        final int step = 37;
+        Sequence<String> sequence = this.constructorTest();
+        Sequence<String> expected = this.constructorRef();
+        int pos = 0;
+        for (int i = 0; i < n; i++) {
+            pos = (pos + step) % (sequence.length() + 1);
+            sequence.add(pos, "e" + i);
+            expected.add(pos, "e" + i);
+        }
+        assertEquals(expected, sequence);
+        for (int i = 0; i < n / 2; i++) {
+            pos = (pos + step) % sequence.length();
+            assertEquals(expected.remove(pos), sequence.remove(pos));
+        }
+        assertEquals(expected, sequence);
+        assertEquals(expected.length(), sequence.length());
+    }
+
 }
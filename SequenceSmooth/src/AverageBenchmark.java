@@ -0,0 +1,211 @@
+import java.util.Random;
+
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Compares the throughput of pairwise smoothing loops over primitive arrays:
+ * the overflowing {@code (a + b) / 2}, the overflow-free averages computed by
+ * widening to {@code long} (for {@code int}s only) and by the bitwise
+ * floor-and-correct form, and the {@code SequenceSmooth.smooth} kernels,
+ * which use the fastest overflow-free form of each type. Each line reports
+ * the fastest time per average and the corresponding millions of averages
+ * per second.
+ *
+ * <p>
+ * Usage: {@code AverageBenchmark [n]}; the default is 10^6 entries,
+ * which keeps the arrays within the caches of most machines. Running with
+ * {@code -XX:-UseSuperWord} turns off the JIT's auto-vectorization, to check
+ * whether a loop gains from it.
+ * </p>
+ *
+ * @author Yuting Che
+ *
+ */
+public final class AverageBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private AverageBenchmark() {
+    }
+
+    /**
+     * Default number of entries.
+     */
+    private static final int DEFAULT_ENTRIES = 1_000_000;
+
+    /**
+     * Number of untimed rounds before timing; enough for the JIT to compile
+     * the loops.
+     */
+    private static final int WARMUP_ROUNDS = 20;
+
+    /**
+     * Number of timed rounds; the fastest is reported.
+     */
+    private static final int TIMED_ROUNDS = 10;
+
+    /**
+     * Seed of the entries.
+     */
+    private static final long SEED = 2231;
+
+    /**
+     * Millions of averages per second at one average per nanosecond.
+     */
+    private static final double MILLIONS_PER_NANO = 1e3;
+
+    /**
+     * Sink for results so the JIT cannot discard the timed loops.
+     */
+    private static long sink;
+
+    /**
+     * Loops the benchmark can time.
+     */
+    private enum Loop {
+        /**
+         * {@code (a + b) / 2} on {@code int}s.
+         */
+        INT_NAIVE("int (a+b)/2"),
+        /**
+         * {@code (int) (((long) a + b) / 2)}.
+         */
+        INT_WIDENED("int via long"),
+        /**
+         * The bitwise floor of the average, corrected toward zero, on
+         * {@code int}s.
+         */
+        INT_BITWISE("int bitwise"),
+        /**
+         * {@code SequenceSmooth.smooth(int[], int[])}.
+         */
+        INT_KERNEL("int kernel"),
+        /**
+         * {@code (a + b) / 2} on {@code long}s.
+         */
+        LONG_NAIVE("long (a+b)/2"),
+        /**
+         * {@code SequenceSmooth.smooth(long[], long[])}.
+         */
+        LONG_KERNEL("long kernel");
+
+        /**
+         * The name reported.
+         */
+        private final String label;
+
+        /**
+         * Constructor.
+         *
+         * @param label
+         *            the name reported
+         */
+        Loop(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Runs {@code loop} once over the entries.
+     *
+     * @param loop
+     *            the loop to run
+     * @param ints
+     *            the int entries
+     * @param intOut
+     *            the int averages
+     * @param longs
+     *            the long entries
+     * @param longOut
+     *            the long averages
+     * @updates intOut, longOut
+     * @requires |ints| = |intOut| + 1 = |longs| = |longOut| + 1
+     */
+    private static void run(Loop loop, int[] ints, int[] intOut, long[] longs,
+            long[] longOut) {
+        switch (loop) {
+            case INT_NAIVE:
+                for (int i = 0; i < intOut.length; i++) {
+                    intOut[i] = (ints[i] + ints[i + 1]) / 2;
+                }
+                break;
+            case INT_WIDENED:
+                for (int i = 0; i < intOut.length; i++) {
+                    intOut[i] = (int) (((long) ints[i] + ints[i + 1]) / 2);
+                }
+                break;
+            case INT_BITWISE:
+                for (int i = 0; i < intOut.length; i++) {
+                    int a = ints[i];
+                    int b = ints[i + 1];
+                    int floor = (a & b) + ((a ^ b) >> 1);
+                    intOut[i] = floor
+                            + ((floor >>> (Integer.SIZE - 1)) & (a ^ b));
+                }
+                break;
+            case INT_KERNEL:
+                SequenceSmooth.smooth(ints, intOut);
+                break;
+            case LONG_NAIVE:
+                for (int i = 0; i < longOut.length; i++) {
+                    longOut[i] = (longs[i] + longs[i + 1]) / 2;
+                }
+                break;
+            default:
+                SequenceSmooth.smooth(longs, longOut);
+                break;
+        }
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            optional number of entries
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+
+        int n = DEFAULT_ENTRIES;
+        if (args.length > 0) {
+            n = Integer.parseInt(args[0]);
+        }
+        Random rnd = new Random(SEED);
+        int[] ints = new int[n];
+        long[] longs = new long[n];
+        for (int i = 0; i < n; i++) {
+            ints[i] = rnd.nextInt();
+            longs[i] = rnd.nextLong();
+        }
+        int[] intOut = new int[n - 1];
+        long[] longOut = new long[n - 1];
+
+        out.println(n + " entries");
+        out.println(String.format("%-14s %10s %12s", "loop", "ns/avg",
+                "M avg/s"));
+        for (Loop loop : Loop.values()) {
+            long best = Long.MAX_VALUE;
+            for (int r = 0; r < WARMUP_ROUNDS + TIMED_ROUNDS; r++) {
+                long start = System.nanoTime();
+                run(loop, ints, intOut, longs, longOut);
+                long time = System.nanoTime() - start;
+                sink += intOut[r % intOut.length]
+                        + longOut[r % longOut.length];
+                if (r >= WARMUP_ROUNDS) {
+                    best = Math.min(best, time);
+                }
+            }
+            double perAverage = (double) best / (n - 1);
+            out.println(String.format("%-14s %10.3f %12.1f", loop.label,
+                    perAverage, MILLIONS_PER_NANO / perAverage));
+        }
+        if (sink == 1) {
+            out.println();
+        }
+
+        out.close();
+    }
+
+}
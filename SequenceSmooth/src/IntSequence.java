@@ -0,0 +1,248 @@
+import java.util.Arrays;
+
+/**
+ * Sequence of {@code int}s kept unboxed in a growable array. It offers the
+ * kernel operations of {@code Sequence<Integer>} without allocating an
+ * {@code Integer} per entry, so numeric code such as the smoothing kernels in
+ * {@code SequenceSmooth} can run over its entries at memory bandwidth.
+ *
+ * @convention <pre>
+ * 0 <= $this.length <= |$this.entries|
+ * </pre>
+ * @correspondence this = $this.entries[0, $this.length)
+ *
+ * @author Yuting Che
+ *
+ */
+public final class IntSequence {
+
+    /**
+     * Default initial capacity.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Entries, in positions [0, length).
+     */
+    private int[] entries;
+
+    /**
+     * Number of entries.
+     */
+    private int length;
+
+    /**
+     * No-argument constructor.
+     */
+    public IntSequence() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor with room for {@code capacity} entries before the array
+     * has to grow.
+     *
+     * @param capacity
+     *            the initial capacity
+     * @requires capacity >= 0
+     * @ensures this = <>
+     */
+    public IntSequence(int capacity) {
+        assert capacity >= 0 : "Violation of: capacity >= 0";
+
+        this.entries = new int[capacity];
+        this.length = 0;
+    }
+
+    /**
+     * Makes the array hold at least {@code capacity} entries.
+     *
+     * @param capacity
+     *            the capacity needed
+     * @updates $this.entries
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > this.entries.length) {
+            this.entries = Arrays.copyOf(this.entries,
+                    Math.max(capacity, 2 * this.entries.length));
+        }
+    }
+
+    /**
+     * Resets {@code this} to an empty sequence, keeping its capacity.
+     *
+     * @clears this
+     */
+    public void clear() {
+        this.length = 0;
+    }
+
+    /**
+     * Adds {@code x} at position {@code pos} of {@code this}.
+     *
+     * @param pos
+     *            the position at which to add
+     * @param x
+     *            the entry to be added
+     * @updates this
+     * @requires 0 <= pos <= |this|
+     * @ensures this = #this[0, pos) * <x> * #this[pos, |#this|)
+     */
+    public void add(int pos, int x) {
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos <= this.length : "Violation of: pos <= |this|";
+
+        this.ensureCapacity(this.length + 1);
+        System.arraycopy(this.entries, pos, this.entries, pos + 1,
+                this.length - pos);
+        this.entries[pos] = x;
+        this.length++;
+    }
+
+    /**
+     * Removes and returns the entry at position {@code pos} of {@code this}.
+     *
+     * @param pos
+     *            the position at which to remove
+     * @return the entry removed
+     * @updates this
+     * @requires 0 <= pos < |this|
+     * @ensures <pre>
+     * this = #this[0, pos) * #this[pos + 1, |#this|)  and
+     * <remove> = #this[pos, pos + 1)
+     * </pre>
+     */
+    public int remove(int pos) {
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos < this.length : "Violation of: pos < |this|";
+
+        int result = this.entries[pos];
+        System.arraycopy(this.entries, pos + 1, this.entries, pos,
+                this.length - pos - 1);
+        this.length--;
+        return result;
+    }
+
+    /**
+     * Reports the length of {@code this}.
+     *
+     * @return the length of this
+     * @ensures length = |this|
+     */
+    public int length() {
+        return this.length;
+    }
+
+    /**
+     * Reports the entry at position {@code pos} of {@code this}.
+     *
+     * @param pos
+     *            the position of the entry
+     * @return the entry at position pos
+     * @requires 0 <= pos < |this|
+     * @ensures <entry> = this[pos, pos + 1)
+     */
+    public int entry(int pos) {
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos < this.length : "Violation of: pos < |this|";
+
+        return this.entries[pos];
+    }
+
+    /**
+     * Replaces the entry at position {@code pos} of {@code this} by
+     * {@code x}, and returns the old entry.
+     *
+     * @param pos
+     *            the position of the entry
+     * @param x
+     *            the new entry
+     * @return the old entry
+     * @updates this
+     * @requires 0 <= pos < |this|
+     * @ensures <pre>
+     * <replaceEntry> = #this[pos, pos + 1)  and
+     * this = #this[0, pos) * <x> * #this[pos + 1, |#this|)
+     * </pre>
+     */
+    public int replaceEntry(int pos, int x) {
+        assert 0 <= pos : "Violation of: 0 <= pos";
+        assert pos < this.length : "Violation of: pos < |this|";
+
+        int result = this.entries[pos];
+        this.entries[pos] = x;
+        return result;
+    }
+
+    /**
+     * Makes {@code |this| = n}, growing the array if needed, and returns the
+     * array holding the entries, for kernels that fill {@code this} in place.
+     * Entries at positions at or beyond {@code |#this|} are unspecified until
+     * written.
+     *
+     * @param n
+     *            the new length
+     * @return the array whose positions [0, n) hold this
+     * @aliases reference returned
+     * @updates this
+     * @requires n >= 0
+     * @ensures <pre>
+     * |this| = n  and
+     * this[0, min(n, |#this|)) = #this[0, min(n, |#this|))
+     * </pre>
+     */
+    int[] reserve(int n) {
+        assert n >= 0 : "Violation of: n >= 0";
+
+        this.ensureCapacity(n);
+        this.length = n;
+        return this.entries;
+    }
+
+    /**
+     * Returns the array holding the entries of {@code this}, in positions [0,
+     * |this|), for kernels that read {@code this} in place.
+     *
+     * @return the array whose positions [0, |this|) hold this
+     * @aliases reference returned
+     */
+    int[] array() {
+        return this.entries;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        boolean result = obj == this;
+        if (!result && obj instanceof IntSequence) {
+            IntSequence other = (IntSequence) obj;
+            result = this.length == other.length;
+            for (int i = 0; result && i < this.length; i++) {
+                result = this.entries[i] == other.entries[i];
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int hashCode() {
+        final int multiplier = 31;
+        int result = 1;
+        for (int i = 0; i < this.length; i++) {
+            result = multiplier * result + this.entries[i];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("<");
+        for (int i = 0; i < this.length; i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+            result.append(this.entries[i]);
+        }
+        return result.append('>').toString();
+    }
+
+}
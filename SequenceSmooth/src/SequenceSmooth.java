@@ -1,3 +1,7 @@
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import components.sequence.Sequence;
 
 /**
@@ -14,6 +18,13 @@ public final class SequenceSmooth {
     private SequenceSmooth() {
     }
 
+    /**
+     * Largest number of averages a parallel smoothing task computes itself
+     * instead of splitting; big enough that forking costs little next to
+     * the loop.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
     /**
      * Smooths a given {@code Sequence<Integer>}.
      *
@@ -43,13 +54,52 @@ public final class SequenceSmooth {
         for (int i = 0; i < s1.length() - 1; i++) {
             int a = s1.entry(i);
             int b = s1.entry(i + 1);
-            int avg = (a + b) / 2;
+            int avg = average(a, b);
             s2.add(i, avg);
 
         }
 
     }
 
+    /**
+     * Smooths a given {@code Sequence<Integer>} in one pass of an iterator
+     * over {@code s1}, appending each average to {@code s2}. Unlike
+     * {@code smoothIterative}, this never calls {@code entry}, so it takes
+     * linear time whatever the implementation of {@code s1}, as long as
+     * appending to {@code s2} takes constant time.
+     *
+     * @param s1
+     *            the sequence to smooth
+     * @param s2
+     *            the resulting sequence
+     * @replaces s2
+     * @requires |s1| >= 1
+     * @ensures <pre>
+     * |s2| = |s1| - 1  and
+     *  for all i, j: integer, a, b: string of integer
+     *      where (s1 = a * <i> * <j> * b)
+     *    (there exists c, d: string of integer
+     *       (|c| = |a|  and
+     *        s2 = c * <(i+j)/2> * d))
+     * </pre>
+     */
+    public static void smoothBulk(Sequence<Integer> s1,
+            Sequence<Integer> s2) {
+        assert s1 != null : "Violation of: s1 is not null";
+        assert s2 != null : "Violation of: s2 is not null";
+        assert s1 != s2 : "Violation of: s1 is not s2";
+        assert s1.length() >= 1 : "Violation of: |s1| >= 1";
+
+        s2.clear();
+        Iterator<Integer> it = s1.iterator();
+        int a = it.next();
+        while (it.hasNext()) {
+            int b = it.next();
+            s2.add(s2.length(), average(a, b));
+            a = b;
+        }
+    }
+
     public static void smooth(Sequence<Integer> s1, Sequence<Integer> s2) {
         assert s1 != null : "Violation of: s1 is not null";
         assert s2 != null : "Violation of: s2 is not null";
@@ -61,7 +111,7 @@ public final class SequenceSmooth {
             int a = s1.remove(0);
             int b = s1.remove(0);
             s1.add(0, b);
-            int avg = (a + b) / 2;
+            int avg = average(a, b);
 
             smooth(s1, s2);
             s2.add(0, avg);
@@ -73,4 +123,536 @@ public final class SequenceSmooth {
 //            s2.remove(0);
 //        }
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the average of {@code a} and {@code b}, rounded toward zero like
+     * {@code (a + b) / 2} but without overflowing: the sum is taken in
+     * {@code long}, where it cannot overflow. Of the overflow-free forms
+     * measured, this is the fastest in a loop, but it is still slower than the
+     * overflowing {@code (a + b) / 2}, which the JIT can vectorize (see
+     * {@code AverageBenchmark}).
+     *
+     * @param a
+     *            the first value
+     * @param b
+     *            the second value
+     * @return the average of a and b
+     * @ensures average = [a + b, computed without overflow] / 2
+     */
+    public static int average(int a, int b) {
+        return (int) (((long) a + b) / 2);
+    }
+
+    /**
+     * Returns the average of {@code a} and {@code b}, rounded toward zero like
+     * {@code (a + b) / 2} but without overflowing. There is no wider type to
+     * add in, so {@code (a & b) + ((a ^ b) >> 1)} computes the floor of the
+     * exact average (the shared bits plus half the differing ones); when that
+     * is negative and the sum is odd, the 1 in the last bit of {@code a ^ b}
+     * moves it up to the truncated average. This beats the overflow-free
+     * alternatives measured (a branch on overflow, halving each operand), but
+     * a loop of it is still slower than the overflowing {@code (a + b) / 2}
+     * (see {@code AverageBenchmark}).
+     *
+     * @param a
+     *            the first value
+     * @param b
+     *            the second value
+     * @return the average of a and b
+     * @ensures average = [a + b, computed without overflow] / 2
+     */
+    public static long average(long a, long b) {
+        long floor = (a & b) + ((a ^ b) >> 1);
+        return floor + ((floor >>> (Long.SIZE - 1)) & (a ^ b));
+    }
+
+    /**
+     * Puts in {@code out[from, to)} the averages of the adjacent pairs of
+     * entries of {@code in} starting at positions [from, to).
+     *
+     * @param in
+     *            the entries to smooth
+     * @param out
+     *            the averages
+     * @param from
+     *            the first position
+     * @param to
+     *            the position after the last
+     * @updates out
+     * @requires 0 <= from <= to < |in|  and  to <= |out|
+     * @ensures <pre>
+     * for all i: integer where (from <= i < to)
+     *   (out[i] = [in[i] + in[i+1], computed without overflow] / 2)
+     * </pre>
+     */
+    private static void smoothRange(int[] in, int[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[i] = average(in[i], in[i + 1]);
+        }
+    }
+
+    /**
+     * Puts in {@code out[from, to)} the averages of the adjacent pairs of
+     * entries of {@code in} starting at positions [from, to).
+     *
+     * @param in
+     *            the entries to smooth
+     * @param out
+     *            the averages
+     * @param from
+     *            the first position
+     * @param to
+     *            the position after the last
+     * @updates out
+     * @requires 0 <= from <= to < |in|  and  to <= |out|
+     * @ensures <pre>
+     * for all i: integer where (from <= i < to)
+     *   (out[i] = [in[i] + in[i+1], computed without overflow] / 2)
+     * </pre>
+     */
+    private static void smoothRange(long[] in, long[] out, int from,
+            int to) {
+        for (int i = from; i < to; i++) {
+            out[i] = average(in[i], in[i + 1]);
+        }
+    }
+
+    /**
+     * Puts in {@code out} the averages of the adjacent pairs of entries of
+     * {@code in}, without overflowing, in a plain pass over the two arrays.
+     *
+     * @param in
+     *            the entries to smooth
+     * @param out
+     *            the averages
+     * @updates out
+     * @requires 1 <= |in|  and  |in| - 1 <= |out|
+     * @ensures <pre>
+     * out[0, |in| - 1) = [the averages of the adjacent pairs of entries of
+     *   in, computed without overflow]  and
+     * out[|in| - 1, |out|) = #out[|in| - 1, |out|)
+     * </pre>
+     */
+    public static void smooth(int[] in, int[] out) {
+        assert in != null : "Violation of: in is not null";
+        assert out != null : "Violation of: out is not null";
+        assert 1 <= in.length : "Violation of: 1 <= |in|";
+        assert in.length - 1 <= out.length : ""
+                + "Violation of: |in| - 1 <= |out|";
+
+        smoothRange(in, out, 0, in.length - 1);
+    }
+
+    /**
+     * Puts in {@code out} the averages of the adjacent pairs of entries of
+     * {@code in}, without overflowing; see {@code smooth(int[], int[])}.
+     *
+     * @param in
+     *            the entries to smooth
+     * @param out
+     *            the averages
+     * @updates out
+     * @requires 1 <= |in|  and  |in| - 1 <= |out|
+     * @ensures <pre>
+     * out[0, |in| - 1) = [the averages of the adjacent pairs of entries of
+     *   in, computed without overflow]  and
+     * out[|in| - 1, |out|) = #out[|in| - 1, |out|)
+     * </pre>
+     */
+    public static void smooth(long[] in, long[] out) {
+        assert in != null : "Violation of: in is not null";
+        assert out != null : "Violation of: out is not null";
+        assert 1 <= in.length : "Violation of: 1 <= |in|";
+        assert in.length - 1 <= out.length : ""
+                + "Violation of: |in| - 1 <= |out|";
+
+        smoothRange(in, out, 0, in.length - 1);
+    }
+
+    /**
+     * Smooths a given {@code IntSequence}, without allocating once {@code s2}
+     * has room for the result.
+     *
+     * @param s1
+     *            the sequence to smooth
+     * @param s2
+     *            the resulting sequence
+     * @replaces s2
+     * @requires |s1| >= 1
+     * @ensures <pre>
+     * |s2| = |s1| - 1  and
+     *  for all i, j: integer, a, b: string of integer
+     *      where (s1 = a * <i> * <j> * b)
+     *    (there exists c, d: string of integer
+     *       (|c| = |a|  and
+     *        s2 = c * <(i+j)/2> * d))
+     * </pre>
+     */
+    public static void smooth(IntSequence s1, IntSequence s2) {
+        assert s1 != null : "Violation of: s1 is not null";
+        assert s2 != null : "Violation of: s2 is not null";
+        assert s1 != s2 : "Violation of: s1 is not s2";
+        assert s1.length() >= 1 : "Violation of: |s1| >= 1";
+
+        int n = s1.length() - 1;
+        smoothRange(s1.array(), s2.reserve(n), 0, n);
+    }
+
+    /**
+     * Smooths a given {@code LongSequence}, without allocating once
+     * {@code s2} has room for the result.
+     *
+     * @param s1
+     *            the sequence to smooth
+     * @param s2
+     *            the resulting sequence
+     * @replaces s2
+     * @requires |s1| >= 1
+     * @ensures <pre>
+     * |s2| = |s1| - 1  and
+     *  for all i, j: integer, a, b: string of integer
+     *      where (s1 = a * <i> * <j> * b)
+     *    (there exists c, d: string of integer
+     *       (|c| = |a|  and
+     *        s2 = c * <(i+j)/2> * d))
+     * </pre>
+     */
+    public static void smooth(LongSequence s1, LongSequence s2) {
+        assert s1 != null : "Violation of: s1 is not null";
+        assert s2 != null : "Violation of: s2 is not null";
+        assert s1 != s2 : "Violation of: s1 is not s2";
+        assert s1.length() >= 1 : "Violation of: |s1| >= 1";
+
+        int n = s1.length() - 1;
+        smoothRange(s1.array(), s2.reserve(n), 0, n);
+    }
+
+    /**
+     * Replaces {@code s2} by the moving averages of {@code s1} over windows
+     * of {@code window} consecutive entries, keeping a running sum so each
+     * average costs O(1) whatever the window size, and without allocating
+     * once {@code s2} has room for the result.
+     *
+     * @param s1
+     *            the sequence to average
+     * @param window
+     *            the number of entries in each window
+     * @param s2
+     *            the resulting sequence
+     * @replaces s2
+     * @requires 1 <= window <= |s1|
+     * @ensures <pre>
+     * |s2| = |s1| - window + 1  and
+     *  for all i: integer where (0 <= i < |s2|)
+     *    (s2[i] = [sum of s1[i, i + window)] / window)
+     * </pre>
+     */
+    public static void movingAverage(IntSequence s1, int window,
+            IntSequence s2) {
+        assert s1 != null : "Violation of: s1 is not null";
+        assert s2 != null : "Violation of: s2 is not null";
+        assert s1 != s2 : "Violation of: s1 is not s2";
+        assert 1 <= window : "Violation of: 1 <= window";
+        assert window <= s1.length() : "Violation of: window <= |s1|";
+
+        int n = s1.length() - window + 1;
+        int[] in = s1.array();
+        int[] out = s2.reserve(n);
+        long sum = 0;
+        for (int i = 0; i < window - 1; i++) {
+            sum += in[i];
+        }
+        for (int i = 0; i < n; i++) {
+            sum += in[i + window - 1];
+            out[i] = (int) (sum / window);
+            sum -= in[i];
+        }
+    }
+
+    /**
+     * Replaces {@code s2} by the moving averages of {@code s1} over windows
+     * of {@code window} consecutive entries, keeping a running sum so each
+     * average costs O(1) whatever the window size, and without allocating
+     * once {@code s2} has room for the result.
+     *
+     * @param s1
+     *            the sequence to average
+     * @param window
+     *            the number of entries in each window
+     * @param s2
+     *            the resulting sequence
+     * @replaces s2
+     * @requires <pre>
+     * 1 <= window <= |s1|  and
+     * [the sum of the entries of every window of s1 fits in a long]
+     * </pre>
+     * @ensures <pre>
+     * |s2| = |s1| - window + 1  and
+     *  for all i: integer where (0 <= i < |s2|)
+     *    (s2[i] = [sum of s1[i, i + window)] / window)
+     * </pre>
+     */
+    public static void movingAverage(LongSequence s1, int window,
+            LongSequence s2) {
+        assert s1 != null : "Violation of: s1 is not null";
+        assert s2 != null : "Violation of: s2 is not null";
+        assert s1 != s2 : "Violation of: s1 is not s2";
+        assert 1 <= window : "Violation of: 1 <= window";
+        assert window <= s1.length() : "Violation of: window <= |s1|";
+
+        int n = s1.length() - window + 1;
+        long[] in = s1.array();
+        long[] out = s2.reserve(n);
+        long sum = 0;
+        for (int i = 0; i < window - 1; i++) {
+            sum += in[i];
+        }
+        for (int i = 0; i < n; i++) {
+            sum += in[i + window - 1];
+            out[i] = sum / window;
+            sum -= in[i];
+        }
+    }
+
+    /**
+     * Task computing the averages at positions [from, to) of an
+     * {@code int[]}, splitting the range in halves until it is at most
+     * {@code PARALLEL_THRESHOLD} long. Each average reads only {@code in},
+     * so the halves share nothing but the read-only entry at their boundary.
+     */
+    private static final class IntSmoothTask extends RecursiveAction {
+
+        /**
+         * Serialization version, required of {@code RecursiveAction}s.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The entries to smooth.
+         */
+        private final int[] in;
+
+        /**
+         * The averages.
+         */
+        private final int[] out;
+
+        /**
+         * The first position.
+         */
+        private final int from;
+
+        /**
+         * The position after the last.
+         */
+        private final int to;
+
+        /**
+         * Constructor.
+         *
+         * @param in
+         *            the entries to smooth
+         * @param out
+         *            the averages
+         * @param from
+         *            the first position
+         * @param to
+         *            the position after the last
+         */
+        IntSmoothTask(int[] in, int[] out, int from, int to) {
+            this.in = in;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= PARALLEL_THRESHOLD) {
+                smoothRange(this.in, this.out, this.from, this.to);
+            } else {
+                int mid = (this.from + this.to) >>> 1;
+                invokeAll(new IntSmoothTask(this.in, this.out, this.from, mid),
+                        new IntSmoothTask(this.in, this.out, mid, this.to));
+            }
+        }
+
+    }
+
+    /**
+     * Task computing the averages at positions [from, to) of a
+     * {@code long[]}; see {@code IntSmoothTask}.
+     */
+    private static final class LongSmoothTask extends RecursiveAction {
+
+        /**
+         * Serialization version, required of {@code RecursiveAction}s.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The entries to smooth.
+         */
+        private final long[] in;
+
+        /**
+         * The averages.
+         */
+        private final long[] out;
+
+        /**
+         * The first position.
+         */
+        private final int from;
+
+        /**
+         * The position after the last.
+         */
+        private final int to;
+
+        /**
+         * Constructor.
+         *
+         * @param in
+         *            the entries to smooth
+         * @param out
+         *            the averages
+         * @param from
+         *            the first position
+         * @param to
+         *            the position after the last
+         */
+        LongSmoothTask(long[] in, long[] out, int from, int to) {
+            this.in = in;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= PARALLEL_THRESHOLD) {
+                smoothRange(this.in, this.out, this.from, this.to);
+            } else {
+                int mid = (this.from + this.to) >>> 1;
+                invokeAll(
+                        new LongSmoothTask(this.in, this.out, this.from, mid),
+                        new LongSmoothTask(this.in, this.out, mid, this.to));
+            }
+        }
+
+    }
+
+    /**
+     * Smooths a given {@code IntSequence} like {@code smooth}, splitting the
+     * work across the threads of {@code pool}.
+     *
+     * @param s1
+     *            the sequence to smooth
+     * @param s2
+     *            the resulting sequence
+     * @param pool
+     *            the pool running the work
+     * @replaces s2
+     * @requires |s1| >= 1
+     * @ensures <pre>
+     * |s2| = |s1| - 1  and
+     *  for all i, j: integer, a, b: string of integer
+     *      where (s1 = a * <i> * <j> * b)
+     *    (there exists c, d: string of integer
+     *       (|c| = |a|  and
+     *        s2 = c * <(i+j)/2> * d))
+     * </pre>
+     */
+    public static void smoothParallel(IntSequence s1, IntSequence s2,
+            ForkJoinPool pool) {
+        assert s1 != null : "Violation of: s1 is not null";
+        assert s2 != null : "Violation of: s2 is not null";
+        assert pool != null : "Violation of: pool is not null";
+        assert s1 != s2 : "Violation of: s1 is not s2";
+        assert s1.length() >= 1 : "Violation of: |s1| >= 1";
+
+        int n = s1.length() - 1;
+        pool.invoke(new IntSmoothTask(s1.array(), s2.reserve(n), 0, n));
+    }
+
+    /**
+     * Smooths a given {@code IntSequence} like {@code smooth}, splitting the
+     * work across the threads of the common fork-join pool.
+     *
+     * @param s1
+     *            the sequence to smooth
+     * @param s2
+     *            the resulting sequence
+     * @replaces s2
+     * @requires |s1| >= 1
+     * @ensures <pre>
+     * |s2| = |s1| - 1  and
+     *  for all i, j: integer, a, b: string of integer
+     *      where (s1 = a * <i> * <j> * b)
+     *    (there exists c, d: string of integer
+     *       (|c| = |a|  and
+     *        s2 = c * <(i+j)/2> * d))
+     * </pre>
+     */
+    public static void smoothParallel(IntSequence s1, IntSequence s2) {
+        smoothParallel(s1, s2, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Smooths a given {@code LongSequence} like {@code smooth}, splitting the
+     * work across the threads of {@code pool}.
+     *
+     * @param s1
+     *            the sequence to smooth
+     * @param s2
+     *            the resulting sequence
+     * @param pool
+     *            the pool running the work
+     * @replaces s2
+     * @requires |s1| >= 1
+     * @ensures <pre>
+     * |s2| = |s1| - 1  and
+     *  for all i, j: integer, a, b: string of integer
+     *      where (s1 = a * <i> * <j> * b)
+     *    (there exists c, d: string of integer
+     *       (|c| = |a|  and
+     *        s2 = c * <(i+j)/2> * d))
+     * </pre>
+     */
+    public static void smoothParallel(LongSequence s1, LongSequence s2,
+            ForkJoinPool pool) {
+        assert s1 != null : "Violation of: s1 is not null";
+        assert s2 != null : "Violation of: s2 is not null";
+        assert pool != null : "Violation of: pool is not null";
+        assert s1 != s2 : "Violation of: s1 is not s2";
+        assert s1.length() >= 1 : "Violation of: |s1| >= 1";
+
+        int n = s1.length() - 1;
+        pool.invoke(new LongSmoothTask(s1.array(), s2.reserve(n), 0, n));
+    }
+
+    /**
+     * Smooths a given {@code LongSequence} like {@code smooth}, splitting the
+     * work across the threads of the common fork-join pool.
+     *
+     * @param s1
+     *            the sequence to smooth
+     * @param s2
+     *            the resulting sequence
+     * @replaces s2
+     * @requires |s1| >= 1
+     * @ensures <pre>
+     * |s2| = |s1| - 1  and
+     *  for all i, j: integer, a, b: string of integer
+     *      where (s1 = a * <i> * <j> * b)
+     *    (there exists c, d: string of integer
+     *       (|c| = |a|  and
+     *        s2 = c * <(i+j)/2> * d))
+     * </pre>
+     */
+    public static void smoothParallel(LongSequence s1, LongSequence s2) {
+        smoothParallel(s1, s2, ForkJoinPool.commonPool());
+    }
+
+}
@@ -0,0 +1,194 @@
+import java.util.concurrent.ForkJoinPool;
+
+import components.sequence.Sequence;
+import components.sequence.Sequence1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Measures how {@code SequenceSmooth.smoothParallel} scales with the number
+ * of threads, against the sequential {@code smooth} on the same
+ * {@code IntSequence}. Each line reports the fastest time per entry and the
+ * speedup over the sequential {@code smooth}. The pool sizes are 1, 2, 4, ...
+ * up to the number of available processors, which is always included.
+ * {@code smoothIterative} on a {@code Sequence1L<Integer>} is timed too, but
+ * it calls {@code entry}, which may take time linear in the length of the
+ * sequence, so it is only run on the first {@code ITERATIVE_LIMIT} entries;
+ * its time per entry is reported on its own line, with its length, and is
+ * not comparable with the others.
+ *
+ * <p>
+ * Usage: {@code SmoothBenchmark [n]}; the default is 10^6 entries. Pairwise
+ * smoothing does little arithmetic per entry, so beyond a few threads the
+ * speedup is bounded by memory bandwidth rather than by the number of cores.
+ * </p>
+ *
+ * @author Yuting Che
+ *
+ */
+public final class SmoothBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private SmoothBenchmark() {
+    }
+
+    /**
+     * Default number of entries.
+     */
+    private static final int DEFAULT_ENTRIES = 1_000_000;
+
+    /**
+     * Largest number of entries {@code smoothIterative} is run with.
+     */
+    private static final int ITERATIVE_LIMIT = 20_000;
+
+    /**
+     * Number of untimed rounds before timing.
+     */
+    private static final int WARMUP_ROUNDS = 3;
+
+    /**
+     * Number of timed rounds; the fastest is reported.
+     */
+    private static final int TIMED_ROUNDS = 5;
+
+    /**
+     * Modulus keeping the entries small enough that no average overflows.
+     */
+    private static final int MODULUS = 1_000_003;
+
+    /**
+     * Sink for results so the JIT cannot discard the timed work.
+     */
+    private static long sink;
+
+    /**
+     * Returns the fastest of the timed rounds of {@code smoothIterative}.
+     *
+     * @param s1
+     *            the sequence to smooth
+     * @param s2
+     *            the resulting sequence
+     * @return the fastest time per entry, in nanoseconds
+     * @replaces s2
+     * @requires |s1| >= 1
+     */
+    private static double timeIterative(Sequence<Integer> s1,
+            Sequence<Integer> s2) {
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < WARMUP_ROUNDS + TIMED_ROUNDS; r++) {
+            long start = System.nanoTime();
+            SequenceSmooth.smoothIterative(s1, s2);
+            long time = System.nanoTime() - start;
+            sink += s2.entry(s2.length() / 2);
+            if (r >= WARMUP_ROUNDS) {
+                best = Math.min(best, time);
+            }
+        }
+        return (double) best / s1.length();
+    }
+
+    /**
+     * Returns the fastest of the timed rounds of {@code smoothParallel} in
+     * {@code pool}, or of the sequential {@code smooth} if {@code pool} is
+     * null.
+     *
+     * @param s1
+     *            the sequence to smooth
+     * @param s2
+     *            the resulting sequence
+     * @param pool
+     *            the pool, or null
+     * @return the fastest time per entry, in nanoseconds
+     * @replaces s2
+     * @requires |s1| >= 1
+     */
+    private static double timeKernel(IntSequence s1, IntSequence s2,
+            ForkJoinPool pool) {
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < WARMUP_ROUNDS + TIMED_ROUNDS; r++) {
+            long start = System.nanoTime();
+            if (pool == null) {
+                SequenceSmooth.smooth(s1, s2);
+            } else {
+                SequenceSmooth.smoothParallel(s1, s2, pool);
+            }
+            long time = System.nanoTime() - start;
+            sink += s2.entry(s2.length() / 2);
+            if (r >= WARMUP_ROUNDS) {
+                best = Math.min(best, time);
+            }
+        }
+        return (double) best / s1.length();
+    }
+
+    /**
+     * Outputs one line of the report.
+     *
+     * @param name
+     *            the name of the method timed
+     * @param time
+     *            its fastest time per entry, in nanoseconds
+     * @param baseline
+     *            the fastest time per entry of the sequential smooth, in
+     *            nanoseconds
+     * @param out
+     *            the output stream
+     * @updates out.content
+     * @requires out.is_open
+     */
+    private static void report(String name, double time, double baseline,
+            SimpleWriter out) {
+        out.println(String.format("%-20s %10.2f %8.1fx", name, time,
+                baseline / time));
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            optional number of entries
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+
+        int n = DEFAULT_ENTRIES;
+        if (args.length > 0) {
+            n = Integer.parseInt(args[0]);
+        }
+        Sequence<Integer> boxed = new Sequence1L<Integer>();
+        IntSequence unboxed = new IntSequence(n);
+        for (int i = 0; i < n; i++) {
+            int x = (int) ((long) i * i % MODULUS);
+            if (i < ITERATIVE_LIMIT) {
+                boxed.add(i, x);
+            }
+            unboxed.add(i, x);
+        }
+
+        out.println(String.format("smoothIterative, %d entries: %.2f ns/entry",
+                boxed.length(),
+                timeIterative(boxed, new Sequence1L<Integer>())));
+        out.println(n + " entries, ns/entry, speedup over smooth(IntSequence)");
+        IntSequence result = new IntSequence(n);
+        double baseline = timeKernel(unboxed, result, null);
+        report("smooth(IntSequence)", baseline, baseline, out);
+        int processors = Runtime.getRuntime().availableProcessors();
+        int p = 0;
+        while (p < processors) {
+            p = Math.min(Math.max(1, 2 * p), processors);
+            ForkJoinPool pool = new ForkJoinPool(p);
+            report("smoothParallel(" + p + ")",
+                    timeKernel(unboxed, result, pool), baseline, out);
+            pool.shutdown();
+        }
+        if (sink == 1) {
+            out.println();
+        }
+
+        out.close();
+    }
+
+}
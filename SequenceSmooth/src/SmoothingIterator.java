@@ -0,0 +1,228 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.simplereader.SimpleReader;
+
+/**
+ * Streaming smoother: an {@code Iterator<Integer>} over the moving averages of
+ * the values delivered by a source, computed as they are consumed. Only the
+ * last {@code window} values are kept, in a circular buffer with their
+ * running sum, so memory stays constant however long the series is and,
+ * unlike {@code SequenceSmooth.smooth}, nothing recurses per value. With the
+ * default window of 2 it produces the pairwise averages {@code (i+j)/2} of
+ * {@code SequenceSmooth}; the running sum is a {@code long}, so no average
+ * overflows.
+ *
+ * @mathdefinitions <pre>
+ * AVERAGES(
+ *   s: string of integer,
+ *   w: integer
+ *  ): string of integer satisfies
+ *  |AVERAGES(s, w)| = max(0, |s| - w + 1)  and
+ *  for all i: integer where (0 <= i < |AVERAGES(s, w)|)
+ *    (AVERAGES(s, w)[i] = [sum of s[i, i + w)] / w)
+ * </pre>
+ * @convention <pre>
+ * 1 <= |$this.buffer|  and
+ * 0 <= $this.count <= |$this.buffer|  and
+ * 0 <= $this.oldest < |$this.buffer|  and
+ * $this.sum = [sum of the $this.count values most recently read, which are
+ *   in $this.buffer from position $this.oldest on, wrapping around]
+ * </pre>
+ * @correspondence <pre>
+ * ~this.unseen = AVERAGES(r * [the values not yet read from $this.source],
+ *   |$this.buffer|)
+ *   where r = [the $this.count values most recently read]
+ * </pre>
+ *
+ * @author Yuting Che
+ *
+ */
+public final class SmoothingIterator implements Iterator<Integer> {
+
+    /**
+     * Default window: pairwise averages.
+     */
+    private static final int DEFAULT_WINDOW = 2;
+
+    /**
+     * Source of the values to smooth.
+     */
+    private final Iterator<Integer> source;
+
+    /**
+     * Circular buffer holding the last values read.
+     */
+    private final int[] buffer;
+
+    /**
+     * Position in {@code buffer} of the oldest value kept.
+     */
+    private int oldest;
+
+    /**
+     * Number of values kept in {@code buffer}.
+     */
+    private int count;
+
+    /**
+     * Sum of the values kept in {@code buffer}.
+     */
+    private long sum;
+
+    /**
+     * Constructor producing the pairwise averages of the values from
+     * {@code source}.
+     *
+     * @param source
+     *            the values to smooth
+     * @aliases reference source
+     * @ensures ~this.unseen = AVERAGES([values from source], 2)
+     */
+    public SmoothingIterator(Iterator<Integer> source) {
+        this(source, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Constructor producing the averages over windows of {@code window}
+     * consecutive values from {@code source}.
+     *
+     * @param source
+     *            the values to smooth
+     * @param window
+     *            the number of values in each window
+     * @aliases reference source
+     * @requires window >= 1
+     * @ensures ~this.unseen = AVERAGES([values from source], window)
+     */
+    public SmoothingIterator(Iterator<Integer> source, int window) {
+        assert source != null : "Violation of: source is not null";
+        assert window >= 1 : "Violation of: window >= 1";
+
+        this.source = source;
+        this.buffer = new int[window];
+        this.oldest = 0;
+        this.count = 0;
+        this.sum = 0;
+    }
+
+    /**
+     * Constructor producing the averages over windows of {@code window}
+     * consecutive integers read from {@code in}, one per line, until
+     * {@code in} reaches the end of its stream.
+     *
+     * @param in
+     *            the input stream
+     * @param window
+     *            the number of values in each window
+     * @aliases reference in
+     * @requires <pre>
+     * in.is_open  and  window >= 1  and
+     * [each line of in.content is an integer]
+     * </pre>
+     * @ensures ~this.unseen = AVERAGES([integers in in.content], window)
+     */
+    public SmoothingIterator(SimpleReader in, int window) {
+        this(new ReaderIterator(in), window);
+    }
+
+    /**
+     * Reads values from {@code source} until the window is full, or
+     * {@code source} is exhausted.
+     *
+     * @updates $this
+     * @ensures <pre>
+     * $this.count = |$this.buffer|  or
+     * [$this.source has no more values]
+     * </pre>
+     */
+    private void fill() {
+        int window = this.buffer.length;
+        while (this.count < window && this.source.hasNext()) {
+            int x = this.source.next();
+            this.buffer[(this.oldest + this.count) % window] = x;
+            this.sum += x;
+            this.count++;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        this.fill();
+        return this.count == this.buffer.length;
+    }
+
+    @Override
+    public Integer next() {
+        assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+        if (!this.hasNext()) {
+            /*
+             * Exception is supposed to be thrown in this case, but with
+             * assertion-checking enabled it cannot happen because of assert
+             * above.
+             */
+            throw new NoSuchElementException();
+        }
+        int result = (int) (this.sum / this.buffer.length);
+        this.sum -= this.buffer[this.oldest];
+        this.oldest = (this.oldest + 1) % this.buffer.length;
+        this.count--;
+        return result;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException(
+                "remove operation not supported");
+    }
+
+    /**
+     * {@code Iterator} over the integers in a {@code SimpleReader}, one per
+     * line.
+     */
+    private static final class ReaderIterator implements Iterator<Integer> {
+
+        /**
+         * The input stream.
+         */
+        private final SimpleReader in;
+
+        /**
+         * Constructor.
+         *
+         * @param in
+         *            the input stream
+         */
+        ReaderIterator(SimpleReader in) {
+            assert in != null : "Violation of: in is not null";
+            this.in = in;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.in.atEOS();
+        }
+
+        @Override
+        public Integer next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of
+                 * assert above.
+                 */
+                throw new NoSuchElementException();
+            }
+            return this.in.nextInteger();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,80 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code IntSequence}.
+ */
+public final class IntSequenceTest {
+
+    /**
+     * Number of entries used by the tests with many entries; enough to make
+     * the array grow several times.
+     */
+    private static final int MANY = 1000;
+
+    /**
+     * Tests add, remove and entry at the front, middle and end.
+     */
+    @Test
+    public void testAddRemoveEntry() {
+        IntSequence s = new IntSequence(1);
+        s.add(0, 2);
+        s.add(0, 1);
+        s.add(2, 4);
+        s.add(2, 3);
+        assertEquals("<1, 2, 3, 4>", s.toString());
+        assertEquals(4, s.length());
+        assertEquals(3, s.entry(2));
+        assertEquals(1, s.remove(0));
+        assertEquals(4, s.remove(2));
+        assertEquals("<2, 3>", s.toString());
+    }
+
+    /**
+     * Tests replaceEntry.
+     */
+    @Test
+    public void testReplaceEntry() {
+        IntSequence s = new IntSequence();
+        s.add(0, 5);
+        s.add(1, 6);
+        assertEquals(6, s.replaceEntry(1, -7));
+        assertEquals("<5, -7>", s.toString());
+    }
+
+    /**
+     * Tests growth past the initial capacity, then clear.
+     */
+    @Test
+    public void testManyAndClear() {
+        IntSequence s = new IntSequence(0);
+        for (int i = 0; i < MANY; i++) {
+            s.add(i, i);
+        }
+        assertEquals(MANY, s.length());
+        for (int i = 0; i < MANY; i++) {
+            assertEquals(i, s.entry(i));
+        }
+        s.clear();
+        assertEquals(0, s.length());
+        assertEquals(new IntSequence(), s);
+    }
+
+    /**
+     * Tests that equals and hashCode ignore the capacity and any slots past
+     * the length.
+     */
+    @Test
+    public void testEqualsIgnoresCapacity() {
+        IntSequence s1 = new IntSequence(1);
+        IntSequence s2 = new IntSequence(MANY);
+        s1.add(0, 1);
+        s2.add(0, 1);
+        s2.add(1, 2);
+        s2.remove(1);
+        assertEquals(s1, s2);
+        assertEquals(s1.hashCode(), s2.hashCode());
+    }
+
+}
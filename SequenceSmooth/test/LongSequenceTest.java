@@ -0,0 +1,81 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code LongSequence}.
+ */
+public final class LongSequenceTest {
+
+    /**
+     * Number of entries used by the tests with many entries; enough to make
+     * the array grow several times.
+     */
+    private static final int MANY = 1000;
+
+    /**
+     * Tests add, remove and entry at the front, middle and end.
+     */
+    @Test
+    public void testAddRemoveEntry() {
+        LongSequence s = new LongSequence(1);
+        s.add(0, 2);
+        s.add(0, 1);
+        s.add(2, 4);
+        s.add(2, 3);
+        assertEquals("<1, 2, 3, 4>", s.toString());
+        assertEquals(4, s.length());
+        assertEquals(3L, s.entry(2));
+        assertEquals(1L, s.remove(0));
+        assertEquals(4L, s.remove(2));
+        assertEquals("<2, 3>", s.toString());
+    }
+
+    /**
+     * Tests replaceEntry with entries outside the range of {@code int}.
+     */
+    @Test
+    public void testReplaceEntry() {
+        LongSequence s = new LongSequence();
+        s.add(0, Long.MAX_VALUE);
+        s.add(1, 6);
+        assertEquals(6L, s.replaceEntry(1, Long.MIN_VALUE));
+        assertEquals("<9223372036854775807, -9223372036854775808>",
+                s.toString());
+    }
+
+    /**
+     * Tests growth past the initial capacity, then clear.
+     */
+    @Test
+    public void testManyAndClear() {
+        LongSequence s = new LongSequence(0);
+        for (int i = 0; i < MANY; i++) {
+            s.add(i, (long) i << Integer.SIZE);
+        }
+        assertEquals(MANY, s.length());
+        for (int i = 0; i < MANY; i++) {
+            assertEquals((long) i << Integer.SIZE, s.entry(i));
+        }
+        s.clear();
+        assertEquals(0, s.length());
+        assertEquals(new LongSequence(), s);
+    }
+
+    /**
+     * Tests that equals and hashCode ignore the capacity and any slots past
+     * the length.
+     */
+    @Test
+    public void testEqualsIgnoresCapacity() {
+        LongSequence s1 = new LongSequence(1);
+        LongSequence s2 = new LongSequence(MANY);
+        s1.add(0, 1);
+        s2.add(0, 1);
+        s2.add(1, 2);
+        s2.remove(1);
+        assertEquals(s1, s2);
+        assertEquals(s1.hashCode(), s2.hashCode());
+    }
+
+}
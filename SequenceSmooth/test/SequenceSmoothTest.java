@@ -1,5 +1,10 @@
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 import org.junit.Test;
 
 import components.sequence.Sequence;
@@ -29,6 +34,40 @@ public final class SequenceSmoothTest {
         return s;
     }
 
+    /**
+     * Constructs and returns an {@code IntSequence} of the integers provided
+     * as arguments.
+     *
+     * @param args
+     *            0 or more integer arguments
+     * @return the sequence of the given arguments
+     * @ensures createIntFromArgs= [the sequence of integers in args]
+     */
+    private IntSequence createIntFromArgs(int... args) {
+        IntSequence s = new IntSequence();
+        for (int x : args) {
+            s.add(s.length(), x);
+        }
+        return s;
+    }
+
+    /**
+     * Constructs and returns a {@code LongSequence} of the integers provided
+     * as arguments.
+     *
+     * @param args
+     *            0 or more integer arguments
+     * @return the sequence of the given arguments
+     * @ensures createLongFromArgs= [the sequence of integers in args]
+     */
+    private LongSequence createLongFromArgs(long... args) {
+        LongSequence s = new LongSequence();
+        for (long x : args) {
+            s.add(s.length(), x);
+        }
+        return s;
+    }
+
     /**
      * Test smooth with s1 = <2, 4, 6> and s2 = <-5, 12>.
      */
@@ -69,4 +108,330 @@ public final class SequenceSmoothTest {
         assertEquals(expectedSeq2, seq2);
     }
 
+    /**
+     * Test smoothBulk with s1 = <2, 4, 6> and s2 = <-5, 12>.
+     */
+    @Test
+    public void testBulk1() {
+        /*
+         * Set up variables and call method under test
+         */
+        Sequence<Integer> seq1 = this.createFromArgs(2, 4, 6);
+        Sequence<Integer> expectedSeq1 = this.createFromArgs(2, 4, 6);
+        Sequence<Integer> seq2 = this.createFromArgs(-5, 12);
+        Sequence<Integer> expectedSeq2 = this.createFromArgs(3, 5);
+        SequenceSmooth.smoothBulk(seq1, seq2);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(expectedSeq1, seq1);
+        assertEquals(expectedSeq2, seq2);
+    }
+
+    /**
+     * Test smoothBulk with s1 = <7> and s2 = <13, 17, 11>.
+     */
+    @Test
+    public void testBulk2() {
+        /*
+         * Set up variables and call method under test
+         */
+        Sequence<Integer> seq1 = this.createFromArgs(7);
+        Sequence<Integer> expectedSeq1 = this.createFromArgs(7);
+        Sequence<Integer> seq2 = this.createFromArgs(13, 17, 11);
+        Sequence<Integer> expectedSeq2 = this.createFromArgs();
+        SequenceSmooth.smoothBulk(seq1, seq2);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(expectedSeq1, seq1);
+        assertEquals(expectedSeq2, seq2);
+    }
+
+    /**
+     * Test that smoothBulk agrees with smoothIterative on a longer sequence
+     * with negative entries.
+     */
+    @Test
+    public void testBulkMatchesIterative() {
+        final int n = 200;
+        Sequence<Integer> seq1 = this.createFromArgs();
+        for (int i = 0; i < n; i++) {
+            seq1.add(i, (i * i) % 97 - 48);
+        }
+        Sequence<Integer> bulk = this.createFromArgs();
+        Sequence<Integer> iterative = this.createFromArgs();
+        SequenceSmooth.smoothBulk(seq1, bulk);
+        SequenceSmooth.smoothIterative(seq1, iterative);
+        assertEquals(iterative, bulk);
+    }
+
+    /**
+     * Test the IntSequence smooth with s1 = <2, 4, 6> and s2 = <-5, 12>.
+     */
+    @Test
+    public void testIntSmooth() {
+        IntSequence seq1 = this.createIntFromArgs(2, 4, 6);
+        IntSequence expectedSeq1 = this.createIntFromArgs(2, 4, 6);
+        IntSequence seq2 = this.createIntFromArgs(-5, 12);
+        IntSequence expectedSeq2 = this.createIntFromArgs(3, 5);
+        SequenceSmooth.smooth(seq1, seq2);
+        assertEquals(expectedSeq1, seq1);
+        assertEquals(expectedSeq2, seq2);
+    }
+
+    /**
+     * Test the IntSequence smooth with s1 = <7> and s2 = <13, 17, 11>.
+     */
+    @Test
+    public void testIntSmoothSingle() {
+        IntSequence seq1 = this.createIntFromArgs(7);
+        IntSequence seq2 = this.createIntFromArgs(13, 17, 11);
+        SequenceSmooth.smooth(seq1, seq2);
+        assertEquals(this.createIntFromArgs(7), seq1);
+        assertEquals(this.createIntFromArgs(), seq2);
+    }
+
+    /**
+     * Test that the IntSequence smooth agrees with smoothIterative on a longer
+     * sequence with negative entries.
+     */
+    @Test
+    public void testIntSmoothMatchesIterative() {
+        final int n = 200;
+        Sequence<Integer> seq1 = this.createFromArgs();
+        IntSequence intSeq1 = this.createIntFromArgs();
+        for (int i = 0; i < n; i++) {
+            seq1.add(i, (i * i) % 97 - 48);
+            intSeq1.add(i, (i * i) % 97 - 48);
+        }
+        Sequence<Integer> iterative = this.createFromArgs();
+        IntSequence kernel = this.createIntFromArgs();
+        SequenceSmooth.smoothIterative(seq1, iterative);
+        SequenceSmooth.smooth(intSeq1, kernel);
+        assertEquals(iterative.length(), kernel.length());
+        for (int i = 0; i < kernel.length(); i++) {
+            assertEquals(iterative.entry(i).intValue(), kernel.entry(i));
+        }
+    }
+
+    /**
+     * Test the LongSequence smooth with s1 = <2, -4, 6, 10^12>.
+     */
+    @Test
+    public void testLongSmooth() {
+        final long big = 1_000_000_000_000L;
+        LongSequence seq1 = this.createLongFromArgs(2, -4, 6, big);
+        LongSequence seq2 = this.createLongFromArgs(1);
+        SequenceSmooth.smooth(seq1, seq2);
+        assertEquals(this.createLongFromArgs(2, -4, 6, big), seq1);
+        assertEquals(this.createLongFromArgs(-1, 1, (6 + big) / 2), seq2);
+    }
+
+    /**
+     * Test movingAverage over an IntSequence with windows of 1, 2 and 3.
+     */
+    @Test
+    public void testIntMovingAverage() {
+        IntSequence seq1 = this.createIntFromArgs(2, 4, 6, 9, -3);
+        IntSequence seq2 = this.createIntFromArgs();
+        SequenceSmooth.movingAverage(seq1, 1, seq2);
+        assertEquals(seq1, seq2);
+        SequenceSmooth.movingAverage(seq1, 2, seq2);
+        assertEquals(this.createIntFromArgs(3, 5, 7, 3), seq2);
+        SequenceSmooth.movingAverage(seq1, 3, seq2);
+        assertEquals(this.createIntFromArgs(4, 6, 4), seq2);
+        SequenceSmooth.movingAverage(seq1, 5, seq2);
+        assertEquals(this.createIntFromArgs(3), seq2);
+        assertEquals(this.createIntFromArgs(2, 4, 6, 9, -3), seq1);
+    }
+
+    /**
+     * Test that movingAverage over an IntSequence does not overflow when the
+     * sum of a window does not fit in an int.
+     */
+    @Test
+    public void testIntMovingAverageNoOverflow() {
+        IntSequence seq1 = this.createIntFromArgs(Integer.MAX_VALUE,
+                Integer.MAX_VALUE, Integer.MAX_VALUE);
+        IntSequence seq2 = this.createIntFromArgs();
+        SequenceSmooth.movingAverage(seq1, 3, seq2);
+        assertEquals(this.createIntFromArgs(Integer.MAX_VALUE), seq2);
+    }
+
+    /**
+     * Test movingAverage over a LongSequence with a window of 3.
+     */
+    @Test
+    public void testLongMovingAverage() {
+        LongSequence seq1 = this.createLongFromArgs(3, 6, 9, -12, 0);
+        LongSequence seq2 = this.createLongFromArgs(5, 5);
+        SequenceSmooth.movingAverage(seq1, 3, seq2);
+        assertEquals(this.createLongFromArgs(6, 1, -1), seq2);
+    }
+
+    /**
+     * Test that smoothParallel agrees with smooth on an IntSequence long
+     * enough to be split, with several pool sizes.
+     */
+    @Test
+    public void testIntSmoothParallel() {
+        final int n = 100_003;
+        final int[] poolSizes = { 1, 3 };
+        IntSequence seq1 = this.createIntFromArgs();
+        for (int i = 0; i < n; i++) {
+            seq1.add(i, (i * i) % 9973 - 4986);
+        }
+        IntSequence expected = this.createIntFromArgs();
+        SequenceSmooth.smooth(seq1, expected);
+
+        IntSequence seq2 = this.createIntFromArgs(1, 2);
+        SequenceSmooth.smoothParallel(seq1, seq2);
+        assertEquals(expected, seq2);
+        for (int p : poolSizes) {
+            ForkJoinPool pool = new ForkJoinPool(p);
+            seq2.clear();
+            SequenceSmooth.smoothParallel(seq1, seq2, pool);
+            pool.shutdown();
+            assertEquals(expected, seq2);
+        }
+    }
+
+    /**
+     * Test smoothParallel on an IntSequence with s1 = <7>.
+     */
+    @Test
+    public void testIntSmoothParallelSingle() {
+        IntSequence seq2 = this.createIntFromArgs(13, 17, 11);
+        SequenceSmooth.smoothParallel(this.createIntFromArgs(7), seq2);
+        assertEquals(this.createIntFromArgs(), seq2);
+    }
+
+    /**
+     * Test that smoothParallel agrees with smooth on a LongSequence long
+     * enough to be split.
+     */
+    @Test
+    public void testLongSmoothParallel() {
+        final int n = 100_003;
+        final long scale = 1_000_000_007L;
+        LongSequence seq1 = this.createLongFromArgs();
+        for (int i = 0; i < n; i++) {
+            seq1.add(i, ((long) i * i) % 9973 * scale);
+        }
+        LongSequence expected = this.createLongFromArgs();
+        SequenceSmooth.smooth(seq1, expected);
+        LongSequence seq2 = this.createLongFromArgs();
+        SequenceSmooth.smoothParallel(seq1, seq2);
+        assertEquals(expected, seq2);
+    }
+
+    /**
+     * Test average on ints against the exact average, at the extremes and on
+     * pseudo-random pairs.
+     */
+    @Test
+    public void testIntAverage() {
+        final int rounds = 100_000;
+        final int[] edges = { Integer.MIN_VALUE, Integer.MIN_VALUE + 1, -3,
+                -2, -1, 0, 1, 2, 3, Integer.MAX_VALUE - 1, Integer.MAX_VALUE };
+        for (int a : edges) {
+            for (int b : edges) {
+                assertEquals((int) (((long) a + b) / 2),
+                        SequenceSmooth.average(a, b));
+            }
+        }
+        Random rnd = new Random(2231);
+        for (int r = 0; r < rounds; r++) {
+            int a = rnd.nextInt();
+            int b = rnd.nextInt();
+            assertEquals((int) (((long) a + b) / 2),
+                    SequenceSmooth.average(a, b));
+        }
+    }
+
+    /**
+     * Test average on longs against the exact average, at the extremes and
+     * on pseudo-random pairs.
+     */
+    @Test
+    public void testLongAverage() {
+        final int rounds = 100_000;
+        final long[] edges = { Long.MIN_VALUE, Long.MIN_VALUE + 1, -3, -2, -1,
+                0, 1, 2, 3, Long.MAX_VALUE - 1, Long.MAX_VALUE };
+        final BigInteger two = BigInteger.valueOf(2);
+        Random rnd = new Random(2231);
+        for (int r = 0; r < rounds + edges.length * edges.length; r++) {
+            long a = rnd.nextLong();
+            long b = rnd.nextLong();
+            if (r < edges.length * edges.length) {
+                a = edges[r / edges.length];
+                b = edges[r % edges.length];
+            }
+            long expected = BigInteger.valueOf(a).add(BigInteger.valueOf(b))
+                    .divide(two).longValue();
+            assertEquals(expected, SequenceSmooth.average(a, b));
+        }
+    }
+
+    /**
+     * Test smooth, smoothIterative and smoothBulk on sequences whose pairwise
+     * sums overflow.
+     */
+    @Test
+    public void testSmoothNoOverflow() {
+        Sequence<Integer> seq1 = this.createFromArgs(Integer.MAX_VALUE,
+                Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE);
+        Sequence<Integer> expectedSeq1 = this.createFromArgs(
+                Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                Integer.MIN_VALUE);
+        Sequence<Integer> expectedSeq2 = this.createFromArgs(
+                Integer.MAX_VALUE, 0, Integer.MIN_VALUE);
+        Sequence<Integer> seq2 = this.createFromArgs();
+        SequenceSmooth.smooth(seq1, seq2);
+        assertEquals(expectedSeq1, seq1);
+        assertEquals(expectedSeq2, seq2);
+        seq2 = this.createFromArgs();
+        SequenceSmooth.smoothIterative(seq1, seq2);
+        assertEquals(expectedSeq1, seq1);
+        assertEquals(expectedSeq2, seq2);
+        seq2 = this.createFromArgs();
+        SequenceSmooth.smoothBulk(seq1, seq2);
+        assertEquals(expectedSeq1, seq1);
+        assertEquals(expectedSeq2, seq2);
+    }
+
+    /**
+     * Test smooth on arrays whose pairwise sums overflow.
+     */
+    @Test
+    public void testArraySmoothNoOverflow() {
+        int[] in = { Integer.MAX_VALUE, Integer.MAX_VALUE - 2,
+                Integer.MIN_VALUE, Integer.MIN_VALUE + 1, -1 };
+        int[] out = { 9, 9, 9, 9, 9 };
+        SequenceSmooth.smooth(in, out);
+        assertArrayEquals(new int[] { Integer.MAX_VALUE - 1, -1,
+                Integer.MIN_VALUE + 1, -(1 << (Integer.SIZE - 2)), 9 }, out);
+
+        long[] longIn = { Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE };
+        long[] longOut = new long[2];
+        SequenceSmooth.smooth(longIn, longOut);
+        assertArrayEquals(new long[] { Long.MAX_VALUE, 0 }, longOut);
+    }
+
+    /**
+     * Test that the IntSequence smooth and smoothParallel do not overflow.
+     */
+    @Test
+    public void testIntSmoothNoOverflow() {
+        IntSequence seq1 = this.createIntFromArgs(Integer.MAX_VALUE,
+                Integer.MAX_VALUE, -Integer.MAX_VALUE);
+        IntSequence expected = this.createIntFromArgs(Integer.MAX_VALUE, 0);
+        IntSequence seq2 = this.createIntFromArgs();
+        SequenceSmooth.smooth(seq1, seq2);
+        assertEquals(expected, seq2);
+        SequenceSmooth.smoothParallel(seq1, seq2);
+        assertEquals(expected, seq2);
+    }
+
 }
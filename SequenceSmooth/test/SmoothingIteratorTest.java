@@ -0,0 +1,166 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import components.sequence.Sequence;
+import components.sequence.Sequence1L;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+
+/**
+ * JUnit test fixture for {@code SmoothingIterator}.
+ */
+public final class SmoothingIteratorTest {
+
+    /**
+     * Constructs and returns a sequence of the integers provided as arguments.
+     *
+     * @param args
+     *            0 or more integer arguments
+     * @return the sequence of the given arguments
+     * @ensures createFromArgs= [the sequence of integers in args]
+     */
+    private Sequence<Integer> createFromArgs(Integer... args) {
+        Sequence<Integer> s = new Sequence1L<Integer>();
+        for (Integer x : args) {
+            s.add(s.length(), x);
+        }
+        return s;
+    }
+
+    /**
+     * Returns the sequence of the values left in {@code it}.
+     *
+     * @param it
+     *            the iterator
+     * @return the values left in it
+     * @updates it
+     */
+    private Sequence<Integer> drain(Iterator<Integer> it) {
+        Sequence<Integer> s = new Sequence1L<Integer>();
+        while (it.hasNext()) {
+            s.add(s.length(), it.next());
+        }
+        return s;
+    }
+
+    /**
+     * Test the default window with s = <2, 4, 6>.
+     */
+    @Test
+    public void testPairwise() {
+        Sequence<Integer> s = this.createFromArgs(2, 4, 6);
+        assertEquals(this.createFromArgs(3, 5),
+                this.drain(new SmoothingIterator(s.iterator())));
+    }
+
+    /**
+     * Test the default window with s = <7> and s = <>.
+     */
+    @Test
+    public void testTooShort() {
+        assertEquals(this.createFromArgs(), this.drain(
+                new SmoothingIterator(this.createFromArgs(7).iterator())));
+        assertEquals(this.createFromArgs(), this.drain(
+                new SmoothingIterator(this.createFromArgs().iterator())));
+    }
+
+    /**
+     * Test that the default window agrees with smoothIterative on a longer
+     * sequence with negative entries.
+     */
+    @Test
+    public void testMatchesIterative() {
+        final int n = 200;
+        Sequence<Integer> s = this.createFromArgs();
+        for (int i = 0; i < n; i++) {
+            s.add(i, (i * i) % 97 - 48);
+        }
+        Sequence<Integer> expected = this.createFromArgs();
+        SequenceSmooth.smoothIterative(s, expected);
+        assertEquals(expected, this.drain(new SmoothingIterator(s.iterator())));
+    }
+
+    /**
+     * Test windows of 1 and 3.
+     */
+    @Test
+    public void testWindows() {
+        Sequence<Integer> s = this.createFromArgs(2, 4, 6, 9, -3);
+        assertEquals(s, this.drain(new SmoothingIterator(s.iterator(), 1)));
+        assertEquals(this.createFromArgs(4, 6, 4),
+                this.drain(new SmoothingIterator(s.iterator(), 3)));
+    }
+
+    /**
+     * Test that averages of large values do not overflow.
+     */
+    @Test
+    public void testNoOverflow() {
+        Sequence<Integer> s = this.createFromArgs(Integer.MAX_VALUE,
+                Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE);
+        assertEquals(
+                this.createFromArgs(Integer.MAX_VALUE, 0, Integer.MIN_VALUE),
+                this.drain(new SmoothingIterator(s.iterator())));
+    }
+
+    /**
+     * Test pulling averages from an unbounded source.
+     */
+    @Test
+    public void testUnbounded() {
+        final int n = 1000;
+        Iterator<Integer> naturals = new Iterator<Integer>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                this.next++;
+                return this.next - 1;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+        Iterator<Integer> it = new SmoothingIterator(naturals, 3);
+        for (int i = 0; i < n; i++) {
+            assertEquals(true, it.hasNext());
+            assertEquals(i + 1, it.next().intValue());
+        }
+    }
+
+    /**
+     * Test reading the values from a {@code SimpleReader}.
+     *
+     * @throws IOException
+     *             if the temporary file cannot be written
+     */
+    @Test
+    public void testReader() throws IOException {
+        File file = File.createTempFile("smooth", ".txt");
+        file.deleteOnExit();
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            out.println(2);
+            out.println(4);
+            out.println(-6);
+            out.println(10);
+        }
+        SimpleReader in = new SimpleReader1L(file.getPath());
+        assertEquals(this.createFromArgs(0, 2),
+                this.drain(new SmoothingIterator(in, 3)));
+        in.close();
+    }
+
+}
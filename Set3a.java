@@ -1,13 +1,18 @@
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
-import components.binarytree.BinaryTree;
-import components.binarytree.BinaryTree1;
+import components.sequence.Sequence;
 import components.set.Set;
 import components.set.SetSecondary;
 
 /**
- * {@code Set} represented as a {@code BinaryTree} (maintained as a binary
- * search tree) of elements with implementations of primary methods.
+ * {@code Set} represented as a binary search tree of linked nodes, with
+ * implementations of primary methods. The tree algorithms descend the tree
+ * iteratively and relink existing nodes in place: {@code contains},
+ * {@code remove} and {@code removeAny} allocate nothing, {@code add}
+ * allocates only the new node, and no call recurses, so a deep (e.g.,
+ * sorted-input) tree cannot overflow the stack.
  *
  * @param <T>
  *            type of {@code Set} elements
@@ -19,8 +24,11 @@ import components.set.SetSecondary;
  *   slides with the ordering reported by compareTo for T, including that
  *   it has no duplicate labels]
  * </pre>
- * @convention IS_BST($this.tree)
- * @correspondence this = labels($this.tree)
+ * @convention <pre>
+ * IS_BST([tree rooted at $this.root])  and
+ * $this.size = [number of nodes in the tree rooted at $this.root]
+ * </pre>
+ * @correspondence this = labels([tree rooted at $this.root])
  *
  * @author Yuting Che
  *
@@ -32,155 +40,382 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
      */
 
     /**
-     * Elements included in {@code this}.
+     * Node of the binary search tree.
+     *
+     * @param <T>
+     *            type of labels
+     */
+    private static final class Node<T> {
+
+        /**
+         * The label.
+         */
+        private T label;
+
+        /**
+         * Root of the left subtree, or {@code null}.
+         */
+        private Node<T> left;
+
+        /**
+         * Root of the right subtree, or {@code null}.
+         */
+        private Node<T> right;
+
+        /**
+         * Constructor resulting in a leaf labeled {@code label}.
+         *
+         * @param label
+         *            the label
+         */
+        private Node(T label) {
+            this.label = label;
+            this.left = null;
+            this.right = null;
+        }
+
+    }
+
+    /**
+     * Root of the tree, or {@code null} if the tree is empty.
+     */
+    private Node<T> root;
+
+    /**
+     * Number of elements.
      */
-    private BinaryTree<T> tree;
+    private int size;
 
     /**
-     * Returns whether {@code x} is in {@code t}.
+     * Returns whether {@code x} is in the tree.
      *
-     * @param <T>
-     *            type of {@code BinaryTree} labels
-     * @param t
-     *            the {@code BinaryTree} to be searched
      * @param x
      *            the label to be searched for
-     * @return true if t contains x, false otherwise
-     * @requires IS_BST(t)
-     * @ensures isInTree = (x is in labels(t))
+     * @return true if the tree contains x, false otherwise
+     * @ensures isInTree = (x is in labels([tree rooted at $this.root]))
      */
-    private static <T extends Comparable<T>> boolean isInTree(BinaryTree<T> t,
-            T x) {
-        assert t != null : "Violation of: t is not null";
+    private boolean isInTree(T x) {
         assert x != null : "Violation of: x is not null";
 
+        Node<T> n = this.root;
         boolean result = false;
-
-        if (t.size() > 0) {
-            BinaryTree<T> lt = new BinaryTree1<>();
-            BinaryTree<T> rt = new BinaryTree1<>();
-
-            T root = t.disassemble(lt, rt);
-            if (root.equals(x)) {
-                result = true;
+        while (n != null && !result) {
+            int c = x.compareTo(n.label);
+            if (c < 0) {
+                n = n.left;
+            } else if (c > 0) {
+                n = n.right;
             } else {
-                result = isInTree(lt, x) || isInTree(rt, x);
+                result = true;
             }
         }
-
         return result;
     }
 
     /**
-     * Inserts {@code x} in {@code t}.
+     * Inserts {@code x} in the tree.
      *
-     * @param <T>
-     *            type of {@code BinaryTree} labels
-     * @param t
-     *            the {@code BinaryTree} to be searched
      * @param x
      *            the label to be inserted
      * @aliases reference {@code x}
-     * @updates t
-     * @requires IS_BST(t) and x is not in labels(t)
-     * @ensures IS_BST(t) and labels(t) = labels(#t) union {x}
+     * @updates $this.root
+     * @requires x is not in labels([tree rooted at $this.root])
+     * @ensures <pre>
+     * IS_BST([tree rooted at $this.root])  and
+     * labels([tree rooted at $this.root]) =
+     *  labels([tree rooted at #$this.root]) union {x}
+     * </pre>
      */
-    private static <T extends Comparable<T>> void insertInTree(BinaryTree<T> t,
-            T x) {
-        assert t != null : "Violation of: t is not null";
+    private void insertInTree(T x) {
         assert x != null : "Violation of: x is not null";
 
-        BinaryTree<T> lt = new BinaryTree1<>();
-        BinaryTree<T> rt = new BinaryTree1<>();
-
-        if (t.size() == 0) {
-            t.assemble(x, lt, rt);
+        Node<T> leaf = new Node<>(x);
+        if (this.root == null) {
+            this.root = leaf;
         } else {
-            T root = t.disassemble(lt, rt);
-            if (root.compareTo(x) > 0) {
-                insertInTree(lt, x);
-            } else {
-                insertInTree(rt, x);
+            Node<T> n = this.root;
+            boolean placed = false;
+            while (!placed) {
+                if (x.compareTo(n.label) < 0) {
+                    if (n.left == null) {
+                        n.left = leaf;
+                        placed = true;
+                    } else {
+                        n = n.left;
+                    }
+                } else {
+                    if (n.right == null) {
+                        n.right = leaf;
+                        placed = true;
+                    } else {
+                        n = n.right;
+                    }
+                }
             }
         }
-
     }
 
     /**
-     * Removes and returns the smallest (left-most) label in {@code t}.
+     * Removes and returns the smallest (left-most) label in the tree.
      *
-     * @param <T>
-     *            type of {@code BinaryTree} labels
-     * @param t
-     *            the {@code BinaryTree} from which to remove the label
-     * @return the smallest label in the given {@code BinaryTree}
-     * @updates t
-     * @requires IS_BST(t) and |t| > 0
+     * @return the smallest label in the tree
+     * @updates $this.root
+     * @requires $this.root /= null
      * @ensures <pre>
-     * IS_BST(t)  and  removeSmallest = [the smallest label in #t]  and
-     *  labels(t) = labels(#t) \ {removeSmallest}
+     * IS_BST([tree rooted at $this.root])  and
+     * removeSmallest =
+     *  [the smallest label in tree rooted at #$this.root]  and
+     * labels([tree rooted at $this.root]) =
+     *  labels([tree rooted at #$this.root]) \ {removeSmallest}
      * </pre>
      */
-    private static <T> T removeSmallest(BinaryTree<T> t) {
-        assert t != null : "Violation of: t is not null";
-        assert t.size() > 0 : "Violation of: |t| > 0";
-
-        BinaryTree<T> lt = new BinaryTree1<>();
-        BinaryTree<T> rt = new BinaryTree1<>();
-
-        T result = t.disassemble(lt, rt);
+    private T removeSmallest() {
+        assert this.root != null : "Violation of: |tree| > 0";
 
-        if (lt.size() > 0) {
-            result = removeSmallest(lt);
+        T result;
+        if (this.root.left == null) {
+            result = this.root.label;
+            this.root = this.root.right;
+        } else {
+            Node<T> parent = this.root;
+            while (parent.left.left != null) {
+                parent = parent.left;
+            }
+            result = parent.left.label;
+            parent.left = parent.left.right;
         }
-
         return result;
     }
 
     /**
-     * Finds label {@code x} in {@code t}, removes it from {@code t}, and
-     * returns it.
+     * Finds label {@code x} in the tree, removes it, and returns it.
      *
-     * @param <T>
-     *            type of {@code BinaryTree} labels
-     * @param t
-     *            the {@code BinaryTree} from which to remove label {@code x}
      * @param x
      *            the label to be removed
      * @return the removed label
-     * @updates t
-     * @requires IS_BST(t) and x is in labels(t)
+     * @updates $this.root
+     * @requires x is in labels([tree rooted at $this.root])
      * @ensures <pre>
-     * IS_BST(t)  and  removeFromTree = x  and
-     *  labels(t) = labels(#t) \ {x}
+     * IS_BST([tree rooted at $this.root])  and  removeFromTree = x  and
+     * labels([tree rooted at $this.root]) =
+     *  labels([tree rooted at #$this.root]) \ {x}
      * </pre>
      */
-    private static <T extends Comparable<T>> T removeFromTree(BinaryTree<T> t,
-            T x) {
-        assert t != null : "Violation of: t is not null";
+    private T removeFromTree(T x) {
         assert x != null : "Violation of: x is not null";
-        assert t.size() > 0 : "Violation of: x is in labels(t)";
+        assert this.root != null : "Violation of: x is in labels(tree)";
 
-        BinaryTree<T> lt = new BinaryTree1<>();
-        BinaryTree<T> rt = new BinaryTree1<>();
+        /*
+         * Find the node labeled x and its parent (null for the root)
+         */
+        Node<T> parent = null;
+        Node<T> n = this.root;
+        int c = x.compareTo(n.label);
+        while (c != 0) {
+            parent = n;
+            if (c < 0) {
+                n = n.left;
+            } else {
+                n = n.right;
+            }
+            c = x.compareTo(n.label);
+        }
+        T result = n.label;
+        /*
+         * Replace n by its only child, or, if it has two, move the smallest
+         * label of its right subtree into it and unlink that label's node
+         */
+        if (n.left != null && n.right != null) {
+            Node<T> successorParent = n;
+            Node<T> successor = n.right;
+            while (successor.left != null) {
+                successorParent = successor;
+                successor = successor.left;
+            }
+            n.label = successor.label;
+            if (successorParent == n) {
+                successorParent.right = successor.right;
+            } else {
+                successorParent.left = successor.right;
+            }
+        } else {
+            Node<T> child = n.left;
+            if (child == null) {
+                child = n.right;
+            }
+            if (parent == null) {
+                this.root = child;
+            } else if (parent.left == n) {
+                parent.left = child;
+            } else {
+                parent.right = child;
+            }
+        }
+        return result;
+    }
 
-        T result = t.disassemble(lt, rt);
-        if (!result.equals(x)) {
-            result = removeFromTree(lt, x);
-            if (result.compareTo(x) == 0) {
-                result = removeFromTree(rt, x);
+    /**
+     * Returns the labels of the tree rooted at {@code n}, which has
+     * {@code size} nodes, in increasing order.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root of the tree, or null
+     * @param size
+     *            the number of nodes in the tree
+     * @return the labels in increasing order
+     */
+    private static <T> Object[] labels(Node<T> n, int size) {
+        Object[] result = new Object[size];
+        int count = 0;
+        Node<T> m = n;
+        /*
+         * Morris traversal: thread each left subtree's largest node to its
+         * successor on the way down and unthread it on the way back, so no
+         * stack is needed and the tree is left unchanged
+         */
+        while (m != null) {
+            if (m.left == null) {
+                result[count] = m.label;
+                count++;
+                m = m.right;
+            } else {
+                Node<T> pred = m.left;
+                while (pred.right != null && pred.right != m) {
+                    pred = pred.right;
+                }
+                if (pred.right == null) {
+                    pred.right = m;
+                    m = m.left;
+                } else {
+                    pred.right = null;
+                    result[count] = m.label;
+                    count++;
+                    m = m.right;
+                }
             }
         }
         return result;
     }
 
     /**
-     * Creator of initial representation.
+     * Returns the root of a perfectly balanced tree labeled with
+     * {@code a[lo, hi)}. The recursion depth is the height of that tree,
+     * about log2(hi - lo).
+     *
+     * @param <T>
+     *            type of labels
+     * @param a
+     *            the labels, in increasing order
+     * @param lo
+     *            the first position
+     * @param hi
+     *            the position after the last
+     * @return the root of the tree, or null if lo = hi
+     * @requires 0 <= lo <= hi <= |a|
      */
-    private void createNewRep() {
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T> build(Object[] a, int lo, int hi) {
+        Node<T> result = null;
+        if (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            result = new Node<>((T) a[mid]);
+            result.left = build(a, lo, mid);
+            result.right = build(a, mid + 1, hi);
+        }
+        return result;
+    }
 
-        this.tree = new BinaryTree1<>();
+    /**
+     * Replaces the tree by a perfectly balanced one labeled with
+     * {@code a[0, n)}.
+     *
+     * @param a
+     *            the labels, in strictly increasing order
+     * @param n
+     *            the number of labels
+     * @replaces $this.root, $this.size
+     * @requires 0 <= n <= |a|
+     */
+    private void setFromArray(Object[] a, int n) {
+        this.root = build(a, 0, n);
+        this.size = n;
+    }
+
+    /**
+     * Merges the labels of this tree with those of {@code other}'s, both in
+     * increasing order, into {@code union}, {@code common} and
+     * {@code onlyThis} (any of which may be {@code null} if not wanted).
+     *
+     * @param other
+     *            the other set
+     * @param union
+     *            receives #this union other, or null
+     * @param common
+     *            receives #this intersection other, or null
+     * @param onlyThis
+     *            receives #this \ other, or null
+     * @return {number of labels in #this union other, in #this intersection
+     *         other, in #this \ other}
+     * @requires <pre>
+     * [union, if not null, has room for |this| + |other| labels, and
+     *  common and onlyThis, if not null, have room for |this| labels]
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private int[] merge(Set3a<T> other, Object[] union, Object[] common,
+            Object[] onlyThis) {
+        Object[] a = labels(this.root, this.size);
+        Object[] b = labels(other.root, other.size);
+        int i = 0;
+        int j = 0;
+        int u = 0;
+        int c = 0;
+        int d = 0;
+        while (i < a.length || j < b.length) {
+            int cmp;
+            if (i == a.length) {
+                cmp = 1;
+            } else if (j == b.length) {
+                cmp = -1;
+            } else {
+                cmp = ((T) a[i]).compareTo((T) b[j]);
+            }
+            Object next;
+            if (cmp < 0) {
+                next = a[i];
+                i++;
+                if (onlyThis != null) {
+                    onlyThis[d] = next;
+                }
+                d++;
+            } else if (cmp > 0) {
+                next = b[j];
+                j++;
+            } else {
+                next = a[i];
+                i++;
+                j++;
+                if (common != null) {
+                    common[c] = next;
+                }
+                c++;
+            }
+            if (union != null) {
+                union[u] = next;
+            }
+            u++;
+        }
+        return new int[] { u, c, d };
+    }
 
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.root = null;
+        this.size = 0;
     }
 
     /*
@@ -228,7 +463,8 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
          * the ? must be T or the call would not have compiled.
          */
         Set3a<T> localSource = (Set3a<T>) source;
-        this.tree = localSource.tree;
+        this.root = localSource.root;
+        this.size = localSource.size;
         localSource.createNewRep();
     }
 
@@ -241,8 +477,8 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
         assert x != null : "Violation of: x is not null";
         assert !this.contains(x) : "Violation of: x is not in this";
 
-        insertInTree(this.tree, x);
-
+        this.insertInTree(x);
+        this.size++;
     }
 
     @Override
@@ -250,37 +486,250 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
         assert x != null : "Violation of: x is not null";
         assert this.contains(x) : "Violation of: x is in this";
 
-        T result = removeFromTree(this.tree, x);
-        return result;
+        this.size--;
+        return this.removeFromTree(x);
     }
 
     @Override
     public final T removeAny() {
         assert this.size() > 0 : "Violation of: this /= empty_set";
 
-        T result = removeSmallest(this.tree);
-        return result;
+        this.size--;
+        return this.removeSmallest();
     }
 
     @Override
     public final boolean contains(T x) {
         assert x != null : "Violation of: x is not null";
 
-        boolean result = isInTree(this.tree, x);
-
-        return result;
+        return this.isInTree(x);
     }
 
     @Override
     public final int size() {
-
-        int size = this.tree.size();
-        return size;
+        return this.size;
     }
 
     @Override
     public final Iterator<T> iterator() {
-        return this.tree.iterator();
+        return new Set3aIterator();
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * When {@code s} is a {@code Set3a}, this merges the two trees'
+     * in-order traversals in O(|this| + |s|) time and leaves both trees
+     * perfectly balanced.
+     * </p>
+     */
+    @Override
+    public final void add(Set<T> s) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+
+        if (s instanceof Set3a<?>) {
+            /*
+             * This cast cannot fail since s is of dynamic type Set3a<?>, and
+             * the ? must be T or the call would not have compiled.
+             */
+            Set3a<T> other = (Set3a<T>) s;
+            Object[] union = new Object[this.size + other.size];
+            Object[] common = new Object[this.size];
+            int[] counts = this.merge(other, union, common, null);
+            this.setFromArray(union, counts[0]);
+            other.setFromArray(common, counts[1]);
+        } else {
+            super.add(s);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * When {@code s} is a {@code Set3a}, this merges the two trees'
+     * in-order traversals in O(|this| + |s|) time; {@code this} and the
+     * result are left perfectly balanced.
+     * </p>
+     */
+    @Override
+    public final Set<T> remove(Set<T> s) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+
+        Set<T> result;
+        if (s instanceof Set3a<?>) {
+            /*
+             * This cast cannot fail since s is of dynamic type Set3a<?>, and
+             * the ? must be T or the call would not have compiled.
+             */
+            Set3a<T> other = (Set3a<T>) s;
+            Object[] common = new Object[this.size];
+            Object[] onlyThis = new Object[this.size];
+            int[] counts = this.merge(other, null, common, onlyThis);
+            this.setFromArray(onlyThis, counts[2]);
+            Set3a<T> removed = new Set3a<>();
+            removed.setFromArray(common, counts[1]);
+            result = removed;
+        } else {
+            result = super.remove(s);
+        }
+        return result;
+    }
+
+    /**
+     * Removes from {@code this} all elements not in {@code s}. When {@code s}
+     * is a {@code Set3a} this takes O(|this| + |s|) time, otherwise |this|
+     * calls of {@code s.contains}; either way {@code this} is left perfectly
+     * balanced.
+     *
+     * @param s
+     *            the {@code Set} whose elements are to be kept
+     * @updates this
+     * @requires s is not this
+     * @ensures this = #this intersection s
+     */
+    public final void retain(Set<T> s) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+
+        Object[] common = new Object[this.size];
+        int n;
+        if (s instanceof Set3a<?>) {
+            /*
+             * This cast cannot fail since s is of dynamic type Set3a<?>, and
+             * the ? must be T or the call would not have compiled.
+             */
+            n = this.merge((Set3a<T>) s, null, common, null)[1];
+        } else {
+            n = 0;
+            for (T x : this) {
+                if (s.contains(x)) {
+                    common[n] = x;
+                    n++;
+                }
+            }
+        }
+        this.setFromArray(common, n);
+    }
+
+    /**
+     * Replaces {@code this} by the entries of {@code s}, which must be in
+     * strictly increasing order, in a perfectly balanced tree, in O(|s|)
+     * time.
+     *
+     * @param s
+     *            the entries, in strictly increasing order
+     * @replaces this
+     * @requires <pre>
+     * for all i: integer where (0 <= i < |s| - 1)
+     *   ([entry i of s] < [entry i + 1 of s])
+     * </pre>
+     * @ensures this = entries(s)
+     */
+    public final void setFromSorted(Sequence<T> s) {
+        assert s != null : "Violation of: s is not null";
+
+        Object[] a = new Object[s.length()];
+        int n = 0;
+        T previous = null;
+        for (T x : s) {
+            assert previous == null || previous.compareTo(x) < 0 : ""
+                    + "Violation of: s is in strictly increasing order";
+            a[n] = x;
+            n++;
+            previous = x;
+        }
+        this.setFromArray(a, n);
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Set3a}: an
+     * in-order traversal with an explicit stack of the ancestors still to be
+     * visited.
+     */
+    private final class Set3aIterator implements Iterator<T> {
+
+        /**
+         * Initial capacity of {@code path}.
+         */
+        private static final int INITIAL_DEPTH = 16;
+
+        /**
+         * Nodes still to be visited, each before all of its right subtree, in
+         * positions [0, depth).
+         */
+        private Node<T>[] path;
+
+        /**
+         * Number of nodes on {@code path}.
+         */
+        private int depth;
+
+        /**
+         * No-argument constructor.
+         */
+        @SuppressWarnings("unchecked")
+        Set3aIterator() {
+            this.path = (Node<T>[]) new Node<?>[INITIAL_DEPTH];
+            this.depth = 0;
+            this.pushLeftSpine(Set3a.this.root);
+        }
+
+        /**
+         * Pushes {@code n} and its chain of left descendants on {@code path}.
+         *
+         * @param n
+         *            the top of the chain, or null
+         */
+        private void pushLeftSpine(Node<T> n) {
+            Node<T> m = n;
+            while (m != null) {
+                if (this.depth == this.path.length) {
+                    this.path = Arrays.copyOf(this.path,
+                            2 * this.depth);
+                }
+                this.path[this.depth] = m;
+                this.depth++;
+                m = m.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.depth > 0;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            this.depth--;
+            Node<T> n = this.path[this.depth];
+            this.path[this.depth] = null;
+            this.pushLeftSpine(n.right);
+            return n.label;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
     }
 
 }
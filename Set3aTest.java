@@ -0,0 +1,137 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.sequence.Sequence;
+import components.sequence.Sequence1L;
+import components.set.Set;
+import components.set.Set1L;
+
+/**
+ * Customized JUnit test fixture for {@code Set3a}.
+ */
+public class Set3aTest extends SetTest {
+
+    @Override
+    protected final Set<String> constructorTest() {
+        return new Set3a<String>();
+    }
+
+    @Override
+    protected final Set<String> constructorRef() {
+        return new Set1L<String>();
+    }
+
+    /**
+     * Creates and returns a {@code Set3a<String>} with the given entries.
+     *
+     * @param args
+     *            the entries for the set
+     * @return the constructed set
+     * @requires [every entry in args is unique]
+     * @ensures set3a = [entries in args]
+     */
+    private static Set3a<String> set3a(String... args) {
+        Set3a<String> set = new Set3a<>();
+        for (String s : args) {
+            set.add(s);
+        }
+        return set;
+    }
+
+    /**
+     * Creates and returns a {@code Set1L<String>} with the given entries.
+     *
+     * @param args
+     *            the entries for the set
+     * @return the constructed set
+     * @requires [every entry in args is unique]
+     * @ensures set1L = [entries in args]
+     */
+    private static Set<String> set1L(String... args) {
+        Set<String> set = new Set1L<>();
+        for (String s : args) {
+            set.add(s);
+        }
+        return set;
+    }
+
+    /**
+     * Tests the merging add(Set), which leaves the common elements in s.
+     */
+    @Test
+    public final void testAddSet() {
+        Set3a<String> test = set3a("c", "a", "e");
+        Set3a<String> s = set3a("b", "c", "d", "e");
+
+        test.add(s);
+
+        assertEquals(set1L("a", "b", "c", "d", "e"), test);
+        assertEquals(set1L("c", "e"), s);
+    }
+
+    /**
+     * Tests add(Set) with a {@code Set} of another implementation.
+     */
+    @Test
+    public final void testAddSetOther() {
+        Set3a<String> test = set3a("c", "a");
+        Set<String> s = set1L("a", "b");
+
+        test.add(s);
+
+        assertEquals(set1L("a", "b", "c"), test);
+        assertEquals(set1L("a"), s);
+    }
+
+    /**
+     * Tests the merging remove(Set).
+     */
+    @Test
+    public final void testRemoveSet() {
+        Set3a<String> test = set3a("d", "b", "a", "c");
+        Set3a<String> s = set3a("b", "d", "f");
+
+        Set<String> removed = test.remove(s);
+
+        assertEquals(set1L("a", "c"), test);
+        assertEquals(set1L("b", "d"), removed);
+        assertEquals(set1L("b", "d", "f"), s);
+    }
+
+    /**
+     * Tests retain with another {@code Set3a} and with a {@code Set1L}.
+     */
+    @Test
+    public final void testRetain() {
+        Set3a<String> test = set3a("d", "b", "a", "c");
+
+        test.retain(set3a("b", "c", "x"));
+        assertEquals(set1L("b", "c"), test);
+
+        test.retain(set1L("c"));
+        assertEquals(set1L("c"), test);
+    }
+
+    /**
+     * Tests setFromSorted, then updates of the resulting tree.
+     */
+    @Test
+    public final void testSetFromSorted() {
+        Sequence<String> s = new Sequence1L<>();
+        String[] sorted = { "a", "b", "c", "d", "e", "f", "g", "h" };
+        for (int i = 0; i < sorted.length; i++) {
+            s.add(i, sorted[i]);
+        }
+        Set3a<String> test = set3a("z");
+
+        test.setFromSorted(s);
+        assertEquals(set1L(sorted), test);
+
+        test.remove("d");
+        test.add("dd");
+        assertEquals(set1L("a", "b", "c", "dd", "e", "f", "g", "h"), test);
+        assertEquals(sorted.length, s.length());
+    }
+
+}
@@ -0,0 +1,389 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set} represented as an open-addressing hash table with Robin Hood
+ * linear probing, with implementations of primary methods. Unlike
+ * {@code Set2}, whose every {@code contains}, {@code add} and {@code remove}
+ * rotates the whole {@code Queue}, each kernel method here takes O(1)
+ * expected time. Elements and their (mixed) hash codes live in parallel
+ * arrays; removal uses backward-shift deletion, so there are no tombstones.
+ *
+ * @param <T>
+ *            type of {@code Set} elements
+ * @mathdefinitions <pre>
+ * HOME(h: integer, n: integer): integer is h mod n
+ * DIST(i: integer, h: integer, n: integer): integer is
+ *  (i - HOME(h, n)) mod n
+ * </pre>
+ * @convention <pre>
+ * |$this.elements| = |$this.hashes|  and
+ * [|$this.elements| is a power of two]  and
+ * $this.size = [number of i such that $this.elements[i] /= null]  and
+ * $this.size <= MAX_LOAD_FACTOR * |$this.elements|  and
+ * for all i: integer where ($this.elements[i] /= null)
+ *   ($this.hashes[i] = [mixed hash code of $this.elements[i]]  and
+ *    [every slot from HOME($this.hashes[i], |$this.elements|) to i
+ *     (cyclically) is occupied by an element whose DIST is at least the DIST
+ *     of that slot from HOME($this.hashes[i], |$this.elements|)])  and
+ * [the non-null elements are distinct]
+ * </pre>
+ * @correspondence <pre>
+ * this = {x: T where (there exists i: integer ($this.elements[i] = x))}
+ * </pre>
+ *
+ * @author Yuting Che
+ *
+ */
+public class Set4<T> extends SetSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default number of slots.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Largest fraction of slots in use before the table doubles.
+     */
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    /**
+     * Elements, or {@code null} for empty slots.
+     */
+    private Object[] elements;
+
+    /**
+     * Mixed hash codes of the elements in the corresponding slots.
+     */
+    private int[] hashes;
+
+    /**
+     * Number of elements.
+     */
+    private int size;
+
+    /**
+     * Slot where {@code removeAny} starts looking for an element.
+     */
+    private int anyHint;
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param capacity
+     *            number of slots
+     * @requires [capacity is a power of two]
+     */
+    private void createNewRep(int capacity) {
+        this.elements = new Object[capacity];
+        this.hashes = new int[capacity];
+        this.size = 0;
+        this.anyHint = 0;
+    }
+
+    /**
+     * Returns the probe distance of slot {@code i}, holding an element with
+     * mixed hash code {@code h}, from that element's home slot.
+     *
+     * @param i
+     *            the slot
+     * @param h
+     *            the mixed hash code
+     * @return DIST(i, h, |$this.elements|)
+     */
+    private int distance(int i, int h) {
+        int mask = this.elements.length - 1;
+        return (i - (h & mask)) & mask;
+    }
+
+    /**
+     * Returns the slot holding {@code x}, or -1 if it is not in the table.
+     *
+     * @param x
+     *            the element
+     * @return the slot of x, or -1
+     */
+    private int find(Object x) {
+        int mask = this.elements.length - 1;
+        int h = HashMixing.mixedHash(x);
+        int i = h & mask;
+        int dist = 0;
+        int result = -1;
+        boolean done = false;
+        while (!done) {
+            Object e = this.elements[i];
+            if (e == null || this.distance(i, this.hashes[i]) < dist) {
+                done = true;
+            } else if (this.hashes[i] == h && e.equals(x)) {
+                result = i;
+                done = true;
+            } else {
+                i = (i + 1) & mask;
+                dist++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Inserts an element, known not to be in the table, Robin Hood style: an
+     * element closer to its home slot than the one being placed gives up its
+     * slot and is placed further along instead.
+     *
+     * @param x
+     *            the element
+     * @param hash
+     *            the mixed hash code of x
+     * @requires [x is not in the table] and [the table has an empty slot]
+     */
+    private void insert(Object x, int hash) {
+        int mask = this.elements.length - 1;
+        Object e = x;
+        int h = hash;
+        int i = h & mask;
+        int dist = 0;
+        while (this.elements[i] != null) {
+            int existing = this.distance(i, this.hashes[i]);
+            if (existing < dist) {
+                Object te = this.elements[i];
+                int th = this.hashes[i];
+                this.elements[i] = e;
+                this.hashes[i] = h;
+                e = te;
+                h = th;
+                dist = existing;
+            }
+            i = (i + 1) & mask;
+            dist++;
+        }
+        this.elements[i] = e;
+        this.hashes[i] = h;
+    }
+
+    /**
+     * Empties slot {@code i} and shifts the following elements of the cluster
+     * back by one, so no gap is left in any probe sequence.
+     *
+     * @param i
+     *            the slot to empty
+     * @requires $this.elements[i] /= null
+     */
+    private void deleteAt(int i) {
+        int mask = this.elements.length - 1;
+        int hole = i;
+        int next = (hole + 1) & mask;
+        while (this.elements[next] != null
+                && this.distance(next, this.hashes[next]) > 0) {
+            this.elements[hole] = this.elements[next];
+            this.hashes[hole] = this.hashes[next];
+            hole = next;
+            next = (next + 1) & mask;
+        }
+        this.elements[hole] = null;
+        this.hashes[hole] = 0;
+    }
+
+    /**
+     * Doubles the number of slots, reinserting every element.
+     */
+    private void grow() {
+        Object[] oldElements = this.elements;
+        int[] oldHashes = this.hashes;
+        int oldSize = this.size;
+        this.createNewRep(2 * oldElements.length);
+        for (int i = 0; i < oldElements.length; i++) {
+            if (oldElements[i] != null) {
+                this.insert(oldElements[i], oldHashes[i]);
+            }
+        }
+        this.size = oldSize;
+    }
+
+    /**
+     * Returns the element in slot {@code i}.
+     *
+     * @param i
+     *            the slot
+     * @return the element in slot i
+     * @requires $this.elements[i] /= null
+     */
+    @SuppressWarnings("unchecked")
+    private T elementAt(int i) {
+        return (T) this.elements[i];
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Set4() {
+        this.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Set<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    @Override
+    public final void transferFrom(Set<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Set4<?> : ""
+                + "Violation of: source is of dynamic type Set4<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Set4<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        Set4<T> localSource = (Set4<T>) source;
+        this.elements = localSource.elements;
+        this.hashes = localSource.hashes;
+        this.size = localSource.size;
+        this.anyHint = localSource.anyHint;
+        localSource.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.contains(x) : "Violation of: x is not in this";
+
+        if (this.size + 1 > MAX_LOAD_FACTOR * this.elements.length) {
+            this.grow();
+        }
+        this.insert(x, HashMixing.mixedHash(x));
+        this.size++;
+    }
+
+    @Override
+    public final T remove(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.contains(x) : "Violation of: x is in this";
+
+        int i = this.find(x);
+        T e = this.elementAt(i);
+        this.deleteAt(i);
+        this.size--;
+        return e;
+    }
+
+    @Override
+    public final T removeAny() {
+        assert this.size() > 0 : "Violation of: |this| > 0";
+
+        int mask = this.elements.length - 1;
+        int i = this.anyHint;
+        while (this.elements[i] == null) {
+            i = (i + 1) & mask;
+        }
+        T e = this.elementAt(i);
+        this.deleteAt(i);
+        this.size--;
+        this.anyHint = i;
+        return e;
+    }
+
+    @Override
+    public final boolean contains(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        return this.find(x) >= 0;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Set4Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Set4}.
+     */
+    private final class Set4Iterator implements Iterator<T> {
+
+        /**
+         * Number of elements seen already (i.e., |~this.seen|).
+         */
+        private int numberSeen;
+
+        /**
+         * Slot to look at next.
+         */
+        private int slot;
+
+        /**
+         * No-argument constructor.
+         */
+        Set4Iterator() {
+            this.numberSeen = 0;
+            this.slot = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.numberSeen < Set4.this.size;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            while (Set4.this.elements[this.slot] == null) {
+                this.slot++;
+            }
+            this.numberSeen++;
+            T e = Set4.this.elementAt(this.slot);
+            this.slot++;
+            return e;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,528 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set} represented as an AVL tree (a height-balanced binary search
+ * tree) of elements, with implementations of primary methods. Unlike
+ * {@code Set3a}, the tree stays balanced whatever the order of the
+ * insertions, so {@code add}, {@code remove}, {@code removeAny} and
+ * {@code contains} all take O(log |this|) time even for sorted input.
+ * Iteration, and the extra {@code range} method, visit elements in
+ * increasing order.
+ *
+ * @param <T>
+ *            type of {@code Set} elements
+ * @mathdefinitions <pre>
+ * IS_BST(
+ *   tree: binary tree of T
+ *  ): boolean satisfies
+ *  [tree satisfies the binary search tree properties with the ordering
+ *   reported by compareTo for T, including that it has no duplicate labels]
+ *
+ * IS_AVL(
+ *   tree: binary tree of T
+ *  ): boolean satisfies
+ *  [for every node of tree, the heights of its two subtrees differ by at
+ *   most 1]
+ * </pre>
+ * @convention <pre>
+ * IS_BST([tree rooted at $this.root])  and
+ * IS_AVL([tree rooted at $this.root])  and
+ * [every node's height field is the height of the subtree rooted there]  and
+ * $this.size = [number of nodes in the tree rooted at $this.root]
+ * </pre>
+ * @correspondence this = labels([tree rooted at $this.root])
+ *
+ * @author Yuting Che
+ *
+ */
+public class Set5<T extends Comparable<T>> extends SetSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Node of the AVL tree.
+     *
+     * @param <T>
+     *            type of labels
+     */
+    private static final class Node<T> {
+
+        /**
+         * The label.
+         */
+        private T label;
+
+        /**
+         * Root of the left subtree, or {@code null}.
+         */
+        private Node<T> left;
+
+        /**
+         * Root of the right subtree, or {@code null}.
+         */
+        private Node<T> right;
+
+        /**
+         * Height of the subtree rooted at this node; a leaf has height 1.
+         */
+        private int height;
+
+        /**
+         * Constructor resulting in a leaf labeled {@code label}.
+         *
+         * @param label
+         *            the label
+         */
+        private Node(T label) {
+            this.label = label;
+            this.left = null;
+            this.right = null;
+            this.height = 1;
+        }
+
+    }
+
+    /**
+     * Root of the tree, or {@code null} if the tree is empty.
+     */
+    private Node<T> root;
+
+    /**
+     * Number of elements.
+     */
+    private int size;
+
+    /**
+     * Returns the height of the subtree rooted at {@code n}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root of the subtree, or null
+     * @return the height, 0 if n = null
+     */
+    private static <T> int height(Node<T> n) {
+        int h = 0;
+        if (n != null) {
+            h = n.height;
+        }
+        return h;
+    }
+
+    /**
+     * Recomputes the height of {@code n} from those of its children.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the node
+     * @updates n.height
+     */
+    private static <T> void updateHeight(Node<T> n) {
+        n.height = 1 + Math.max(height(n.left), height(n.right));
+    }
+
+    /**
+     * Rotates the subtree rooted at {@code n} to the left.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root of the subtree
+     * @return the new root of the subtree
+     * @requires n.right /= null
+     */
+    private static <T> Node<T> rotateLeft(Node<T> n) {
+        Node<T> r = n.right;
+        n.right = r.left;
+        r.left = n;
+        updateHeight(n);
+        updateHeight(r);
+        return r;
+    }
+
+    /**
+     * Rotates the subtree rooted at {@code n} to the right.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root of the subtree
+     * @return the new root of the subtree
+     * @requires n.left /= null
+     */
+    private static <T> Node<T> rotateRight(Node<T> n) {
+        Node<T> l = n.left;
+        n.left = l.right;
+        l.right = n;
+        updateHeight(n);
+        updateHeight(l);
+        return l;
+    }
+
+    /**
+     * Restores the AVL property at {@code n}, whose subtrees are AVL trees
+     * with heights differing by at most 2, and updates its height.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root of the subtree
+     * @return the new root of the subtree
+     */
+    private static <T> Node<T> rebalance(Node<T> n) {
+        Node<T> result = n;
+        int balance = height(n.left) - height(n.right);
+        if (balance > 1) {
+            if (height(n.left.left) < height(n.left.right)) {
+                n.left = rotateLeft(n.left);
+            }
+            result = rotateRight(n);
+        } else if (balance < -1) {
+            if (height(n.right.right) < height(n.right.left)) {
+                n.right = rotateRight(n.right);
+            }
+            result = rotateLeft(n);
+        } else {
+            updateHeight(n);
+        }
+        return result;
+    }
+
+    /**
+     * Inserts {@code x} in the subtree rooted at {@code n}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root of the subtree, or null
+     * @param x
+     *            the label to be inserted
+     * @return the new root of the subtree
+     * @aliases reference {@code x}
+     * @requires x is not in [the subtree rooted at n]
+     */
+    private static <T extends Comparable<T>> Node<T> insert(Node<T> n, T x) {
+        Node<T> result;
+        if (n == null) {
+            result = new Node<>(x);
+        } else {
+            if (x.compareTo(n.label) < 0) {
+                n.left = insert(n.left, x);
+            } else {
+                n.right = insert(n.right, x);
+            }
+            result = rebalance(n);
+        }
+        return result;
+    }
+
+    /**
+     * Removes the node holding the smallest label from the subtree rooted at
+     * {@code n}, and moves that label into {@code target}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root of the subtree
+     * @param target
+     *            the node receiving the smallest label
+     * @return the new root of the subtree
+     * @updates target.label
+     * @requires n /= null
+     */
+    private static <T> Node<T> removeSmallest(Node<T> n, Node<T> target) {
+        Node<T> result;
+        if (n.left == null) {
+            target.label = n.label;
+            result = n.right;
+        } else {
+            n.left = removeSmallest(n.left, target);
+            result = rebalance(n);
+        }
+        return result;
+    }
+
+    /**
+     * Removes {@code x} from the subtree rooted at {@code n}.
+     *
+     * @param <T>
+     *            type of labels
+     * @param n
+     *            the root of the subtree
+     * @param x
+     *            the label to be removed
+     * @return the new root of the subtree
+     * @requires x is in [the subtree rooted at n]
+     */
+    private static <T extends Comparable<T>> Node<T> delete(Node<T> n, T x) {
+        Node<T> result = n;
+        int c = x.compareTo(n.label);
+        if (c < 0) {
+            n.left = delete(n.left, x);
+            result = rebalance(n);
+        } else if (c > 0) {
+            n.right = delete(n.right, x);
+            result = rebalance(n);
+        } else if (n.left == null) {
+            result = n.right;
+        } else if (n.right == null) {
+            result = n.left;
+        } else {
+            n.right = removeSmallest(n.right, n);
+            result = rebalance(n);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the node labeled {@code x}, or {@code null} if there is none.
+     *
+     * @param x
+     *            the label to be searched for
+     * @return the node labeled x, or null
+     */
+    private Node<T> find(T x) {
+        Node<T> n = this.root;
+        boolean found = false;
+        while (n != null && !found) {
+            int c = x.compareTo(n.label);
+            if (c < 0) {
+                n = n.left;
+            } else if (c > 0) {
+                n = n.right;
+            } else {
+                found = true;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.root = null;
+        this.size = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Set5() {
+        this.createNewRep();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Set<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Set<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Set5<?> : ""
+                + "Violation of: source is of dynamic type Set5<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Set5<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        Set5<T> localSource = (Set5<T>) source;
+        this.root = localSource.root;
+        this.size = localSource.size;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.contains(x) : "Violation of: x is not in this";
+
+        this.root = insert(this.root, x);
+        this.size++;
+    }
+
+    @Override
+    public final T remove(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.contains(x) : "Violation of: x is in this";
+
+        T result = this.find(x).label;
+        this.root = delete(this.root, x);
+        this.size--;
+        return result;
+    }
+
+    @Override
+    public final T removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        T result = this.root.label;
+        this.root = delete(this.root, result);
+        this.size--;
+        return result;
+    }
+
+    @Override
+    public final boolean contains(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        return this.find(x) != null;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Set5Iterator(null, null);
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Returns an iterator over the elements of {@code this} that are at least
+     * {@code from} and less than {@code to}, in increasing order. It takes
+     * O(log |this|) time to start and amortized O(1) time per element.
+     *
+     * @param from
+     *            the smallest element to include
+     * @param to
+     *            the bound all elements included are less than
+     * @return an iterator over the elements in [from, to)
+     * @requires from /= null and to /= null
+     * @ensures <pre>
+     * [range iterates, in increasing order, over
+     *  {x: T where (x is in this  and  from <= x  and  x < to)}]
+     * </pre>
+     */
+    public final Iterator<T> range(T from, T to) {
+        assert from != null : "Violation of: from is not null";
+        assert to != null : "Violation of: to is not null";
+
+        return new Set5Iterator(from, to);
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Set5}: an
+     * in-order traversal with an explicit stack of the ancestors still to be
+     * visited.
+     */
+    private final class Set5Iterator implements Iterator<T> {
+
+        /**
+         * Nodes still to be visited, each before all of its right subtree, in
+         * positions [0, depth).
+         */
+        private final Node<T>[] path;
+
+        /**
+         * Number of nodes on {@code path}.
+         */
+        private int depth;
+
+        /**
+         * Bound all elements returned are less than, or {@code null} for no
+         * bound.
+         */
+        private final T to;
+
+        /**
+         * Constructor for an iterator over the elements in [{@code from},
+         * {@code to}), where a {@code null} bound means no bound.
+         *
+         * @param from
+         *            the smallest element to include, or null
+         * @param to
+         *            the bound all elements are less than, or null
+         */
+        @SuppressWarnings("unchecked")
+        Set5Iterator(T from, T to) {
+            this.path = (Node<T>[]) new Node<?>[height(Set5.this.root)];
+            this.depth = 0;
+            this.to = to;
+            Node<T> n = Set5.this.root;
+            while (n != null) {
+                if (from == null || from.compareTo(n.label) <= 0) {
+                    this.path[this.depth] = n;
+                    this.depth++;
+                    n = n.left;
+                } else {
+                    n = n.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.depth > 0 && (this.to == null
+                    || this.path[this.depth - 1].label.compareTo(this.to) < 0);
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            this.depth--;
+            Node<T> n = this.path[this.depth];
+            T result = n.label;
+            Node<T> m = n.right;
+            while (m != null) {
+                this.path[this.depth] = m;
+                this.depth++;
+                m = m.left;
+            }
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,104 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import components.set.Set;
+import components.set.Set1L;
+
+/**
+ * Customized JUnit test fixture for {@code Set5}.
+ */
+public class Set5Test extends SetTest {
+
+    /**
+     * Number of elements used by the sorted-input tests.
+     */
+    private static final int MANY = 1000;
+
+    @Override
+    protected final Set<String> constructorTest() {
+        return new Set5<String>();
+    }
+
+    @Override
+    protected final Set<String> constructorRef() {
+        return new Set1L<String>();
+    }
+
+    /**
+     * Returns the concatenation of the elements {@code it} produces, each
+     * followed by a space.
+     *
+     * @param it
+     *            the iterator
+     * @return the elements produced by it
+     */
+    private static String elements(Iterator<String> it) {
+        StringBuilder result = new StringBuilder();
+        while (it.hasNext()) {
+            result.append(it.next()).append(' ');
+        }
+        return result.toString();
+    }
+
+    /**
+     * Tests that iteration is in increasing order.
+     */
+    @Test
+    public final void testIteratorOrdered() {
+        Set5<String> test = new Set5<>();
+        for (String s : new String[] { "d", "b", "f", "a", "c", "e", "g" }) {
+            test.add(s);
+        }
+        assertEquals("a b c d e f g ", elements(test.iterator()));
+    }
+
+    /**
+     * Tests a range with bounds inside the set, one equal to an element.
+     */
+    @Test
+    public final void testRange() {
+        Set5<String> test = new Set5<>();
+        for (String s : new String[] { "d", "b", "f", "a", "c", "e", "g" }) {
+            test.add(s);
+        }
+        assertEquals("b c d ", elements(test.range("b", "e")));
+        assertEquals("c d e ", elements(test.range("bb", "ee")));
+    }
+
+    /**
+     * Tests ranges that contain no element.
+     */
+    @Test
+    public final void testRangeEmpty() {
+        Set5<String> test = new Set5<>();
+        test.add("m");
+        assertEquals("", elements(test.range("n", "z")));
+        assertEquals("", elements(test.range("a", "m")));
+        assertEquals("", elements(new Set5<String>().range("a", "z")));
+    }
+
+    /**
+     * Tests adding and removing sorted input, which would degenerate an
+     * unbalanced tree.
+     */
+    @Test
+    public final void testSortedInput() {
+        Set5<Integer> test = new Set5<>();
+        for (int i = 0; i < MANY; i++) {
+            test.add(i);
+        }
+        for (int i = 0; i < MANY; i += 2) {
+            assertEquals(Integer.valueOf(i), test.remove(i));
+        }
+        assertEquals(MANY / 2, test.size());
+        int expected = 1;
+        for (int x : test) {
+            assertEquals(expected, x);
+            expected += 2;
+        }
+    }
+
+}
@@ -0,0 +1,370 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.map.Map;
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set} that remembers how recently each element was used, represented
+ * as a doubly linked list of the elements in most- to least-recently-used
+ * order, indexed by a {@code Map5} from each element to its node. This is
+ * what {@code Set2}'s {@code moveToFront} does to its {@code Queue}, in O(1)
+ * time instead of O(|this|): {@code add}, {@code touch} and {@code seen}
+ * make their argument the most recently used element. {@code contains} does
+ * not change the order, so it may be called while iterating over
+ * {@code this}, as {@code SetSecondary}'s methods do; the three methods that
+ * reorder, like those that add or remove, must not be. Iteration goes from
+ * the most to the least recently used element, and {@code removeAny} removes
+ * the least recently used one.
+ *
+ * <p>
+ * A {@code Set6} may be given a maximum size, making it a cache of recently
+ * seen elements: {@code add} requires room, and {@code seen} evicts the least
+ * recently used element to make room.
+ * </p>
+ *
+ * @param <T>
+ *            type of {@code Set} elements
+ * @convention <pre>
+ * [$this.preFront and $this.postBack are not null]  and
+ * [$this.preFront points to the first node of a doubly linked list
+ *  containing (|$this.index| + 2) nodes]  and
+ * [$this.postBack points to the last node in that doubly linked list]  and
+ * [for every node n in the doubly linked list of nodes, except the one
+ *  pointed to by $this.preFront, n.previous.next = n]  and
+ * [for every node n in the doubly linked list of nodes, except the one
+ *  pointed to by $this.postBack, n.next.previous = n]  and
+ * [$this.index maps the data of each node strictly between $this.preFront
+ *  and $this.postBack to that node, and has no other pairs]  and
+ * ($this.maxSize = 0  or  |$this.index| <= $this.maxSize)
+ * </pre>
+ * @correspondence <pre>
+ * this = DOMAIN($this.index)
+ * </pre>
+ *
+ * @author Yuting Che
+ *
+ */
+public class Set6<T> extends SetSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Node class for doubly linked list nodes.
+     */
+    private final class Node {
+
+        /**
+         * Data in node, or, if this is a "smart" Node, irrelevant.
+         */
+        private T data;
+
+        /**
+         * Next (less recently used) node in doubly linked list, or, if this is
+         * a trailing "smart" Node, irrelevant.
+         */
+        private Node next;
+
+        /**
+         * Previous (more recently used) node in doubly linked list, or, if
+         * this is a leading "smart" Node, irrelevant.
+         */
+        private Node previous;
+
+    }
+
+    /**
+     * "Smart node" before the most recently used node.
+     */
+    private Node preFront;
+
+    /**
+     * "Smart node" after the least recently used node.
+     */
+    private Node postBack;
+
+    /**
+     * Map from each element to its node.
+     */
+    private Map<T, Node> index;
+
+    /**
+     * Largest number of elements, or 0 for no limit.
+     */
+    private int maxSize;
+
+    /**
+     * Unlinks node {@code n} from the doubly linked list.
+     *
+     * @param n
+     *            the node
+     * @requires [n is a node of the list other than preFront and postBack]
+     */
+    private void unlink(Node n) {
+        n.previous.next = n.next;
+        n.next.previous = n.previous;
+    }
+
+    /**
+     * Links node {@code n} into the doubly linked list right after
+     * {@code preFront}, making its data the most recently used element.
+     *
+     * @param n
+     *            the node
+     * @requires [n is not in the list]
+     */
+    private void linkFront(Node n) {
+        n.previous = this.preFront;
+        n.next = this.preFront.next;
+        this.preFront.next.previous = n;
+        this.preFront.next = n;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param max
+     *            the maximum size, or 0 for no limit
+     */
+    private void createNewRep(int max) {
+        this.preFront = new Node();
+        this.postBack = new Node();
+        this.preFront.next = this.postBack;
+        this.postBack.previous = this.preFront;
+        this.index = new Map5<>();
+        this.maxSize = max;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor, resulting in a set with no maximum size.
+     */
+    public Set6() {
+        this.createNewRep(0);
+    }
+
+    /**
+     * Constructor resulting in a set of at most {@code maxSize} elements.
+     *
+     * @param maxSize
+     *            the maximum size
+     * @requires maxSize > 0
+     */
+    public Set6(int maxSize) {
+        assert maxSize > 0 : "Violation of: maxSize > 0";
+
+        this.createNewRep(maxSize);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Set<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.maxSize);
+    }
+
+    @Override
+    public final void transferFrom(Set<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Set6<?> : ""
+                + "Violation of: source is of dynamic type Set6<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Set6<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        Set6<T> localSource = (Set6<T>) source;
+        this.preFront = localSource.preFront;
+        this.postBack = localSource.postBack;
+        this.index = localSource.index;
+        this.maxSize = localSource.maxSize;
+        localSource.createNewRep(localSource.maxSize);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.contains(x) : "Violation of: x is not in this";
+        assert this.maxSize == 0 || this.size() < this.maxSize : ""
+                + "Violation of: |this| < maxSize(this)";
+
+        Node n = new Node();
+        n.data = x;
+        this.linkFront(n);
+        this.index.add(x, n);
+    }
+
+    @Override
+    public final T remove(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.contains(x) : "Violation of: x is in this";
+
+        Node n = this.index.remove(x).value();
+        this.unlink(n);
+        return n.data;
+    }
+
+    @Override
+    public final T removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        Node n = this.postBack.previous;
+        this.unlink(n);
+        this.index.remove(n.data);
+        return n.data;
+    }
+
+    @Override
+    public final boolean contains(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        return this.index.hasKey(x);
+    }
+
+    @Override
+    public final int size() {
+        return this.index.size();
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Set6Iterator();
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Reports the maximum size of {@code this}, or 0 if there is none.
+     *
+     * @return the maximum size, or 0
+     * @ensures maxSize = [the maximum size of this, or 0 if there is none]
+     */
+    public final int maxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Makes {@code x} the most recently used element of {@code this}.
+     *
+     * @param x
+     *            the element
+     * @updates this
+     * @requires x is in this
+     * @ensures this = #this
+     */
+    public final void touch(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.contains(x) : "Violation of: x is in this";
+
+        Node n = this.index.value(x);
+        this.unlink(n);
+        this.linkFront(n);
+    }
+
+    /**
+     * Reports whether {@code x} is in {@code this}, and makes it the most
+     * recently used element, adding it if it was not there; if that would
+     * make {@code this} larger than its maximum size, the least recently used
+     * element is removed first. This is the operation of a dedup cache.
+     *
+     * @param x
+     *            the element
+     * @return true iff x was in #this
+     * @updates this
+     * @ensures <pre>
+     * seen = (x is in #this)  and
+     * if seen  or  maxSize(this) = 0  or  |#this| < maxSize(this)
+     *  then this = #this union {x}
+     *  else this = (#this \ {[least recently used element of #this]}) union
+     *              {x}
+     * </pre>
+     */
+    public final boolean seen(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        boolean result = this.contains(x);
+        if (result) {
+            this.touch(x);
+        } else {
+            if (this.maxSize > 0 && this.size() == this.maxSize) {
+                this.removeAny();
+            }
+            this.add(x);
+        }
+        return result;
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Set6}, from the
+     * most to the least recently used element.
+     */
+    private final class Set6Iterator implements Iterator<T> {
+
+        /**
+         * Current node in the linked list.
+         */
+        private Node current;
+
+        /**
+         * No-argument constructor.
+         */
+        Set6Iterator() {
+            this.current = Set6.this.preFront.next;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.current != Set6.this.postBack;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = this.current.data;
+            this.current = this.current.next;
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,131 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.set.Set;
+import components.set.Set1L;
+
+/**
+ * Customized JUnit test fixture for {@code Set6}.
+ */
+public class Set6Test extends SetTest {
+
+    @Override
+    protected final Set<String> constructorTest() {
+        return new Set6<String>();
+    }
+
+    @Override
+    protected final Set<String> constructorRef() {
+        return new Set1L<String>();
+    }
+
+    /**
+     * Returns the concatenation of the elements of {@code s}, in iteration
+     * order, each followed by a space.
+     *
+     * @param s
+     *            the set
+     * @return the elements of s
+     */
+    private static String elements(Set<String> s) {
+        StringBuilder result = new StringBuilder();
+        for (String x : s) {
+            result.append(x).append(' ');
+        }
+        return result.toString();
+    }
+
+    /**
+     * Tests that add and touch move elements to the front of the iteration
+     * order, contains does not, and removeAny removes the least recently used
+     * one.
+     */
+    @Test
+    public final void testRecencyOrder() {
+        Set6<String> test = new Set6<>();
+        test.add("a");
+        test.add("b");
+        test.add("c");
+        assertEquals("c b a ", elements(test));
+
+        assertEquals(true, test.contains("a"));
+        assertEquals(false, test.contains("z"));
+        assertEquals("c b a ", elements(test));
+
+        test.touch("a");
+        assertEquals("a c b ", elements(test));
+
+        assertEquals("b", test.removeAny());
+        assertEquals("a c ", elements(test));
+    }
+
+    /**
+     * Tests that calling contains on each element while iterating visits every
+     * element once, in recency order.
+     */
+    @Test
+    public final void testContainsWhileIterating() {
+        Set6<String> test = new Set6<>();
+        test.add("a");
+        test.add("b");
+        test.add("c");
+        StringBuilder visited = new StringBuilder();
+        for (String x : test) {
+            assertEquals(true, test.contains(x));
+            assertEquals(true, test.contains("a"));
+            visited.append(x).append(' ');
+        }
+        assertEquals("c b a ", visited.toString());
+    }
+
+    /**
+     * Tests that equals, which calls contains while iterating, leaves the
+     * order alone.
+     */
+    @Test
+    public final void testEqualsKeepsOrder() {
+        Set6<String> test = new Set6<>();
+        Set6<String> other = new Set6<>();
+        for (String s : new String[] { "a", "b", "c" }) {
+            test.add(s);
+        }
+        for (String s : new String[] { "c", "a", "b" }) {
+            other.add(s);
+        }
+        assertEquals(true, test.equals(other));
+        assertEquals("c b a ", elements(test));
+        assertEquals("b a c ", elements(other));
+    }
+
+    /**
+     * Tests seen on a set with a maximum size, which evicts the least
+     * recently used element.
+     */
+    @Test
+    public final void testSeenEvicts() {
+        Set6<String> test = new Set6<>(2);
+        assertEquals(false, test.seen("a"));
+        assertEquals(false, test.seen("b"));
+        assertEquals(true, test.seen("a"));
+        assertEquals(false, test.seen("c"));
+        assertEquals("c a ", elements(test));
+        assertEquals(false, test.seen("b"));
+        assertEquals("b c ", elements(test));
+        assertEquals(2, test.maxSize());
+    }
+
+    /**
+     * Tests seen on a set with no maximum size.
+     */
+    @Test
+    public final void testSeenUnbounded() {
+        Set6<String> test = new Set6<>();
+        for (String s : new String[] { "a", "b", "a", "c", "b" }) {
+            test.seen(s);
+        }
+        assertEquals("b c a ", elements(test));
+        assertEquals(0, test.maxSize());
+    }
+
+}
@@ -0,0 +1,173 @@
+import java.util.Random;
+
+import components.set.Set;
+import components.set.Set1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Compares the time per operation of {@code Set4} (hash table),
+ * {@code Set5} (AVL tree), {@code Set3a} (unbalanced binary search tree),
+ * {@code Set6} (hash-indexed recency list), {@code Set2} (queue) and
+ * {@code Set1L} on {@code String} elements: adding n elements, checking each
+ * with {@code contains}, and removing them all. The elements are added,
+ * checked and removed in a fixed pseudo-random order, so {@code Set3a}'s tree
+ * has logarithmic expected depth. {@code Set2} takes time linear in the size
+ * of the set per operation, so it is only run when n is at most
+ * {@code QUEUE_LIMIT}.
+ *
+ * <p>
+ * Usage: {@code SetBenchmark [n]}; the default is 10^4 elements. With
+ * {@code n = 1000000}, the garbage collector's work can be compared by
+ * running with {@code -verbose:gc}.
+ * </p>
+ *
+ * @author Yuting Che
+ *
+ */
+public final class SetBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private SetBenchmark() {
+    }
+
+    /**
+     * Default number of elements.
+     */
+    private static final int DEFAULT_ELEMENTS = 10_000;
+
+    /**
+     * Largest number of elements {@code Set2} is run with.
+     */
+    private static final int QUEUE_LIMIT = 20_000;
+
+    /**
+     * Number of untimed rounds before timing.
+     */
+    private static final int WARMUP_ROUNDS = 3;
+
+    /**
+     * Number of timed rounds; the fastest is reported.
+     */
+    private static final int TIMED_ROUNDS = 5;
+
+    /**
+     * Seed of the shuffle of the elements.
+     */
+    private static final long SEED = 2231;
+
+    /**
+     * Sink for lookup results so the JIT cannot discard the timed loops.
+     */
+    private static int sink;
+
+    /**
+     * Times one round on {@code set}: adds every element, checks every
+     * element, and removes every element.
+     *
+     * @param set
+     *            the set under test
+     * @param elements
+     *            the elements
+     * @return nanoseconds for {add, contains, remove} phases
+     * @updates set
+     * @requires set = {} and [the elements are distinct]
+     * @ensures set = {}
+     */
+    private static long[] round(Set<String> set, String[] elements) {
+        long start = System.nanoTime();
+        for (String e : elements) {
+            set.add(e);
+        }
+        long added = System.nanoTime();
+        int acc = 0;
+        for (String e : elements) {
+            if (set.contains(e)) {
+                acc++;
+            }
+        }
+        long looked = System.nanoTime();
+        for (String e : elements) {
+            set.remove(e);
+        }
+        long removed = System.nanoTime();
+        sink += acc;
+        return new long[] { added - start, looked - added, removed - looked };
+    }
+
+    /**
+     * Outputs the fastest time per operation of each phase on {@code set}.
+     *
+     * @param name
+     *            the name of the implementation
+     * @param set
+     *            the set under test
+     * @param elements
+     *            the elements
+     * @param out
+     *            the output stream
+     * @updates out.content
+     * @requires set = {} and out.is_open
+     */
+    private static void benchmark(String name, Set<String> set,
+            String[] elements, SimpleWriter out) {
+        long[] best = { Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE };
+        for (int r = 0; r < WARMUP_ROUNDS + TIMED_ROUNDS; r++) {
+            long[] t = round(set, elements);
+            if (r >= WARMUP_ROUNDS) {
+                for (int i = 0; i < best.length; i++) {
+                    best[i] = Math.min(best[i], t[i]);
+                }
+            }
+        }
+        double n = elements.length;
+        out.println(String.format("%-8s %10.1f %10.1f %10.1f", name,
+                best[0] / n, best[1] / n, best[2] / n));
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            optional number of elements
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+
+        int n = DEFAULT_ELEMENTS;
+        if (args.length > 0) {
+            n = Integer.parseInt(args[0]);
+        }
+        String[] elements = new String[n];
+        for (int i = 0; i < n; i++) {
+            elements[i] = "line" + i;
+        }
+        Random rnd = new Random(SEED);
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            String tmp = elements[i];
+            elements[i] = elements[j];
+            elements[j] = tmp;
+        }
+
+        out.println(n + " elements, ns/operation");
+        out.println(String.format("%-8s %10s %10s %10s", "set", "add",
+                "contains", "remove"));
+        benchmark("Set4", new Set4<String>(), elements, out);
+        benchmark("Set5", new Set5<String>(), elements, out);
+        benchmark("Set3a", new Set3a<String>(), elements, out);
+        benchmark("Set6", new Set6<String>(), elements, out);
+        benchmark("Set1L", new Set1L<String>(), elements, out);
+        if (n <= QUEUE_LIMIT) {
+            benchmark("Set2", new Set2<String>(), elements, out);
+        }
+        if (sink == 1) {
+            out.println();
+        }
+
+        out.close();
+    }
+
+}
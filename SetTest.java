@@ -12,6 +12,11 @@ import components.set.Set;
  */
 public abstract class SetTest {
 
+    /**
+     * Number of elements used by the tests that make a set grow.
+     */
+    private static final int MANY = 1000;
+
     /**
      * Invokes the appropriate {@code Set} constructor for the implementation
      * under test and returns the result.
@@ -272,4 +277,56 @@ public abstract class SetTest {
         assertEquals(test, expected);
     }
 
+    /**
+     * Tests adding enough elements to make the set grow.
+     */
+    @Test
+    public final void testAddMany() {
+        Set<String> test = this.constructorTest();
+        Set<String> expected = this.constructorRef();
+        for (int i = 0; i < MANY; i++) {
+            test.add("e" + i);
+            expected.add("e" + i);
+        }
+        assertEquals(expected, test);
+        assertEquals(true, test.contains("e" + (MANY / 2)));
+    }
+
+    /**
+     * Tests removing elements interleaved with adds.
+     */
+    @Test
+    public final void testRemoveDuringGrowth() {
+        Set<String> test = this.constructorTest();
+        Set<String> expected = this.constructorRef();
+        for (int i = 0; i < MANY; i++) {
+            test.add("e" + i);
+            expected.add("e" + i);
+            if (i % 3 == 0) {
+                test.remove("e" + (i / 2));
+                expected.remove("e" + (i / 2));
+            }
+        }
+        assertEquals(expected, test);
+    }
+
+    /**
+     * Tests draining a large set with removeAny.
+     */
+    @Test
+    public final void testRemoveAnyDrains() {
+        Set<String> test = this.constructorTest();
+        Set<String> expected = this.constructorRef();
+        for (int i = 0; i < MANY; i++) {
+            test.add("e" + i);
+            expected.add("e" + i);
+        }
+        while (test.size() > 0) {
+            String r = test.removeAny();
+            assertEquals(true, expected.contains(r));
+            expected.remove(r);
+        }
+        assertEquals(expected, test);
+    }
+
 }